@@ -0,0 +1,17 @@
+package io.jrevolt.launcher;
+
+/**
+ * Main class of the synthetic application launched by {@link StartupBenchmark}. It is packaged into the application
+ * archive and loaded in isolation: it only records the time its {@code main} method has been reached.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class BenchmarkApplication {
+
+	static public final String STARTED = "jrevolt.benchmark.started";
+
+	static public void main(String[] args) {
+		System.setProperty(STARTED, Long.toString(System.nanoTime()));
+	}
+
+}
@@ -0,0 +1,55 @@
+package io.jrevolt.launcher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration lookups (repeated throughout the resolution, for each artifact)
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LauncherCfgBenchmark {
+
+	@Setup
+	public void setup() {
+		System.setProperty("jrevolt.launcher.defaults", "classpath:LauncherCfg.properties");
+		LauncherCfg.configure();
+	}
+
+	@Benchmark
+	public boolean asBoolean() {
+		return LauncherCfg.offline.asBoolean();
+	}
+
+	@Benchmark
+	public Duration asDuration() {
+		return LauncherCfg.updateInterval.asDuration();
+	}
+
+	/**
+	 * Baseline: lookup, placeholder resolution and parsing, as if the configuration changed before each access
+	 */
+	@Benchmark
+	public Duration asDurationRefreshed() {
+		LauncherCfg.refresh();
+		return LauncherCfg.updateInterval.asDuration();
+	}
+
+}
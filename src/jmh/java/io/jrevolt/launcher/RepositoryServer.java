@@ -0,0 +1,195 @@
+package io.jrevolt.launcher;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Stand-in Maven repository served over HTTP from memory, with simulated network conditions: per-request latency,
+ * per-response bandwidth, and injected errors (server errors and connections closed in the middle of the content).
+ * <p/>
+ * Supports conditional ({@code If-None-Match}) and ranged ({@code Range}, {@code If-Range}) requests.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ * @see StartupBenchmark
+ */
+class RepositoryServer implements HttpHandler {
+
+	static private final String LAST_MODIFIED = "Tue, 05 Aug 2014 21:50:00 GMT";
+
+	private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+
+	private HttpServer server;
+
+	private ExecutorService executor;
+
+	/**
+	 * Delay before each response (msec)
+	 */
+	long latency;
+
+	/**
+	 * Max transfer rate of each response (KB/s, 0 = unlimited)
+	 */
+	long bandwidth;
+
+	/**
+	 * Probability of an injected error (0..1)
+	 */
+	double errors;
+
+	final AtomicInteger requests = new AtomicInteger();
+
+	final AtomicLong bytes = new AtomicLong();
+
+	/**
+	 * Add content of a given repository archive (e.g. {@code repository.zip})
+	 */
+	void load(InputStream zip) throws IOException {
+		try (ZipInputStream in = new ZipInputStream(zip)) {
+			for (ZipEntry e; (e = in.getNextEntry()) != null; ) {
+				if (!e.isDirectory()) {
+					ByteArrayOutputStream out = new ByteArrayOutputStream();
+					byte[] buf = new byte[8192];
+					for (int n; (n = in.read(buf)) != -1; ) {
+						out.write(buf, 0, n);
+					}
+					put(e.getName(), out.toByteArray());
+				}
+			}
+		}
+	}
+
+	void put(String path, byte[] content) {
+		files.put("/" + path, content);
+	}
+
+	URL start() throws IOException {
+		executor = Executors.newCachedThreadPool();
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", this);
+		server.setExecutor(executor);
+		server.start();
+		return new URL(String.format("http://127.0.0.1:%d/", server.getAddress().getPort()));
+	}
+
+	void stop() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	void reset() {
+		requests.set(0);
+		bytes.set(0);
+	}
+
+	@Override
+	public void handle(HttpExchange ex) throws IOException {
+		try {
+			requests.incrementAndGet();
+			if (latency > 0) {
+				Thread.sleep(latency);
+			}
+
+			byte[] content = files.get(ex.getRequestURI().getPath());
+			if (content == null) {
+				ex.sendResponseHeaders(404, -1);
+				return;
+			}
+
+			boolean fail = errors > 0 && ThreadLocalRandom.current().nextDouble() < errors;
+			if (fail && ThreadLocalRandom.current().nextBoolean()) {
+				ex.sendResponseHeaders(503, -1);
+				return;
+			}
+
+			Headers request = ex.getRequestHeaders();
+			Headers response = ex.getResponseHeaders();
+			String etag = String.format("\"%08x\"", Arrays.hashCode(content));
+			response.add("ETag", etag);
+			response.add("Last-Modified", LAST_MODIFIED);
+			response.add("Accept-Ranges", "bytes");
+
+			if (etag.equals(request.getFirst("If-None-Match"))) {
+				ex.sendResponseHeaders(304, -1);
+				return;
+			}
+			if (ex.getRequestMethod().equals("HEAD")) {
+				response.add("Content-Length", Integer.toString(content.length));
+				ex.sendResponseHeaders(200, -1);
+				return;
+			}
+
+			int from = 0, to = content.length;
+			String range = request.getFirst("Range");
+			String ifRange = request.getFirst("If-Range");
+			if (range != null && range.startsWith("bytes=") && (ifRange == null || ifRange.equals(etag)
+					|| ifRange.equals(LAST_MODIFIED))) {
+				String[] bounds = range.substring(6).split("-", -1);
+				from = Integer.parseInt(bounds[0]);
+				if (!bounds[1].isEmpty()) {
+					to = Math.min(to, Integer.parseInt(bounds[1]) + 1);
+				}
+				if (from >= content.length) {
+					response.add("Content-Range", "bytes */" + content.length);
+					ex.sendResponseHeaders(416, -1);
+					return;
+				}
+				response.add("Content-Range", String.format("bytes %d-%d/%d", from, to - 1, content.length));
+				ex.sendResponseHeaders(206, to - from);
+			} else {
+				ex.sendResponseHeaders(200, content.length);
+			}
+
+			// injected error: connection closed in the middle of the content
+			int length = fail ? (to - from) / 2 : to - from;
+			write(ex.getResponseBody(), content, from, length);
+			if (fail) {
+				throw new IOException("Injected error");
+			}
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			ex.close();
+		}
+	}
+
+	private void write(OutputStream out, byte[] content, int offset, int length) throws IOException,
+			InterruptedException {
+		int chunk = (bandwidth > 0) ? (int) Math.max(1024, bandwidth * 1024 / 10) : 64 * 1024;
+		long started = System.nanoTime();
+		for (int written = 0; written < length; ) {
+			int n = Math.min(chunk, length - written);
+			out.write(content, offset + written, n);
+			written += n;
+			bytes.addAndGet(n);
+			if (bandwidth > 0) {
+				long due = written * 1000L / (bandwidth * 1024);
+				long elapsed = (System.nanoTime() - started) / 1000000;
+				if (due > elapsed) {
+					Thread.sleep(due - elapsed);
+				}
+			}
+		}
+	}
+
+}
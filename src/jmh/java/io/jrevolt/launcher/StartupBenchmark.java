@@ -0,0 +1,292 @@
+package io.jrevolt.launcher;
+
+import io.jrevolt.launcher.util.CommandLine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * End-to-end startup benchmark: time from {@link Main#launch(Queue)} to the application's {@code main} method, with
+ * the full resolution and launch path ({@code RepositorySupport.resolve()}, {@code Launcher.launch()}), against a
+ * local stand-in repository ({@link RepositoryServer}).
+ * <p/>
+ * Repository contains {@code repository.zip} (test resources) and a generated application: main archive (snapshot)
+ * and a given number of libraries (some of them snapshots) of a given size.
+ * <p/>
+ * Scenarios:
+ * <ul>
+ * <li>{@code cold}: empty cache (new cache directory for each run)</li>
+ * <li>{@code warm}: populated cache, up to date ({@code --update=false})</li>
+ * <li>{@code expired}: populated cache, all snapshots expired ({@code --update=false --updateInterval=PT0S})</li>
+ * </ul>
+ * Usage: {@code StartupBenchmark [--option=value...]}. Options (defaults):
+ * {@code --runs=10 --scenarios=cold,warm,expired --libs=20 --size=256 (KB) --snapshots=0.25 --latency=0 (msec)
+ * --bandwidth=0 (KB/s) --errors=0 (0..1)}. Any other option is passed to the launcher (e.g. {@code --executor=virtual}).
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class StartupBenchmark {
+
+	static private final String GROUP = "io.jrevolt.benchmark";
+	static private final String SNAPSHOT = "1.0-SNAPSHOT";
+	static private final String TIMESTAMP = "20140805.215000";
+	static private final String EXTRA = "org.springframework.boot:spring-boot-loader-tools:1.2.0.BUILD-SNAPSHOT";
+
+	static private final List<String> OPTIONS = Arrays.asList(
+			"runs", "scenarios", "libs", "size", "snapshots", "latency", "bandwidth", "errors");
+
+	static public void main(String[] args) throws Exception {
+		Properties options = CommandLine.parse(new LinkedList<>(Arrays.asList(args))).properties();
+		new StartupBenchmark(options).run();
+	}
+
+	private final Properties options;
+	private final RepositoryServer server = new RepositoryServer();
+	private final Path work;
+
+	private String application;
+
+	StartupBenchmark(Properties options) throws IOException {
+		this.options = options;
+		this.work = Files.createTempDirectory("jrevolt-benchmark");
+	}
+
+	void run() throws Exception {
+		server.latency = Long.parseLong(options.getProperty("latency", "0"));
+		server.bandwidth = Long.parseLong(options.getProperty("bandwidth", "0"));
+		server.errors = Double.parseDouble(options.getProperty("errors", "0"));
+		try (InputStream zip = getClass().getResourceAsStream("/repository.zip")) {
+			server.load(zip);
+		}
+		application = generate(
+				Integer.parseInt(options.getProperty("libs", "20")),
+				Integer.parseInt(options.getProperty("size", "256")) * 1024,
+				Double.parseDouble(options.getProperty("snapshots", "0.25")));
+		URL url = server.start();
+
+		System.setProperty("jrevolt.launcher.defaults", "");
+		System.setProperty(LauncherCfg.repositories.getPropertyName(), "benchmark");
+		System.setProperty("jrevolt.launcher.repository.benchmark.url", url.toString());
+		System.setProperty(LauncherCfg.quiet.getPropertyName(), "true");
+		System.setProperty(LauncherCfg.ansi.getPropertyName(), "false");
+		for (String name : options.stringPropertyNames()) {
+			if (!OPTIONS.contains(name)) {
+				System.setProperty(LauncherCfg.names().contains(name)
+												 ? LauncherCfg.valueOf(name).getPropertyName() : name,
+										 options.getProperty(name));
+			}
+		}
+		LauncherCfg.configure();
+
+		int runs = Integer.parseInt(options.getProperty("runs", "10"));
+		List<String> report = new ArrayList<>();
+		report.add(String.format("%-8s %5s %6s %9s %9s %9s %9s %9s %9s %11s",
+										 "scenario", "runs", "failed", "min", "p50", "p90", "p99", "max", "requests", "KB"));
+		try {
+			for (String scenario : options.getProperty("scenarios", "cold,warm,expired").split(",")) {
+				report.add(report(scenario.trim(), scenario(scenario.trim(), runs)));
+			}
+		} finally {
+			server.stop();
+			delete(work.toFile());
+		}
+		for (String line : report) {
+			System.out.println(line);
+		}
+	}
+
+	/**
+	 * @return duration, requests and bytes transferred for each run (null if the launch failed)
+	 */
+	private long[][] scenario(String scenario, int runs) throws Exception {
+		File cache = work.resolve(scenario).toFile();
+		boolean cold = scenario.equals("cold");
+		if (!cold && !scenario.equals("warm") && !scenario.equals("expired")) {
+			throw new IllegalArgumentException("Unsupported scenario: " + scenario);
+		}
+		System.setProperty(LauncherCfg.update.getPropertyName(), "false");
+		System.setProperty(LauncherCfg.updateInterval.getPropertyName(), scenario.equals("expired") ? "PT0S" : "P1D");
+		if (!cold) {
+			launch(cache); // populate cache
+		}
+		long[][] results = new long[runs][];
+		for (int i = 0; i < runs; i++) {
+			results[i] = launch(cold ? new File(cache, UUID.randomUUID().toString()) : cache);
+		}
+		return results;
+	}
+
+	private long[] launch(File cache) throws Exception {
+		System.setProperty(LauncherCfg.cache.getPropertyName(), cache.getAbsolutePath());
+		System.clearProperty(BenchmarkApplication.STARTED);
+		server.reset();
+
+		long started = System.nanoTime();
+		try {
+			new Main().launch(new LinkedList<>(Collections.singletonList(application)));
+		} catch (LauncherException e) {
+			System.err.printf("Launch failed: %s%n", e);
+			return null;
+		}
+
+		long deadline = started + TimeUnit.MINUTES.toNanos(5);
+		String reached;
+		while ((reached = System.getProperty(BenchmarkApplication.STARTED)) == null) {
+			if (System.nanoTime() > deadline) {
+				throw new IllegalStateException("Application has not been started: " + application);
+			}
+			Thread.sleep(1);
+		}
+		return new long[] { Long.parseLong(reached) - started, server.requests.get(), server.bytes.get() };
+	}
+
+	/**
+	 * Percentiles of successful runs (msec), average requests and KB transferred per run
+	 */
+	private String report(String scenario, long[][] results) {
+		long[] durations = new long[results.length];
+		int runs = 0;
+		long requests = 0, bytes = 0;
+		for (long[] result : results) {
+			if (result != null) {
+				durations[runs++] = result[0];
+				requests += result[1];
+				bytes += result[2];
+			}
+		}
+		if (runs == 0) {
+			return String.format("%-8s %5d %6d", scenario, results.length, results.length);
+		}
+		durations = Arrays.copyOf(durations, runs);
+		Arrays.sort(durations);
+		return String.format(Locale.ROOT, "%-8s %5d %6d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f %11.1f",
+									scenario, results.length, results.length - runs,
+									millis(durations[0]), millis(percentile(durations, 50)),
+									millis(percentile(durations, 90)), millis(percentile(durations, 99)),
+									millis(durations[runs - 1]), (double) requests / runs, bytes / 1024.0 / runs);
+	}
+
+	static private long percentile(long[] sorted, int p) {
+		int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+		return sorted[Math.max(0, rank - 1)];
+	}
+
+	static private double millis(long nanos) {
+		return nanos / 1000000.0;
+	}
+
+	///
+
+	/**
+	 * Generate application archive and its libraries
+	 *
+	 * @return application URI
+	 */
+	private String generate(int libs, int size, double snapshots) throws IOException {
+		Random random = new Random(libs);
+		List<String> dependencies = new ArrayList<>();
+		for (int i = 0; i < libs; i++) {
+			byte[] data = new byte[size];
+			random.nextBytes(data);
+			String version = (i < Math.round(libs * snapshots)) ? SNAPSHOT : "1.0";
+			dependencies.add(deploy("lib" + i, version, jar(null, null, "lib" + i + "/data.bin", data)));
+		}
+		dependencies.add(EXTRA);
+
+		byte[] main = readClass(BenchmarkApplication.class);
+		String path = BenchmarkApplication.class.getName().replace('.', '/') + ".class";
+		return deploy("app", SNAPSHOT, jar(BenchmarkApplication.class.getName(), dependencies, path, main));
+	}
+
+	private String deploy(String artifactId, String version, byte[] jar) {
+		String dir = String.format("%s/%s/%s", GROUP.replace('.', '/'), artifactId, version);
+		String fversion = version;
+		if (version.endsWith("-SNAPSHOT")) {
+			fversion = version.replaceFirst("SNAPSHOT$", TIMESTAMP + "-1");
+			server.put(dir + "/maven-metadata.xml", String.format(
+					"<?xml version=\"1.0\" encoding=\"UTF-8\"?><metadata><groupId>%s</groupId>"
+							+ "<artifactId>%s</artifactId><version>%s</version><versioning><snapshot>"
+							+ "<timestamp>%s</timestamp><buildNumber>1</buildNumber></snapshot></versioning></metadata>",
+					GROUP, artifactId, version, TIMESTAMP).getBytes());
+		}
+		String file = String.format("%s/%s-%s.jar", dir, artifactId, fversion);
+		server.put(file, jar);
+		server.put(file + ".sha1", sha1(jar).getBytes());
+		return String.format("%s:%s:%s", GROUP, artifactId, version);
+	}
+
+	static private byte[] jar(String mainClass, List<String> dependencies, String entry, byte[] content)
+			throws IOException {
+		Manifest mf = new Manifest();
+		mf.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		if (mainClass != null) {
+			mf.getMainAttributes().put(Attributes.Name.MAIN_CLASS, mainClass);
+		}
+		if (dependencies != null) {
+			mf.getMainAttributes().putValue("Maven-Dependencies", String.join(",", dependencies));
+		}
+		ByteArrayOutputStream buf = new ByteArrayOutputStream();
+		try (JarOutputStream out = new JarOutputStream(buf, mf)) {
+			out.putNextEntry(new JarEntry(entry));
+			out.write(content);
+			out.closeEntry();
+		}
+		return buf.toByteArray();
+	}
+
+	static private byte[] readClass(Class<?> cls) throws IOException {
+		try (InputStream in = cls.getResourceAsStream(cls.getSimpleName() + ".class")) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buf = new byte[4096];
+			for (int n; (n = in.read(buf)) != -1; ) {
+				out.write(buf, 0, n);
+			}
+			return out.toByteArray();
+		}
+	}
+
+	static private String sha1(byte[] data) {
+		try {
+			StringBuilder sb = new StringBuilder();
+			for (byte b : MessageDigest.getInstance("SHA1").digest(data)) {
+				sb.append(String.format("%02x", b));
+			}
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	static private void delete(File f) {
+		File[] files = f.listFiles();
+		if (files != null) {
+			for (File child : files) {
+				delete(child);
+			}
+		}
+		f.delete();
+	}
+
+}
@@ -0,0 +1,163 @@
+package io.jrevolt.launcher.mvn;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Artifact coordinates: parsing, formatting and sorting (done for each dependency on every start). Parsing is
+ * compared to the former regex/split implementation ({@code legacy*}).
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArtifactBenchmark {
+
+	static final String MVNURI = "org.springframework.boot:spring-boot-loader-tools:1.2.0.BUILD-SNAPSHOT";
+	static final String MVNURI_FULL = "org.springframework.boot:spring-boot-loader-tools:1.2.0.RELEASE:jar:sources@main";
+
+	/**
+	 * Number of artifacts sorted
+	 */
+	@Param({ "100", "10000" })
+	int count;
+
+	Artifact artifact;
+
+	List<Artifact> artifacts;
+
+	/**
+	 * Maven-Dependencies manifest attribute listing {@link #count} artifacts
+	 */
+	String manifest;
+
+	@Setup
+	public void setup() {
+		artifact = Artifact.parse(MVNURI);
+		artifacts = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			artifacts.add(Artifact.parse(String.format("io.jrevolt.g%d:artifact-%d:1.%d.0", i % 50, i, i % 10)));
+		}
+		Collections.shuffle(artifacts, new Random(count));
+		StringBuilder sb = new StringBuilder();
+		for (Artifact a : artifacts) {
+			sb.append(sb.length() > 0 ? ", " : "").append(a.asString());
+		}
+		manifest = sb.toString();
+	}
+
+	@Benchmark
+	public Artifact parse() {
+		return Artifact.parse(MVNURI);
+	}
+
+	@Benchmark
+	public Artifact tryparseFull() {
+		return Artifact.tryparse(MVNURI_FULL);
+	}
+
+	@Benchmark
+	public Artifact legacyParse() {
+		return legacyParse(MVNURI);
+	}
+
+	@Benchmark
+	public Artifact legacyTryparseFull() {
+		return legacyParse(MVNURI_FULL);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public List<Artifact> parseList() {
+		return Artifact.parseList(manifest);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public List<Artifact> legacyParseList() {
+		List<Artifact> result = new ArrayList<>();
+		for (String s : manifest.split("[,\\p{Space}]")) {
+			if (s.trim().isEmpty()) {
+				continue;
+			}
+			result.add(legacyParse(s));
+		}
+		return result;
+	}
+
+	@Benchmark
+	public String getPath() {
+		return artifact.getPath();
+	}
+
+	@Benchmark
+	public String asString() {
+		return artifact.asString();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public List<Artifact> sort() {
+		List<Artifact> sorted = new ArrayList<>(artifacts);
+		Collections.sort(sorted, Artifact.COMPARATOR);
+		return sorted;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Set<Artifact> hashSet() {
+		return new HashSet<>(artifacts);
+	}
+
+	///
+
+	static private final Pattern TIMESTAMPED = Pattern.compile("(.*)-\\p{Digit}{8}\\.\\p{Digit}{6}-\\p{Digit}+");
+
+	/**
+	 * Former implementation of {@link Artifact#tryparse(String)}, including explicit snapshot version detection
+	 */
+	static Artifact legacyParse(String mvnuri) {
+		mvnuri = mvnuri.replaceFirst("@.*", "");
+		String[] it = mvnuri.split(":");
+		String g = get(it, 0, null);
+		String a = get(it, 1, null);
+		String v = get(it, 2, null);
+		String packaging = get(it, 3, "jar");
+		String classifier = get(it, 4, null);
+		String mainclass = get(it, 5, null);
+		Matcher m = TIMESTAMPED.matcher(v);
+		if (m.matches()) {
+			v = m.replaceFirst("$1-SNAPSHOT");
+		}
+		return new Artifact(g, a, v, packaging, classifier, mainclass);
+	}
+
+	static private String get(String[] strings, int idx, String dflt) {
+		String s = strings.length > idx ? strings[idx] : null;
+		return s != null && s.length() > 0 ? s : dflt;
+	}
+
+}
@@ -0,0 +1,105 @@
+package io.jrevolt.launcher.mvn;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository content processing: snapshot metadata parsing and checksum computation (jar sizes typical for libraries
+ * and for fat application archives)
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositoryConnectorBenchmark {
+
+	static final byte[] METADATA = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+			+ "<metadata modelVersion=\"1.1.0\">\n"
+			+ "  <groupId>org.springframework.boot</groupId>\n"
+			+ "  <artifactId>spring-boot-loader</artifactId>\n"
+			+ "  <version>1.2.0.BUILD-SNAPSHOT</version>\n"
+			+ "  <versioning>\n"
+			+ "    <snapshot>\n"
+			+ "      <timestamp>20140805.215000</timestamp>\n"
+			+ "      <buildNumber>1</buildNumber>\n"
+			+ "    </snapshot>\n"
+			+ "    <lastUpdated>20140805215000</lastUpdated>\n"
+			+ "    <snapshotVersions>\n"
+			+ "      <snapshotVersion>\n"
+			+ "        <extension>jar</extension>\n"
+			+ "        <value>1.2.0.BUILD-20140805.215000-1</value>\n"
+			+ "        <updated>20140805215000</updated>\n"
+			+ "      </snapshotVersion>\n"
+			+ "      <snapshotVersion>\n"
+			+ "        <extension>pom</extension>\n"
+			+ "        <value>1.2.0.BUILD-20140805.215000-1</value>\n"
+			+ "        <updated>20140805215000</updated>\n"
+			+ "      </snapshotVersion>\n"
+			+ "      <snapshotVersion>\n"
+			+ "        <classifier>sources</classifier>\n"
+			+ "        <extension>jar</extension>\n"
+			+ "        <value>1.2.0.BUILD-20140805.215000-1</value>\n"
+			+ "        <updated>20140805215000</updated>\n"
+			+ "      </snapshotVersion>\n"
+			+ "    </snapshotVersions>\n"
+			+ "  </versioning>\n"
+			+ "</metadata>\n").getBytes(StandardCharsets.UTF_8);
+
+	/**
+	 * Size of the checksummed file (KB)
+	 */
+	@Param({ "64", "1024", "32768" })
+	int size;
+
+	Artifact artifact;
+
+	File file;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		artifact = Artifact.parse("org.springframework.boot:spring-boot-loader:1.2.0.BUILD-SNAPSHOT");
+		file = File.createTempFile("benchmark", ".jar");
+		byte[] content = new byte[size * 1024];
+		new Random(size).nextBytes(content);
+		Files.write(file.toPath(), content);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file.toPath());
+	}
+
+	@Benchmark
+	public String snapshotVersionFromMetadata() throws IOException {
+		return Metadata.parse(new ByteArrayInputStream(METADATA)).getSnapshotVersion(artifact);
+	}
+
+	@Benchmark
+	public String checksum() {
+		return RepositoryConnector.getFileChecksum(file, "SHA1");
+	}
+
+}
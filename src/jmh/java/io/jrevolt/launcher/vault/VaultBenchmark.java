@@ -0,0 +1,80 @@
+package io.jrevolt.launcher.vault;
+
+import io.jrevolt.launcher.url.UrlSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Property resolution: plain references and encrypted values (test certificate and key)
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VaultBenchmark {
+
+	static {
+		UrlSupport.init();
+	}
+
+	Path dir;
+
+	Vault vault;
+
+	String plain;
+
+	String encrypted;
+
+	@Setup
+	public void setup() throws IOException {
+		dir = Files.createTempDirectory("benchmark");
+		Path crt = dir.resolve("vault.crt");
+		Path key = dir.resolve("vault.key");
+		Files.copy(getClass().getResourceAsStream("/test.crt"), crt);
+		Files.copy(getClass().getResourceAsStream("/test.key"), key);
+		System.setProperty("jrevolt.vault.user.dataFile", dir.resolve("vault.properties").toString());
+		System.setProperty("jrevolt.vault.user.certFile", crt.toString());
+		System.setProperty("jrevolt.vault.user.keyFile", key.toString());
+		Vault.close();
+		vault = Vault.instance();
+		vault.setProperty("benchmark.username", "jrevolt");
+		plain = "user=${benchmark.username}, home=${java.io.tmpdir}";
+		encrypted = String.format("password=%s", vault.encrypt("secret"));
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Vault.close();
+		Files.walk(dir).sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+	}
+
+	@Benchmark
+	public String resolve() {
+		return vault.resolve(plain);
+	}
+
+	@Benchmark
+	public String decrypt() {
+		return vault.resolve(encrypted);
+	}
+
+}
@@ -1,140 +1,235 @@
-package io.jrevolt.launcher;
-
-import io.jrevolt.launcher.mvn.Artifact;
-import io.jrevolt.launcher.mvn.Resolver;
-import io.jrevolt.launcher.mvn.ResolverContext;
-import io.jrevolt.launcher.util.Log;
-import io.jrevolt.launcher.util.StatusLine;
-
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
-import java.util.concurrent.ExecutionException;
-
-/**
- * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
- */
-public class RepositorySupport {
-
-	static public Artifact resolve(String mvnuri) {
-		Artifact ma = Artifact.parse(mvnuri);
-		resolve(ma);
-		return ma;
-	}
-
-	static public List<Artifact> resolve(Artifact mvnartifact) {
-		return resolve(mvnartifact, Collections.<Artifact>emptyList());
-	}
-
-	static public List<Artifact> resolve(Artifact mvnartifact, List<Artifact> extras) {
-
-		List<Artifact> artifacts = new LinkedList<>();
-
-		ResolverContext context = new ResolverContext(mvnartifact);
-		try {
-//            Resolver main = new Resolver(context, mvnartifact);
-//            List<Resolver> extras = new LinkedList<>();
-//            for (Artifact a : artifacts) { extras.add(new Resolver(context, a)); }
-
-			int count = 0;
-			int size = 0;
-			int downloaded = 0;
-			int errors = 0;
-			int warnings = 0;
-			int requests = 0;
-
-			try {
-				context.startProgressMonitor();
-
-				// resolveAll() fires async. process
-				SortedSet<Resolver> resolvers = new TreeSet<>(Resolver.byFullArtifactName);
-				if (mvnartifact != null) {
-					resolvers.addAll(new Resolver(context, mvnartifact).resolveAll());
-				}
-				for (Artifact a : extras) {
-					resolvers.addAll(new Resolver(context, a).resolveAll());
-				}
-
-				Log.debug("Dependencies (alphabetical):");
-
-				for (Resolver r : resolvers) {
-
-					// this may block until resolved artifact is available
-					Artifact ma = r.getResolvedArtifact();
-					artifacts.add(ma);
-
-					Log.log(toLevel(ma.getStatus()),
-							  "- %-12s: %-80s %s",
-							  ma.getStatus(), ma,
-							  ma.getRepositoryId() != null
-									  ? String.format("(%4dKB @%s)", ma.getFile() != null && ma.getFile().exists() ? ma.getFile()
-									  .length() / 1024 : 0, ma.getRepositoryId())
-									  : ""
-					);
-					// update some stats
-					if (ma.isError()) {
-						errors++;
-					}
-					if (ma.isWarning()) {
-						warnings++;
-					}
-					if (ma.getFile() != null && ma.getFile().exists()) {
-						size += ma.getFile().length();
-					}
-					downloaded += ma.downloaded;
-					requests += ma.requests;
-				}
-
-				count = resolvers.size();
-
-			} catch (InterruptedException e) {
-				throw new LauncherException(e);
-			} catch (ExecutionException e) {
-				throw new LauncherException(e);
-			} finally {
-				context.stopProgressMonitor();
-			}
-
-			// if enabled, print some final report
-			if (!LauncherCfg.quiet.asBoolean()) {
-				long elapsed = System.currentTimeMillis() - context.created;
-				Log.info(String.format(
-						"Summary: %d archives, %d KB total (resolved in %d msec, downloaded %d KB in %d requests, %d KBps). Warnings/Errors: %d/%d.",
-						count, size / 1024, elapsed, downloaded / 1024, requests,
-						downloaded / 1024 * 1000 / elapsed,
-						warnings, errors));
-			}
-
-			// if there are errors and fail-on-error property has not been reset, fail
-			if (LauncherCfg.execute.asBoolean() && errors > 0 && LauncherCfg.failOnError.asBoolean()) {
-				throw new LauncherException(String.format(
-						"%d errors resolving dependencies. Use --%s to view details or --%s to ignore these errors and continue",
-						errors, LauncherCfg.debug.name(), LauncherCfg.failOnError.name()));
-			}
-
-			return artifacts;
-
-		} finally {
-			context.close();
-			StatusLine.resetLine();
-		}
-	}
-
-	static private Log.Level toLevel(Artifact.Status status) {
-		switch (status) {
-			case Invalid:
-			case NotFound:
-			case Downloadable:
-				return Log.Level.WRN;
-			case Downloaded:
-			case Updated:
-				return LauncherCfg.isDebugEnabled() ? Log.Level.DBG : Log.Level.INF;
-			default:
-				return Log.Level.DBG;
-		}
-	}
-
-
-}
+package io.jrevolt.launcher;
+
+import io.jrevolt.launcher.mvn.Artifact;
+import io.jrevolt.launcher.mvn.LaunchPlan;
+import io.jrevolt.launcher.mvn.PendingArtifact;
+import io.jrevolt.launcher.mvn.Resolver;
+import io.jrevolt.launcher.mvn.ResolverContext;
+import io.jrevolt.launcher.util.Log;
+import io.jrevolt.launcher.util.StatusLine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class RepositorySupport {
+
+	static public Artifact resolve(String mvnuri) {
+		Artifact ma = Artifact.parse(mvnuri);
+		resolve(ma);
+		return ma;
+	}
+
+	static public List<Artifact> resolve(Artifact mvnartifact) {
+		return resolve(mvnartifact, Collections.<Artifact>emptyList());
+	}
+
+	static public List<Artifact> resolve(Artifact mvnartifact, List<Artifact> extras) {
+
+		// warm start: previous resolution result is still valid, skip resolution entirely
+		LaunchPlan plan = LaunchPlan.forArtifacts(mvnartifact, extras);
+		if (plan.isValid()) {
+			return resolve(plan, mvnartifact);
+		}
+
+		ResolverContext context = new ResolverContext(mvnartifact);
+		try {
+			Resolver main = (mvnartifact != null) ? new Resolver(context, mvnartifact) : null;
+			return complete(context, plan, mvnartifact, main, start(context, main, extras));
+		} finally {
+			context.close();
+			StatusLine.resetLine();
+		}
+	}
+
+	/**
+	 * Early launch: returns as soon as the main artifact is available and its dependencies are known, while the
+	 * remaining downloads continue in background. Resolution is then completed (report, launch plan) in background.
+	 * Errors cannot abort the launch anymore: they are reported only.
+	 *
+	 * @return all resolved artifacts (possibly pending), in class path order
+	 * @see LauncherCfg#earlyLaunch
+	 */
+	static public List<PendingArtifact> resolveEarly(final Artifact mvnartifact) {
+		final List<Artifact> extras = Collections.emptyList();
+		final LaunchPlan plan = LaunchPlan.forArtifacts(mvnartifact, extras);
+		List<PendingArtifact> futures = new ArrayList<>();
+		if (plan.isValid()) {
+			for (Artifact a : resolve(plan, mvnartifact)) {
+				futures.add(PendingArtifact.completed(a));
+			}
+			return futures;
+		}
+
+		final ResolverContext context = new ResolverContext(mvnartifact);
+		final Resolver main = (mvnartifact != null) ? new Resolver(context, mvnartifact) : null;
+		final SortedSet<Resolver> resolvers;
+		try {
+			resolvers = start(context, main, extras);
+		} catch (RuntimeException e) {
+			context.close();
+			StatusLine.resetLine();
+			throw e;
+		}
+		for (Resolver r : resolvers) {
+			futures.add(r.getPendingArtifact());
+		}
+
+		// not a daemon: pending downloads are completed (and the launch plan saved) even if the application ends early
+		Thread t = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					complete(context, plan, mvnartifact, main, resolvers);
+				} catch (LauncherException e) {
+					Log.error(e, "Background resolution failed: %s", e.getMessage());
+				} finally {
+					context.close();
+					StatusLine.resetLine();
+				}
+			}
+		}, "JRevolt:Launcher:Background");
+		t.start();
+		return futures;
+	}
+
+	/**
+	 * Fires asynchronous resolution of a given artifact and extras (blocks until the main artifact is available)
+	 */
+	static private SortedSet<Resolver> start(ResolverContext context, Resolver main, List<Artifact> extras) {
+		context.startProgressMonitor();
+		try {
+			// resolveAll() fires async. process
+			SortedSet<Resolver> resolvers = new TreeSet<>(Resolver.byFullArtifactName);
+			if (main != null) {
+				resolvers.addAll(main.resolveAll());
+			}
+			for (Artifact a : extras) {
+				resolvers.addAll(new Resolver(context, a).resolveAll());
+			}
+			return resolvers;
+		} catch (RuntimeException e) {
+			context.stopProgressMonitor();
+			throw e;
+		}
+	}
+
+	/**
+	 * Waits for all resolvers, reports the result, and records it in the launch plan (if successful)
+	 */
+	static private List<Artifact> complete(ResolverContext context, LaunchPlan plan, Artifact mvnartifact,
+														Resolver main, SortedSet<Resolver> resolvers) {
+
+		List<Artifact> artifacts = new LinkedList<>();
+
+		int count = 0;
+		int size = 0;
+		int downloaded = 0;
+		int errors = 0;
+		int warnings = 0;
+		int requests = 0;
+
+		try {
+			Log.debug("Dependencies (alphabetical):");
+
+			for (Resolver r : resolvers) {
+
+				// this may block until resolved artifact is available
+				Artifact ma = r.getResolvedArtifact();
+				artifacts.add(ma);
+
+				Log.log(toLevel(ma.getStatus()),
+						  "- %-12s: %-80s %s",
+						  ma.getStatus(), ma,
+						  ma.getRepositoryId() != null
+								  ? String.format("(%4dKB @%s)", ma.getFile() != null && ma.getFile().exists() ? ma.getFile()
+								  .length() / 1024 : 0, ma.getRepositoryId())
+								  : ""
+				);
+				// update some stats
+				if (ma.isError()) {
+					errors++;
+				}
+				if (ma.isWarning()) {
+					warnings++;
+				}
+				if (ma.getFile() != null && ma.getFile().exists()) {
+					size += ma.getFile().length();
+				}
+				downloaded += ma.getDownloaded();
+				requests += ma.getRequests();
+			}
+
+			count = resolvers.size();
+
+			// record successful resolution for subsequent warm starts
+			if (errors == 0) {
+				plan.save(main != null ? main.getMainClass() : null, artifacts);
+			}
+
+		} catch (InterruptedException e) {
+			throw new LauncherException(e);
+		} catch (ExecutionException e) {
+			throw new LauncherException(e);
+		} finally {
+			context.stopProgressMonitor();
+		}
+
+		// if enabled, print some final report
+		if (!LauncherCfg.quiet.asBoolean()) {
+			long elapsed = System.currentTimeMillis() - context.created;
+			Log.info(String.format(
+					"Summary: %d archives, %d KB total (resolved in %d msec, downloaded %d KB in %d requests, %d KBps). Warnings/Errors: %d/%d.",
+					count, size / 1024, elapsed, downloaded / 1024, requests,
+					downloaded / 1024 * 1000 / elapsed,
+					warnings, errors));
+		}
+		Log.debug("Negative cache: %d hits (requests avoided)", context.getNegativeCacheHits());
+		context.metrics.report(mvnartifact, artifacts);
+
+		// if there are errors and fail-on-error property has not been reset, fail
+		if (LauncherCfg.execute.asBoolean() && errors > 0 && LauncherCfg.failOnError.asBoolean()) {
+			throw new LauncherException(String.format(
+					"%d errors resolving dependencies. Use --%s to view details or --%s to ignore these errors and continue",
+					errors, LauncherCfg.debug.name(), LauncherCfg.failOnError.name()));
+		}
+
+		return artifacts;
+	}
+
+	static private List<Artifact> resolve(LaunchPlan plan, Artifact mvnartifact) {
+		List<Artifact> artifacts = plan.getArtifacts(mvnartifact);
+		Log.debug("Using launch plan %s", plan.getFile());
+		Log.debug("Dependencies (alphabetical):");
+		for (Artifact ma : artifacts) {
+			Log.debug("- %-12s: %s", ma.getStatus(), ma);
+		}
+		if (!LauncherCfg.quiet.asBoolean()) {
+			Log.info("Summary: %d archives (launch plan, resolved %tc).", artifacts.size(), plan.getCreated());
+		}
+		return artifacts;
+	}
+
+	static private Log.Level toLevel(Artifact.Status status) {
+		switch (status) {
+			case Invalid:
+			case NotFound:
+			case Downloadable:
+				return Log.Level.WRN;
+			case Downloaded:
+			case Updated:
+				return LauncherCfg.isDebugEnabled() ? Log.Level.DBG : Log.Level.INF;
+			default:
+				return Log.Level.DBG;
+		}
+	}
+
+
+}
@@ -1,372 +1,491 @@
-/*
- * Copyright 2012-2014 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-package io.jrevolt.launcher.mvn;
-
-import io.jrevolt.launcher.LauncherException;
-
-import org.springframework.boot.loader.archive.Archive;
-import org.springframework.boot.loader.archive.JarFileArchive;
-
-import java.io.File;
-import java.io.IOException;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLConnection;
-import java.util.Comparator;
-import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-/**
- * @author Patrik Beno
- */
-public class Artifact {
-
-	// compares artifacts by group:artifact:version:packaging:classifier
-	static public Comparator<Artifact> COMPARATOR = new Comparator<Artifact>() {
-		@Override
-		public int compare(Artifact o1, Artifact o2) {
-			return o1.asString().compareTo(o2.asString());
-		}
-	};
-
-	// note: naming convention broken intentionally for simplicity; these enums are also
-	// used for debug logging, and
-	// the output looks better in CamelCase than UPPER_CASE.
-	static public enum Status {
-		Undefined, Resolving, Resolved, NotModified, Downloadable, Downloading, Downloaded, Updated, Cached, Offline, NotFound, Invalid
-	}
-
-	static public Artifact parse(String mvnuri) {
-		Artifact a = tryparse(mvnuri);
-		if (a == null) {
-			throw new LauncherException(String.format(
-					"Invalid Maven artifact URI: \"%s\". " +
-							"Expected groupId:artifactId:version[:packaging[:classifier]]",
-					mvnuri
-			));
-		}
-		return a;
-	}
-
-	/**
-	 * group:artifact:version[:packaging[:classifier[:mainclass]]]
-	 *
-	 * @param mvnuri
-	 * @return
-	 */
-	static public Artifact tryparse(String mvnuri) {
-		mvnuri = mvnuri.replaceFirst("@.*", ""); // trim @annotations
-		String[] it = mvnuri.split(":");
-		String g = get(it, 0, null);
-		String a = get(it, 1, null);
-		String v = get(it, 2, null);
-		String packaging = get(it, 3, "jar");
-		String classifier = get(it, 4, null);
-		String mainclass = get(it, 5, null);
-
-		if (g == null || a == null || v == null) {
-			return tryFile(new File(mvnuri));
-		}
-
-		return new Artifact(g, a, v, packaging, classifier, mainclass);
-	}
-
-	static public Artifact tryFile(File f) {
-		if (!f.exists()) {
-			return null;
-		}
-		Artifact a = new Artifact(null, null, null, null, null, null);
-		a.file = f;
-		a.status = Status.Offline;
-		return a;
-	}
-
-	static private String get(String[] strings, int idx, String dflt) {
-		String s = strings.length > idx ? strings[idx] : null;
-		return s != null && s.length() > 0 ? s : dflt;
-	}
-
-
-	private String groupId;
-	private String artifactId;
-	private String version;
-	private String packaging;
-	private String classifier;
-	private String mainClass;
-
-	private String resolvedSnapshotVersion; // e.g. 1.0-SNAPSHOT (logical) -> 1.0.20140131.123456 (timestamped)
-
-	private Status status = Status.Undefined; // resolution status
-
-	private URL source; // origin
-
-	private String repositoryId;
-
-	private File file; // cached
-
-	private Throwable error; // resolver error, if any (for reporting purposes)
-
-	public URLConnection con;
-	public File tmp;
-	public long size;
-	public long downloaded;
-	public int requests;
-
-
-	protected Artifact(String groupId, String artifactId, String version, String packaging, String classifier,
-							 String mainClass) {
-		this.groupId = groupId;
-		this.artifactId = artifactId;
-		this.version = version;
-		this.packaging = packaging;
-		this.classifier = classifier;
-		this.mainClass = mainClass;
-		if (version != null) {
-			fixupExplicitSnapshotVersion();
-		}
-	}
-
-	public String getGroupId() {
-		return groupId;
-	}
-
-	public String getArtifactId() {
-		return artifactId;
-	}
-
-	public String getVersion() {
-		return version;
-	}
-
-	public String getPackaging() {
-		return packaging;
-	}
-
-	public String getClassifier() {
-		return classifier;
-	}
-
-	public String getMainClass() {
-		return mainClass;
-	}
-
-	public String getResolvedSnapshotVersion() {
-		return resolvedSnapshotVersion;
-	}
-
-	public void setResolvedSnapshotVersion(String resolvedSnapshotVersion) {
-		this.resolvedSnapshotVersion = resolvedSnapshotVersion;
-	}
-
-	public String getResolvedVersion() {
-		return isSnapshot() ? getResolvedSnapshotVersion() : getVersion();
-	}
-
-	// /
-
-	public Status getStatus() {
-		return status;
-	}
-
-	public void setStatus(Status status) {
-		this.status = status;
-	}
-
-	public void setSource(URL source) {
-		this.source = source;
-	}
-
-	public URL getSource() {
-		return source;
-	}
-
-	public String getRepositoryId() {
-		return repositoryId;
-	}
-
-	public void setRepositoryId(String repositoryId) {
-		this.repositoryId = repositoryId;
-	}
-
-	public void setFile(File file) {
-		this.file = file;
-	}
-
-	public File getFile() {
-		return file;
-	}
-
-	public Throwable getError() {
-		return error;
-	}
-
-	public void setError(Throwable error) {
-		this.error = error;
-	}
-
-	// /
-
-	Archive getArchive() {
-		try {
-			return new JarFileArchive(file, file.toURI().toURL());
-		} catch (IOException e) {
-			throw new RuntimeException("Cannot create archive for " + file, e);
-		}
-	}
-
-	public boolean isUpdated() {
-		switch (getStatus()) {
-			case Downloaded:
-			case Updated:
-				return true;
-			default:
-				return false;
-		}
-	}
-
-	public boolean isSnapshot() {
-		return getVersion().endsWith("-SNAPSHOT");
-	}
-
-	public boolean isRelease() {
-		return !isSnapshot();
-	}
-
-	private void fixupExplicitSnapshotVersion() {
-		Pattern pattern = Pattern.compile("(.*)-\\p{Digit}{8}\\.\\p{Digit}{6}-\\p{Digit}+");
-		Matcher m = pattern.matcher(getVersion());
-		if (m.matches()) {
-			resolvedSnapshotVersion = getVersion();
-			version = m.replaceFirst("$1-SNAPSHOT");
-		}
-	}
-
-	// /
-
-	public boolean isError() {
-		switch (status) {
-			case NotFound:
-			case Invalid:
-				return true;
-			default:
-				return false;
-		}
-	}
-
-	public boolean isWarning() {
-		switch (status) {
-			case Downloadable:
-				return true;
-			default:
-				return false;
-		}
-	}
-
-	public String asString() {
-		return asString(true);
-	}
-
-	public String asString(boolean resolved) {
-		if (groupId == null && artifactId == null && file != null) {
-			return file.toURI().toString();
-		}
-		String version = resolved ? Objects.toString(resolvedSnapshotVersion, getVersion()) : getVersion();
-		StringBuilder sb = new StringBuilder()
-				.append(getGroupId()).append(':')
-				.append(getArtifactId()).append(':')
-				.append(version).append(':')
-				.append(getPackaging());
-		if (getClassifier() != null) {
-			sb.append(':').append(getClassifier());
-		}
-		return sb.toString();
-	}
-
-	/**
-	 * Returns the relative path of this artifact in Maven repository
-	 *
-	 * @return
-	 */
-	public String getPath() {
-		String sversion = (resolvedSnapshotVersion != null && !resolvedSnapshotVersion.isEmpty())
-				? resolvedSnapshotVersion
-				: getVersion();
-		StringBuilder sb = new StringBuilder()
-				.append(getGroupId().replace('.', '/')).append('/')
-				.append(getArtifactId()).append('/')
-				.append(getVersion()).append('/')
-				.append(getArtifactId()).append('-').append(sversion);
-		if (getClassifier() != null) {
-			sb.append('-').append(getClassifier());
-		}
-		sb.append('.').append(getPackaging());
-		return sb.toString();
-	}
-
-	public URL getUrl() {
-		try {
-			return new URL(source, getPath());
-		} catch (MalformedURLException e) {
-			throw new UnsupportedOperationException(e);
-		}
-	}
-
-	@Override
-	public String toString() {
-		return asString();
-	}
-
-	@Override
-	public boolean equals(Object o) {
-		if (this == o) {
-			return true;
-		}
-		if (o == null || getClass() != o.getClass()) {
-			return false;
-		}
-
-		Artifact that = (Artifact) o;
-
-		if (!artifactId.equals(that.artifactId)) {
-			return false;
-		}
-		if (classifier != null ? !classifier.equals(that.classifier) : that.classifier != null) {
-			return false;
-		}
-		if (!groupId.equals(that.groupId)) {
-			return false;
-		}
-		if (packaging != null ? !packaging.equals(that.packaging) : that.packaging != null) {
-			return false;
-		}
-		if (!version.equals(that.version)) {
-			return false;
-		}
-
-		return true;
-	}
-
-	@Override
-	public int hashCode() {
-		int result = groupId.hashCode();
-		result = 31 * result + artifactId.hashCode();
-		result = 31 * result + version.hashCode();
-		result = 31 * result + (packaging != null ? packaging.hashCode() : 0);
-		result = 31 * result + (classifier != null ? classifier.hashCode() : 0);
-		return result;
-	}
-}
+/*
+ * Copyright 2012-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.LauncherException;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * @author Patrik Beno
+ */
+public class Artifact {
+
+	// compares artifacts by group:artifact:version:packaging:classifier
+	static public Comparator<Artifact> COMPARATOR = new Comparator<Artifact>() {
+		@Override
+		public int compare(Artifact o1, Artifact o2) {
+			return o1.asString().compareTo(o2.asString());
+		}
+	};
+
+	// note: naming convention broken intentionally for simplicity; these enums are also
+	// used for debug logging, and
+	// the output looks better in CamelCase than UPPER_CASE.
+	static public enum Status {
+		Undefined, Resolving, Resolved, NotModified, Downloadable, Downloading, Downloaded, Updated, Cached, Offline, NotFound, Invalid
+	}
+
+	static public Artifact parse(String mvnuri) {
+		return parse(mvnuri, 0, mvnuri.length());
+	}
+
+	static private Artifact parse(String s, int from, int to) {
+		Artifact a = tryparse(s, from, to);
+		if (a == null) {
+			throw new LauncherException(String.format(
+					"Invalid Maven artifact URI: \"%s\". " +
+							"Expected groupId:artifactId:version[:packaging[:classifier]]",
+					s.substring(from, to)
+			));
+		}
+		return a;
+	}
+
+	/**
+	 * Parses a list of Maven URIs separated by commas and/or whitespace, e.g. {@code Maven-Dependencies} manifest
+	 * attribute. Empty entries are ignored.
+	 *
+	 * @param list may be {@code null}
+	 * @throws LauncherException on invalid URI
+	 */
+	static public List<Artifact> parseList(String list) {
+		if (list == null) {
+			return Collections.emptyList();
+		}
+		List<Artifact> result = new ArrayList<>();
+		int start = -1;
+		for (int i = 0, len = list.length(); i <= len; i++) {
+			if (i < len && !isSeparator(list.charAt(i))) {
+				if (start < 0) {
+					start = i;
+				}
+			} else if (start >= 0) {
+				result.add(parse(list, start, i));
+				start = -1;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * group:artifact:version[:packaging[:classifier[:mainclass]]]
+	 *
+	 * @param mvnuri
+	 * @return
+	 */
+	static public Artifact tryparse(String mvnuri) {
+		return tryparse(mvnuri, 0, mvnuri.length());
+	}
+
+	/**
+	 * Single pass over a given range of the string: no regex, no intermediate arrays. Trailing {@code @annotations} are
+	 * ignored, empty fields take their defaults.
+	 */
+	static private Artifact tryparse(String s, int from, int to) {
+		String g = null, a = null, v = null, packaging = null, classifier = null, mainclass = null;
+		int field = 0;
+		int start = from;
+		int end = to;
+		for (int i = from; i <= to; i++) {
+			char c = (i < to) ? s.charAt(i) : ':';
+			if (c != ':' && c != '@') {
+				continue;
+			}
+			String value = (i > start) ? s.substring(start, i) : null;
+			switch (field++) {
+				case 0: g = value; break;
+				case 1: a = value; break;
+				case 2: v = value; break;
+				case 3: packaging = value; break;
+				case 4: classifier = value; break;
+				case 5: mainclass = value; break;
+				default: // ignored
+			}
+			if (c == '@') { // trim @annotations
+				end = i;
+				break;
+			}
+			start = i + 1;
+		}
+
+		if (g == null || a == null || v == null) {
+			return tryFile(new File(s.substring(from, end)));
+		}
+
+		return new Artifact(g, a, v, packaging != null ? packaging : "jar", classifier, mainclass);
+	}
+
+	static public Artifact tryFile(File f) {
+		if (!f.exists()) {
+			return null;
+		}
+		Artifact a = new Artifact(null, null, null, null, null, null);
+		a.state.file = f;
+		a.state.status = Status.Offline;
+		return a;
+	}
+
+	// same as regex \p{Space}
+	static private boolean isSeparator(char c) {
+		return c == ',' || c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+	}
+
+	/**
+	 * Explicit snapshot version ({@code base-yyyyMMdd.HHmmss-build}): returns index of the timestamp suffix
+	 * ({@code -yyyyMMdd.HHmmss-build}), or -1
+	 */
+	static int timestamp(String version) {
+		int i = version.length() - 1;
+		while (i >= 0 && isDigit(version.charAt(i))) {
+			i--;
+		}
+		int base = i - 16;
+		if (i == version.length() - 1 || base < 0 || version.charAt(i) != '-' || version.charAt(base) != '-'
+				|| version.charAt(i - 7) != '.' || !isDigits(version, base + 1, i - 7) || !isDigits(version, i - 6, i)) {
+			return -1;
+		}
+		return base;
+	}
+
+	static private boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	static private boolean isDigits(String s, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (!isDigit(s.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * {@code null} for plain files (see {@link #tryFile(File)})
+	 */
+	private final Coordinates coordinates;
+
+	private String mainClass;
+
+	final Resolution state = new Resolution();
+
+	/**
+	 * Canonical string and repository path, derived from the coordinates and the resolved snapshot version (cached)
+	 */
+	private volatile Derived derived;
+
+	static private final class Derived {
+		final String version;
+		final String string;
+		final String path;
+
+		Derived(Coordinates c, String version) {
+			this.version = version;
+			this.string = c.toString(version);
+			this.path = c.getPath(version);
+		}
+	}
+
+
+	protected Artifact(String groupId, String artifactId, String version, String packaging, String classifier,
+							 String mainClass) {
+		String resolved = null;
+		int timestamp = (version != null) ? timestamp(version) : -1;
+		if (timestamp >= 0) {
+			// explicit snapshot version
+			resolved = version;
+			version = version.substring(0, timestamp) + "-SNAPSHOT";
+		}
+		this.coordinates = (groupId != null || artifactId != null || version != null)
+				? Coordinates.of(groupId, artifactId, version, packaging, classifier)
+				: null;
+		this.mainClass = mainClass;
+		this.state.resolvedSnapshotVersion = resolved;
+	}
+
+	private Artifact(Coordinates coordinates, String mainClass) {
+		this.coordinates = coordinates;
+		this.mainClass = mainClass;
+	}
+
+	/**
+	 * @return immutable coordinates, or {@code null} if this is a plain file
+	 */
+	public Coordinates getCoordinates() {
+		return coordinates;
+	}
+
+	public String getGroupId() {
+		return coordinates != null ? coordinates.getGroupId() : null;
+	}
+
+	public String getArtifactId() {
+		return coordinates != null ? coordinates.getArtifactId() : null;
+	}
+
+	public String getVersion() {
+		return coordinates != null ? coordinates.getVersion() : null;
+	}
+
+	public String getPackaging() {
+		return coordinates != null ? coordinates.getPackaging() : null;
+	}
+
+	public String getClassifier() {
+		return coordinates != null ? coordinates.getClassifier() : null;
+	}
+
+	public String getMainClass() {
+		return mainClass;
+	}
+
+	void setMainClass(String mainClass) {
+		this.mainClass = mainClass;
+	}
+
+	public String getResolvedSnapshotVersion() {
+		return state.resolvedSnapshotVersion;
+	}
+
+	public void setResolvedSnapshotVersion(String resolvedSnapshotVersion) {
+		state.resolvedSnapshotVersion = resolvedSnapshotVersion;
+	}
+
+	public String getResolvedVersion() {
+		return isSnapshot() ? getResolvedSnapshotVersion() : getVersion();
+	}
+
+	// /
+
+	public Status getStatus() {
+		return state.status;
+	}
+
+	public void setStatus(Status status) {
+		state.status = status;
+	}
+
+	public void setSource(URL source) {
+		state.source = source;
+	}
+
+	public URL getSource() {
+		return state.source;
+	}
+
+	public String getRepositoryId() {
+		return state.repositoryId;
+	}
+
+	public void setRepositoryId(String repositoryId) {
+		state.repositoryId = repositoryId;
+	}
+
+	public void setFile(File file) {
+		state.file = file;
+	}
+
+	public File getFile() {
+		return state.file;
+	}
+
+	public Throwable getError() {
+		return state.error;
+	}
+
+	public void setError(Throwable error) {
+		state.error = error;
+	}
+
+	/**
+	 * Remote content size (bytes), if known
+	 */
+	public long getSize() {
+		return state.size;
+	}
+
+	/**
+	 * Bytes transferred while resolving this artifact
+	 */
+	public long getDownloaded() {
+		return state.downloaded.get();
+	}
+
+	/**
+	 * Remote requests made while resolving this artifact
+	 */
+	public int getRequests() {
+		return state.requests.get();
+	}
+
+	/**
+	 * Returns a copy of this artifact (coordinates, resolved snapshot version), without any resolution state
+	 */
+	Artifact copy() {
+		Artifact a = new Artifact(coordinates, mainClass);
+		a.state.resolvedSnapshotVersion = state.resolvedSnapshotVersion;
+		a.state.status = state.status;
+		return a;
+	}
+
+	/**
+	 * Takes over the resolution state of a given copy of this artifact
+	 *
+	 * @see #copy()
+	 */
+	void assign(Artifact resolved) {
+		Resolution r = resolved.state;
+		state.resolvedSnapshotVersion = r.resolvedSnapshotVersion;
+		state.status = r.status;
+		state.source = r.source;
+		state.repositoryId = r.repositoryId;
+		state.file = r.file;
+		if (state.error == null) {
+			state.error = r.error;
+		}
+		state.con = r.con;
+		state.tmp = r.tmp;
+		state.size = r.size;
+		state.downloaded.addAndGet(r.downloaded.get());
+		state.timings.merge(r.timings);
+	}
+
+	// /
+
+	/**
+	 * Manifest of the artifact file, or {@code null} if none
+	 */
+	Manifest getManifest() {
+		File file = state.file;
+		try (JarFile jar = new JarFile(file)) {
+			return jar.getManifest();
+		} catch (IOException e) {
+			throw new RuntimeException("Cannot read manifest of " + file, e);
+		}
+	}
+
+	public boolean isUpdated() {
+		switch (getStatus()) {
+			case Downloaded:
+			case Updated:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	public boolean isSnapshot() {
+		return coordinates.isSnapshot();
+	}
+
+	public boolean isRelease() {
+		return !isSnapshot();
+	}
+
+	// /
+
+	public boolean isError() {
+		switch (state.status) {
+			case NotFound:
+			case Invalid:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	public boolean isWarning() {
+		switch (state.status) {
+			case Downloadable:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	public String asString() {
+		return asString(true);
+	}
+
+	public String asString(boolean resolved) {
+		if (coordinates == null) {
+			File file = state.file;
+			return (file != null) ? file.toURI().toString() : null;
+		}
+		return resolved ? derived().string : coordinates.toString();
+	}
+
+	/**
+	 * Returns the relative path of this artifact in Maven repository
+	 *
+	 * @return
+	 */
+	public String getPath() {
+		return derived().path;
+	}
+
+	private Derived derived() {
+		String version = state.resolvedSnapshotVersion;
+		Derived d = derived;
+		if (d == null || !Objects.equals(d.version, version)) {
+			derived = d = new Derived(coordinates, version);
+		}
+		return d;
+	}
+
+	public URL getUrl() {
+		try {
+			return new URL(state.source, getPath());
+		} catch (MalformedURLException e) {
+			throw new UnsupportedOperationException(e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return asString();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		Artifact that = (Artifact) o;
+		// interned
+		return coordinates != null && coordinates == that.coordinates;
+	}
+
+	@Override
+	public int hashCode() {
+		return coordinates != null ? coordinates.hashCode() : System.identityHashCode(this);
+	}
+}
@@ -0,0 +1,403 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache index: per cached file, the time of the last successful update check, remote validators ({@code ETag},
+ * {@code Last-Modified}), size and SHA1 checksum. Single binary file ({@code ${cache}/.index}) replaces per-file
+ * {@code *.lastUpdated} markers: freshness checks are in-memory lookups, no file system access involved.
+ * <p/>
+ * The index file is a journal: a header followed by length-prefixed records, each record being a complete snapshot of
+ * a single entry. Updates are appended; on load, the file is memory-mapped and replayed (last record wins), and a
+ * truncated trailing record (interrupted write) is ignored. Once the journal contains mostly superseded records, it
+ * is compacted (rewritten and atomically replaced).
+ * <p/>
+ * The index is shared by concurrent processes. Updates (including compaction) are made under an exclusive lock of
+ * {@code ${cache}/.index.lock}, after replaying records appended by others, so that no update is lost. Lookups pick
+ * up the journal tail whenever the file has changed; each journal carries a random generation in its header, so that
+ * a journal replaced by another process' compaction is replayed from the start.
+ * <p/>
+ * Files cached by older versions (with {@code .lastUpdated} markers, but no index entry) are still recognized.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+class CacheIndex {
+
+	static private final int MAGIC = 0x4A524349; // JRCI
+	static private final int VERSION = 2;
+	static private final int HEADER = 16; // magic, version, generation
+
+	static private final int COMPACT_THRESHOLD = 1024;
+
+	/**
+	 * Journal record of a removed entry
+	 */
+	static private final Entry REMOVED = new Entry(-1, 0, null, -1, null);
+
+	static private final Map<File, CacheIndex> INSTANCES = new ConcurrentHashMap<>();
+
+	/**
+	 * In-process monitors guarding the lock files: file locks are held on behalf of the whole JVM
+	 */
+	static private final Map<File, Object> LOCKS = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the (shared) index of a given cache directory
+	 */
+	static CacheIndex forCache(File cache) {
+		return INSTANCES.computeIfAbsent(cache.getAbsoluteFile(), CacheIndex::new);
+	}
+
+	/**
+	 * Index entry (immutable)
+	 */
+	static class Entry {
+		final long checked;      // last time the file was confirmed up to date
+		final long lastModified; // remote Last-Modified
+		final String etag;       // remote ETag
+		final long size;         // cached file size (-1: unknown)
+		final String checksum;   // SHA1 of the cached file
+
+		Entry(long checked, long lastModified, String etag, long size, String checksum) {
+			this.checked = checked;
+			this.lastModified = lastModified;
+			this.etag = etag;
+			this.size = size;
+			this.checksum = checksum;
+		}
+
+		Validators getValidators() {
+			return new Validators(etag, lastModified);
+		}
+	}
+
+	private final File root;
+	private final File file;
+	private final File lock;
+	private final Map<String, Entry> entries = new HashMap<>();
+
+	private long generation; // journal replayed into entries (0: none)
+	private long position;   // end of the last replayed record
+	private int records;     // number of replayed records
+	private long length = -1, modified; // journal file state as of the last refresh
+
+	CacheIndex(File root) {
+		this.root = root.getAbsoluteFile();
+		this.file = new File(this.root, ".index");
+		this.lock = new File(this.root, ".index.lock");
+	}
+
+	File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns index entry for a given cached file, or {@code null} if the file is not indexed
+	 */
+	synchronized Entry get(File f) {
+		refresh();
+		Entry e = entries.get(key(f));
+		return (e != null) ? e : legacy(f);
+	}
+
+	/**
+	 * Time of the last successful update check of a given cached file ({@code 0} if unknown)
+	 */
+	long getLastChecked(File f) {
+		Entry e = get(f);
+		return (e != null) ? e.checked : 0;
+	}
+
+	/**
+	 * Validators of a given cached file: as recorded, or the file's timestamp (remote {@code Last-Modified} is applied
+	 * to cached files on download)
+	 */
+	Validators getValidators(File f) {
+		Entry e = get(f);
+		Validators v = (e != null) ? e.getValidators() : new Validators(null, 0);
+		return (v.isEmpty() && f.exists()) ? new Validators(null, f.lastModified()) : v;
+	}
+
+	/**
+	 * Recorded checksum of a given cached file, provided that the file size still matches
+	 */
+	String getChecksum(File f) {
+		Entry e = get(f);
+		return (e != null && e.checksum != null && e.size == f.length()) ? e.checksum : null;
+	}
+
+	/**
+	 * Records a successful update check
+	 */
+	synchronized void checked(File f, long time) {
+		put(f, e -> (e != null)
+				? new Entry(time, e.lastModified, e.etag, e.size, e.checksum)
+				: new Entry(time, 0, null, -1, null));
+	}
+
+	/**
+	 * Records updated validators of an unmodified file
+	 */
+	synchronized void update(File f, Validators validators) {
+		put(f, e -> new Entry(
+				(e != null) ? e.checked : 0, validators.getLastModified(), validators.getETag(),
+				(e != null) ? e.size : -1, (e != null) ? e.checksum : null));
+	}
+
+	/**
+	 * Records a new version of a cached file
+	 *
+	 * @param checksum SHA1 checksum, if known
+	 */
+	synchronized void committed(File f, Validators validators, String checksum, long time) {
+		put(f, e -> new Entry(time, validators.getLastModified(), validators.getETag(), f.length(), checksum));
+	}
+
+	/**
+	 * Drops the entry of a given file
+	 */
+	synchronized void remove(File f) {
+		String key = key(f);
+		locked(() -> {
+			if (entries.remove(key) != null) {
+				append(key, REMOVED);
+			}
+		});
+	}
+
+	/**
+	 * Applies an update to the current entry (as seen under the lock, i.e. including updates made by others)
+	 */
+	private void put(File f, UnaryOperator<Entry> update) {
+		String key = key(f);
+		locked(() -> {
+			Entry e = entries.get(key);
+			e = update.apply((e != null) ? e : legacy(f));
+			entries.put(key, e);
+			append(key, e);
+		});
+		// superseded
+		File marker = RepositoryConnector.getLastUpdatedMarkerFile(f);
+		if (marker.exists()) {
+			marker.delete();
+		}
+	}
+
+	private String key(File f) {
+		String path = f.getAbsolutePath();
+		String prefix = root.getPath() + File.separator;
+		if (path.startsWith(prefix)) {
+			path = path.substring(prefix.length());
+		}
+		return path.replace(File.separatorChar, '/');
+	}
+
+	/**
+	 * Entry derived from {@code .lastUpdated} marker maintained by older versions (if any)
+	 */
+	private Entry legacy(File f) {
+		File marker = RepositoryConnector.getLastUpdatedMarkerFile(f);
+		if (!marker.exists()) {
+			return null;
+		}
+		Validators v = Validators.load(marker, f);
+		return new Entry(marker.lastModified(), v.getLastModified(), v.getETag(), -1, null);
+	}
+
+	///
+
+	/**
+	 * Replays journal changes (if any) made since the last refresh
+	 */
+	private void refresh() {
+		long len = file.length(), mod = file.lastModified();
+		if (len != length || mod != modified) {
+			length = len;
+			modified = mod;
+			read();
+		}
+	}
+
+	/**
+	 * Replays journal records following the last replayed one, or the whole journal if it has been replaced
+	 */
+	private void read() {
+		if (!file.exists()) {
+			reset(0);
+			return;
+		}
+		try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+			if (buf.remaining() < HEADER || buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+				Log.debug("Ignoring incompatible cache index %s", file);
+				reset(0);
+				return;
+			}
+			long gen = buf.getLong();
+			if (gen != generation || buf.limit() < position) {
+				reset(gen); // new journal (created or compacted by another process)
+			}
+			buf.position((int) position);
+			while (buf.remaining() >= 4) {
+				int len = buf.getInt();
+				if (len <= 0 || len > buf.remaining()) {
+					break; // incomplete record
+				}
+				ByteBuffer rec = buf.slice();
+				rec.limit(len);
+				buf.position(buf.position() + len);
+				String key = readString(rec);
+				Entry e = new Entry(rec.getLong(), rec.getLong(), readString(rec), rec.getLong(), readString(rec));
+				if (e.checked < 0) {
+					entries.remove(key);
+				} else {
+					entries.put(key, e);
+				}
+				records++;
+				position = buf.position();
+			}
+		} catch (Exception e) {
+			Log.debug("Error reading cache index %s: %s", file, e);
+		}
+	}
+
+	private void reset(long gen) {
+		entries.clear();
+		generation = gen;
+		position = HEADER;
+		records = 0;
+	}
+
+	private interface Update {
+		void run() throws IOException;
+	}
+
+	/**
+	 * Runs an update under the exclusive index lock: catches up with the journal first, compacts it afterwards if
+	 * appropriate
+	 */
+	private void locked(Update update) {
+		root.mkdirs();
+		synchronized (LOCKS.computeIfAbsent(lock, k -> new Object())) {
+			try (FileChannel ch = FileChannel.open(lock.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+				ch.lock(); // released by closing the channel
+				read();
+				if (generation == 0) {
+					compact(); // no (compatible) journal yet
+				}
+				update.run();
+				if (records > COMPACT_THRESHOLD && records > 2 * entries.size()) {
+					compact();
+				}
+			} catch (IOException e) {
+				Log.debug("Cannot update cache index %s: %s", file, e);
+			}
+		}
+	}
+
+	/**
+	 * Rewrites the journal from the in-memory entries (under the lock)
+	 */
+	private void compact() throws IOException {
+		long gen;
+		do {
+			gen = ThreadLocalRandom.current().nextLong();
+		} while (gen == 0 || gen == generation);
+		File tmp = new File(root, UUID.randomUUID() + ".tmp");
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			out.write(header(gen));
+			int count = 0;
+			for (Map.Entry<String, Entry> e : entries.entrySet()) {
+				out.write(record(e.getKey(), e.getValue()));
+				count++;
+			}
+			Files.write(tmp.toPath(), out.toByteArray());
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			generation = gen;
+			position = out.size();
+			records = count;
+		} finally {
+			tmp.delete();
+		}
+	}
+
+	/**
+	 * Appends a record to the journal (under the lock)
+	 */
+	private void append(String key, Entry e) throws IOException {
+		byte[] record = record(key, e);
+		try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+			ch.truncate(position); // incomplete record of an interrupted write, if any
+			ByteBuffer buf = ByteBuffer.wrap(record);
+			long pos = position;
+			while (buf.hasRemaining()) {
+				pos += ch.write(buf, pos);
+			}
+		}
+		position += record.length;
+		records++;
+	}
+
+	private byte[] header(long generation) {
+		return ByteBuffer.allocate(HEADER).putInt(MAGIC).putInt(VERSION).putLong(generation).array();
+	}
+
+	private byte[] record(String key, Entry e) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0); // length placeholder
+		writeString(out, key);
+		out.writeLong(e.checked);
+		out.writeLong(e.lastModified);
+		writeString(out, e.etag);
+		out.writeLong(e.size);
+		writeString(out, e.checksum);
+		out.close();
+		byte[] record = bytes.toByteArray();
+		ByteBuffer.wrap(record).putInt(record.length - 4);
+		return record;
+	}
+
+	private void writeString(DataOutputStream out, String s) throws IOException {
+		if (s == null) {
+			out.writeShort(-1);
+			return;
+		}
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length >= 0xFFFF) {
+			throw new IOException("Value too long: " + s.substring(0, 64));
+		}
+		out.writeShort(bytes.length);
+		out.write(bytes);
+	}
+
+	private String readString(ByteBuffer buf) {
+		int len = buf.getShort() & 0xFFFF;
+		if (len == 0xFFFF) {
+			return null;
+		}
+		byte[] bytes = new byte[len];
+		buf.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,130 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.LauncherCfg;
+import io.jrevolt.launcher.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+/**
+ * Content-addressable store of cached files. Each distinct content is stored once, as a blob named by its SHA-256
+ * checksum ({@code ${cache}/.blobs/sha256/xx/<sha256>}); files in the Maven repository layout are links to these blobs.
+ * Since remote repositories declare SHA-1 checksums, blobs are also indexed by SHA-1
+ * ({@code ${cache}/.blobs/sha1/xx/<sha1>}, a hard link to the same blob), so that a download can be skipped when the
+ * declared checksum is already known.
+ * <p/>
+ * Hard links are preferred (cached files remain regular files, and removing a blob does not break them); symbolic links
+ * are used if the file system does not support hard links, and plain copies as a last resort.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ * @see LauncherCfg#contentStore
+ */
+class ContentStore {
+
+	static private final String SHA1 = "sha1";
+	static private final String SHA256 = "sha256";
+
+	private final File dir;
+
+	ContentStore(File dir) {
+		this.dir = dir;
+	}
+
+	/**
+	 * Returns the blob with a given SHA-1 checksum, or {@code null} if there is no such blob
+	 */
+	File find(String sha1) {
+		if (sha1 == null || !sha1.matches("\\p{XDigit}{40}")) {
+			return null;
+		}
+		File f = blob(SHA1, sha1);
+		return f.isFile() ? f : null;
+	}
+
+	/**
+	 * Makes a given (cached) file part of the store: if the store already contains the same content, the file is
+	 * replaced by a link to the existing blob; otherwise, the file becomes a new blob.
+	 */
+	void put(File file, String sha1, String sha256) {
+		File blob = blob(SHA256, sha256);
+		try {
+			if (blob.isFile()) {
+				replace(file, blob);
+				Log.debug("Deduplicated %s (%s)", file, sha256);
+			} else {
+				blob.getParentFile().mkdirs();
+				try {
+					createLink(blob, file);
+				} catch (FileAlreadyExistsException e) {
+					throw e;
+				} catch (IOException | UnsupportedOperationException e) {
+					// no hard links: the blob is a copy, and the file becomes a link to it (or another copy)
+					File tmp = new File(blob.getParentFile(), UUID.randomUUID() + ".tmp");
+					try {
+						Files.copy(file.toPath(), tmp.toPath());
+						Files.move(tmp.toPath(), blob.toPath(), StandardCopyOption.ATOMIC_MOVE);
+					} finally {
+						Files.deleteIfExists(tmp.toPath());
+					}
+					replace(file, blob);
+				}
+			}
+			File alias = blob(SHA1, sha1);
+			if (!alias.exists()) {
+				alias.getParentFile().mkdirs();
+				link(blob, alias);
+			}
+		} catch (FileAlreadyExistsException ignore) {
+			// concurrent update, someone else was faster
+		} catch (IOException | UnsupportedOperationException e) {
+			Log.debug("Cannot store %s: %s", file, e);
+		}
+	}
+
+	/**
+	 * Replaces a given file by a link to the blob
+	 */
+	private void replace(File file, File blob) throws IOException {
+		File tmp = new File(file.getParentFile(), UUID.randomUUID() + ".tmp");
+		link(blob, tmp);
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		Files.deleteIfExists(tmp.toPath()); // no-op rename: already linked
+	}
+
+	/**
+	 * Creates a file with the blob's content
+	 */
+	void restore(File blob, File target) throws IOException {
+		target.getParentFile().mkdirs();
+		link(blob, target);
+	}
+
+	private void link(File blob, File target) throws IOException {
+		try {
+			createLink(target, blob);
+		} catch (IOException | UnsupportedOperationException e) {
+			try {
+				Files.createSymbolicLink(target.toPath(), blob.getAbsoluteFile().toPath());
+			} catch (IOException | UnsupportedOperationException ignore) {
+				Files.copy(blob.toPath(), target.toPath());
+			}
+		}
+	}
+
+	/**
+	 * Creates a hard link (fails if not supported by the file system)
+	 */
+	void createLink(File link, File existing) throws IOException {
+		Files.createLink(link.toPath(), existing.toPath());
+	}
+
+	private File blob(String alg, String checksum) {
+		String name = checksum.toLowerCase();
+		return new File(new File(new File(dir, alg), name.substring(0, 2)), name);
+	}
+
+}
@@ -0,0 +1,179 @@
+package io.jrevolt.launcher.mvn;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable, interned artifact coordinates ({@code groupId:artifactId:version:packaging[:classifier]}), with
+ * precomputed hash code, canonical string (sort key) and repository path. Equal coordinates are represented by the same
+ * instance, so that they compare by identity.
+ * <p/>
+ * Version is the logical one (e.g. {@code 1.0-SNAPSHOT}); timestamped snapshot versions are the resolution state of
+ * the {@link Artifact}.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public final class Coordinates {
+
+	/**
+	 * Canonical instances, by canonical string
+	 */
+	static private final ConcurrentMap<String, Coordinates> INTERNED = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the canonical instance of given coordinates. Only the canonical string is built for already known
+	 * coordinates.
+	 *
+	 * @param packaging {@code null} means {@code jar}
+	 */
+	static public Coordinates of(String groupId, String artifactId, String version, String packaging,
+										  String classifier) {
+		Objects.requireNonNull(groupId, "groupId");
+		Objects.requireNonNull(artifactId, "artifactId");
+		Objects.requireNonNull(version, "version");
+		packaging = (packaging != null) ? packaging : "jar";
+		String string = toString(groupId, artifactId, version, packaging, classifier);
+		Coordinates c = INTERNED.get(string);
+		if (c == null) {
+			c = new Coordinates(groupId, artifactId, version, packaging, classifier, string);
+			Coordinates interned = INTERNED.putIfAbsent(string, c);
+			c = (interned != null) ? interned : c;
+		}
+		return c;
+	}
+
+	static private String toString(String groupId, String artifactId, String version, String packaging,
+											 String classifier) {
+		StringBuilder sb = new StringBuilder(groupId.length() + artifactId.length() + version.length() + 16)
+				.append(groupId).append(':')
+				.append(artifactId).append(':')
+				.append(version).append(':')
+				.append(packaging);
+		if (classifier != null) {
+			sb.append(':').append(classifier);
+		}
+		return sb.toString();
+	}
+
+	private final String groupId;
+	private final String artifactId;
+	private final String version;
+	private final String packaging;
+	private final String classifier;
+
+	private final boolean snapshot;
+	private final int hash;
+
+	/**
+	 * group:artifact:version:packaging[:classifier]
+	 */
+	private final String string;
+
+	/**
+	 * Repository directory of the version: group/artifact/version/
+	 */
+	private final String directory;
+
+	/**
+	 * Repository path (release, or non-unique snapshot)
+	 */
+	private final String path;
+
+	private Coordinates(String groupId, String artifactId, String version, String packaging, String classifier,
+							  String string) {
+		this.groupId = groupId;
+		this.artifactId = artifactId;
+		this.version = version;
+		this.packaging = packaging;
+		this.classifier = classifier;
+		this.snapshot = version.endsWith("-SNAPSHOT");
+		this.string = string;
+		this.hash = string.hashCode();
+		this.directory = new StringBuilder(groupId.length() + artifactId.length() + version.length() + 3)
+				.append(groupId.replace('.', '/')).append('/')
+				.append(artifactId).append('/')
+				.append(version).append('/')
+				.toString();
+		this.path = getPath(version);
+	}
+
+	public String getGroupId() {
+		return groupId;
+	}
+
+	public String getArtifactId() {
+		return artifactId;
+	}
+
+	public String getVersion() {
+		return version;
+	}
+
+	public String getPackaging() {
+		return packaging;
+	}
+
+	public String getClassifier() {
+		return classifier;
+	}
+
+	public boolean isSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Repository path of these coordinates
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * Repository path of a given (timestamped) version of these coordinates
+	 */
+	String getPath(String fileVersion) {
+		if (fileVersion == null || fileVersion.isEmpty() || (path != null && fileVersion.equals(version))) {
+			return path;
+		}
+		StringBuilder sb = new StringBuilder(directory.length() + artifactId.length() + fileVersion.length() + 16)
+				.append(directory)
+				.append(artifactId).append('-').append(fileVersion);
+		if (classifier != null) {
+			sb.append('-').append(classifier);
+		}
+		return sb.append('.').append(packaging).toString();
+	}
+
+	/**
+	 * Canonical string of these coordinates, with a given (timestamped) version
+	 */
+	String toString(String fileVersion) {
+		if (fileVersion == null || fileVersion.equals(version)) {
+			return string;
+		}
+		return toString(groupId, artifactId, fileVersion, packaging, classifier);
+	}
+
+	@Override
+	public String toString() {
+		return string;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof Coordinates)) {
+			return false;
+		}
+		Coordinates that = (Coordinates) o;
+		return hash == that.hash && string.equals(that.string);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+}
@@ -1,8 +1,8 @@
-package io.jrevolt.launcher.mvn;
-
-/**
- * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
- */
-public interface Decryptable {
-	String getValue();
-}
+package io.jrevolt.launcher.mvn;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public interface Decryptable {
+	String getValue();
+}
@@ -0,0 +1,161 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.LauncherCfg;
+import io.jrevolt.launcher.util.Log;
+
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Download executor: pending downloads are started in the order of their priority rather than in the order of
+ * submission. The main artifact always goes first (its manifest declares the remaining dependencies, resolution cannot
+ * continue without it), followed by artifacts that need no transfer (cached, up to date). The remaining downloads are
+ * ordered according to {@link LauncherCfg#downloadOrder}:
+ * <ul>
+ * <li>{@code largest} (default): largest first; long transfers start early, which shortens the total time</li>
+ * <li>{@code smallest}: smallest first; most artifacts become available early</li>
+ * <li>{@code fifo}: order of submission</li>
+ * </ul>
+ * If {@link LauncherCfg#earlyLaunch enabled}, artifacts the application touched early on previous runs go before the
+ * others (see {@link UsageRecord}).
+ * <p/>
+ * Size of the artifact is known once it is resolved, therefore downloads are scheduled only after resolution.
+ * <p/>
+ * With a {@link SharedExecutor}, each download starts immediately in its own thread, and there is no queue to order.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+class DownloadScheduler {
+
+	static enum Order {largest, smallest, fifo}
+
+	/**
+	 * Download task queued with its priority
+	 */
+	static class Task<T> extends FutureTask<T> {
+
+		final Artifact artifact;
+		final boolean urgent;
+		// evaluated when scheduled (must not change while queued)
+		boolean transfer;
+		int rank;
+		long size;
+		long sequence;
+
+		Task(Artifact artifact, boolean urgent, Callable<T> callable) {
+			super(callable);
+			this.artifact = artifact;
+			this.urgent = urgent;
+		}
+	}
+
+	private final ExecutorService executor;
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	/**
+	 * Usage of artifacts on previous runs, if available
+	 */
+	private volatile UsageRecord usage;
+
+	/**
+	 * Fixed number of download threads, pending downloads are queued by priority
+	 */
+	DownloadScheduler(int threads, ThreadFactory factory) {
+		this(new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+											 new PriorityBlockingQueue<Runnable>(16, byPriority(getOrder())), factory));
+	}
+
+	/**
+	 * Downloads are run by a given executor
+	 */
+	DownloadScheduler(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Creates a task for a given artifact; the task is not started until {@link #schedule(Task) scheduled}
+	 *
+	 * @param urgent downloaded before any other artifact
+	 */
+	<T> Task<T> newTask(Artifact artifact, boolean urgent, Callable<T> callable) {
+		return new Task<T>(artifact, urgent, callable);
+	}
+
+	/**
+	 * Queues the task; priority is evaluated now, using the current state of the artifact
+	 */
+	void schedule(Task<?> task) {
+		task.transfer = task.artifact.getStatus().equals(Artifact.Status.Downloadable);
+		task.rank = (usage != null) ? usage.getRank(task.artifact) : Integer.MAX_VALUE;
+		task.size = task.artifact.getSize();
+		task.sequence = sequence.incrementAndGet();
+		executor.execute(task);
+	}
+
+	void setUsage(UsageRecord usage) {
+		this.usage = usage;
+	}
+
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	void shutdownNow() {
+		executor.shutdownNow();
+	}
+
+	boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return executor.awaitTermination(timeout, unit);
+	}
+
+	ExecutorService getExecutor() {
+		return executor;
+	}
+
+	static private Order getOrder() {
+		try {
+			return Order.valueOf(LauncherCfg.downloadOrder.asString());
+		} catch (IllegalArgumentException e) {
+			Log.warn("Unsupported download order: --%s=%s. Using `%s`",
+						LauncherCfg.downloadOrder.name(), LauncherCfg.downloadOrder.asString(), Order.fifo);
+			return Order.fifo;
+		}
+	}
+
+	static private Comparator<Runnable> byPriority(final Order order) {
+		return new Comparator<Runnable>() {
+			@Override
+			public int compare(Runnable r1, Runnable r2) {
+				if (!(r1 instanceof Task) || !(r2 instanceof Task)) {
+					// not a download (unexpected): keep it behind the downloads
+					return Boolean.compare(!(r1 instanceof Task), !(r2 instanceof Task));
+				}
+				Task<?> t1 = (Task<?>) r1;
+				Task<?> t2 = (Task<?>) r2;
+				int result = Boolean.compare(t2.urgent, t1.urgent);
+				if (result == 0) {
+					result = Boolean.compare(t1.transfer, t2.transfer);
+				}
+				if (result == 0) {
+					result = Integer.compare(t1.rank, t2.rank);
+				}
+				if (result == 0 && order == Order.largest) {
+					result = Long.compare(t2.size, t1.size);
+				}
+				if (result == 0 && order == Order.smallest) {
+					result = Long.compare(t1.size, t2.size);
+				}
+				return (result != 0) ? result : Long.compare(t1.sequence, t2.sequence);
+			}
+		};
+	}
+
+}
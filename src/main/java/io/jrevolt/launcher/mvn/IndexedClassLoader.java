@@ -0,0 +1,648 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.util.IOHelper;
+import io.jrevolt.launcher.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipFile;
+
+/**
+ * Application class loader backed by a {@link PackageIndex}: each class or resource lookup goes directly to the
+ * archives containing its package (first one in class path order wins), instead of probing all archives one by one;
+ * lookups of unknown packages fail immediately. Parallel capable.
+ * <p/>
+ * Class path may contain artifacts still being downloaded (see {@link #create(List, ClassLoader, File, UsageRecord)}).
+ * A lookup waits only for pending archives that may contain its package, as recorded by the {@link UsageRecord} on
+ * previous runs (unknown archives are always candidates); archives already available never wait. A class or resource
+ * not found this way is final if its package is provided by an available archive; otherwise, it is looked up again
+ * once all archives are available (recorded packages may be outdated). Resources enumerated by
+ * {@link #findResources(String)} include those of the candidates first, and the remaining archives are searched only
+ * if the caller asks for more. Once the class path is complete, the loader switches to a regular package index.
+ * <p/>
+ * Only plain jar files are supported (see {@link #create(URL[], ClassLoader, File)}). {@link #getURLs()} reports the
+ * available part of the class path, as with any {@link URLClassLoader}. On Java 9+, multi-release jars are opened for
+ * the runtime version, so that versioned classes and resources take precedence, as with {@link URLClassLoader}.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class IndexedClassLoader extends URLClassLoader {
+
+	static {
+		ClassLoader.registerAsParallelCapable();
+	}
+
+	/**
+	 * {@code JarFile(File, boolean, int, Runtime.Version)} and runtime version (Java 9+; {@code null} on Java 8)
+	 */
+	static private final Constructor<JarFile> MULTI_RELEASE;
+	static private final Object RUNTIME_VERSION;
+
+	/**
+	 * {@code JarEntry.getRealName()} (Java 10+)
+	 */
+	static private final Method REAL_NAME;
+
+	/**
+	 * {@code ClassLoader.getDefinedPackage(String)} (Java 9+)
+	 */
+	static private final Method DEFINED_PACKAGE;
+
+	static {
+		Constructor<JarFile> constructor;
+		Object version;
+		try {
+			version = JarFile.class.getMethod("runtimeVersion").invoke(null);
+			constructor = JarFile.class.getConstructor(File.class, boolean.class, int.class, version.getClass());
+		} catch (ReflectiveOperationException e) {
+			// Java 8: no multi-release jars
+			constructor = null;
+			version = null;
+		}
+		MULTI_RELEASE = constructor;
+		RUNTIME_VERSION = version;
+		Method realName;
+		try {
+			realName = JarEntry.class.getMethod("getRealName");
+		} catch (NoSuchMethodException e) {
+			realName = null;
+		}
+		REAL_NAME = realName;
+		Method definedPackage;
+		try {
+			definedPackage = ClassLoader.class.getMethod("getDefinedPackage", String.class);
+		} catch (NoSuchMethodException e) {
+			definedPackage = null;
+		}
+		DEFINED_PACKAGE = definedPackage;
+	}
+
+	/**
+	 * Creates class loader for given class path, or returns {@code null} if the class path is not supported (other
+	 * than plain jar files) or cannot be indexed.
+	 *
+	 * @param dir where the package index is persisted
+	 */
+	static public IndexedClassLoader create(URL[] urls, ClassLoader parent, File dir) {
+		List<File> files = new ArrayList<File>(urls.length);
+		for (URL url : urls) {
+			File f = toFile(url);
+			if (f == null || !f.isFile()) {
+				Log.debug("Package index not supported: %s", url);
+				return null;
+			}
+			files.add(f);
+		}
+		try {
+			PackageIndex index = PackageIndex.forClassPath(files, dir);
+			return new IndexedClassLoader(urls, parent, files, index);
+		} catch (IOException e) {
+			Log.debug("Cannot index class path: %s", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Creates class loader for given artifacts, some of which may still be downloading.
+	 *
+	 * @param dir where the package index is persisted (if all artifacts are already available)
+	 * @param usage class path usage recorded on previous runs, updated by {@link #saveUsage()}
+	 */
+	static IndexedClassLoader create(List<PendingArtifact> artifacts, ClassLoader parent, File dir, UsageRecord usage)
+			throws IOException {
+		List<File> files = new ArrayList<File>(artifacts.size());
+		for (PendingArtifact a : artifacts) {
+			File f = a.isDone() ? a.getArtifact().getFile() : null;
+			if (f == null || !f.isFile()) {
+				break;
+			}
+			files.add(f);
+		}
+		if (files.size() < artifacts.size()) {
+			return new IndexedClassLoader(new URL[0], parent, artifacts, null, usage);
+		}
+		URL[] urls = new URL[files.size()];
+		for (int i = 0; i < urls.length; i++) {
+			urls[i] = files.get(i).toURI().toURL();
+		}
+		return new IndexedClassLoader(urls, parent, artifacts, PackageIndex.forClassPath(files, dir), usage);
+	}
+
+	/**
+	 * Supported: {@code file:/path.jar} and {@code jar:file:/path.jar!/}
+	 */
+	static File toFile(URL url) {
+		String s = url.toString();
+		if (s.startsWith("jar:") && s.endsWith("!/")) {
+			s = s.substring("jar:".length(), s.length() - "!/".length());
+		}
+		if (!s.startsWith("file:") || s.contains("!/")) {
+			return null;
+		}
+		try {
+			return new File(new URL(s).toURI());
+		} catch (MalformedURLException | URISyntaxException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Class path archive, opened on first use
+	 */
+	static private class Archive {
+
+		final PendingArtifact pending; // null if created from plain class path
+
+		volatile File file;
+		volatile URL url;
+		volatile JarFile jar;
+
+		/**
+		 * Available: packages contained ({@code null}: see complete index). Pending: packages recorded on previous runs
+		 * ({@code null}: unknown)
+		 */
+		volatile Set<String> packages;
+
+		volatile boolean available;
+
+		/**
+		 * Order in which the archive was first used ({@code 0}: not used)
+		 */
+		volatile int touched;
+
+		Archive(File file) throws MalformedURLException {
+			this.pending = null;
+			this.file = file;
+			this.url = file.toURI().toURL();
+			this.available = true;
+		}
+
+		Archive(PendingArtifact pending, Set<String> packages) {
+			this.pending = pending;
+			this.packages = packages;
+		}
+
+		/**
+		 * Archive contains, or (if pending) may contain, a given package
+		 */
+		boolean mayContain(String pkg) {
+			Set<String> packages = this.packages;
+			return (packages != null) ? packages.contains(pkg) : !available;
+		}
+
+		JarFile open() throws IOException {
+			JarFile jar = this.jar;
+			if (jar == null) {
+				synchronized (this) {
+					if ((jar = this.jar) == null) {
+						jar = this.jar = openJar(file);
+					}
+				}
+			}
+			return jar;
+		}
+	}
+
+	/**
+	 * Opens a given archive, as a multi-release jar if supported by the runtime (versioned entries matching the runtime
+	 * version replace the base ones, as with {@link URLClassLoader})
+	 */
+	static JarFile openJar(File file) throws IOException {
+		if (MULTI_RELEASE == null) {
+			return new JarFile(file);
+		}
+		try {
+			return MULTI_RELEASE.newInstance(file, true, ZipFile.OPEN_READ, RUNTIME_VERSION);
+		} catch (InvocationTargetException e) {
+			throw (e.getCause() instanceof IOException) ? (IOException) e.getCause() : new IOException(e.getCause());
+		} catch (ReflectiveOperationException e) {
+			throw new IOException(e);
+		}
+	}
+
+	private final Archive[] archives;
+
+	private final UsageRecord usage;
+
+	private final AtomicInteger touched = new AtomicInteger();
+
+	/**
+	 * Complete package index; {@code null} while some archives are pending
+	 */
+	private volatile PackageIndex index;
+
+	IndexedClassLoader(URL[] urls, ClassLoader parent, List<File> files, PackageIndex index)
+			throws MalformedURLException {
+		super(urls, parent);
+		this.archives = new Archive[files.size()];
+		for (int i = 0; i < archives.length; i++) {
+			archives[i] = new Archive(files.get(i));
+		}
+		this.usage = null;
+		this.index = index;
+	}
+
+	private IndexedClassLoader(URL[] urls, ClassLoader parent, List<PendingArtifact> artifacts, PackageIndex index,
+										UsageRecord usage) throws IOException {
+		super(urls, parent);
+		this.archives = new Archive[artifacts.size()];
+		this.usage = usage;
+		this.index = index;
+		for (int i = 0; i < archives.length; i++) {
+			PendingArtifact a = artifacts.get(i);
+			archives[i] = new Archive(a, (index == null && usage != null) ? usage.getPackages(a.getArtifact()) : null);
+			if (index != null || a.isDone()) {
+				available(archives[i], index != null);
+			}
+		}
+		if (index == null) {
+			completed();
+		}
+	}
+
+	/**
+	 * Archive has been downloaded: from now on, it is used as any other archive
+	 *
+	 * @param indexed archive is covered by the complete package index (and class path URLs)
+	 */
+	private void available(Archive archive, boolean indexed) throws IOException {
+		synchronized (archive) {
+			if (archive.available) {
+				return;
+			}
+			File f = archive.pending.getArtifact().getFile();
+			if (f != null && f.isFile()) {
+				archive.file = f;
+				archive.url = f.toURI().toURL();
+				archive.packages = indexed ? null : PackageIndex.getPackages(f);
+				if (!indexed) {
+					addURL(archive.url);
+				}
+			} else {
+				// failed or unresolved: nothing to load from
+				Log.debug("Archive not available: %s", archive.pending);
+				archive.packages = Collections.emptySet();
+			}
+			archive.available = true;
+		}
+	}
+
+	/**
+	 * Returns given archive, waiting for its download if pending
+	 */
+	private Archive await(int i) throws IOException {
+		Archive archive = archives[i];
+		if (!archive.available) {
+			try {
+				archive.pending.get();
+			} catch (ExecutionException e) {
+				Log.debug("Cannot resolve %s: %s", archive.pending, e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+			available(archive, false);
+			completed();
+		}
+		return archive;
+	}
+
+	/**
+	 * Waits for all pending archives; returns the complete index
+	 */
+	private PackageIndex awaitAll() throws IOException {
+		for (int i = 0; i < archives.length; i++) {
+			await(i);
+		}
+		return index;
+	}
+
+	/**
+	 * Switches to the complete package index once all archives are available
+	 */
+	private void completed() {
+		if (index != null) {
+			return;
+		}
+		List<Set<String>> packages = new ArrayList<Set<String>>(archives.length);
+		for (Archive a : archives) {
+			if (!a.available) {
+				return;
+			}
+			packages.add(a.packages);
+		}
+		synchronized (this) {
+			if (index == null) {
+				index = PackageIndex.of(packages, null);
+				Log.debug("Class path complete: %d archives, %d packages", archives.length, index.size());
+			}
+		}
+	}
+
+	/**
+	 * Archives (in class path order) that contain, or may contain, a given package
+	 */
+	private int[] lookup(String pkg) throws IOException {
+		PackageIndex index = this.index;
+		if (index != null) {
+			return index.get(pkg);
+		}
+		int[] result = new int[archives.length];
+		int count = 0;
+		for (int i = 0; i < archives.length; i++) {
+			Archive a = archives[i];
+			if (!a.available && a.pending.isDone()) {
+				available(a, false);
+			}
+			if (a.mayContain(pkg)) {
+				result[count++] = i;
+			}
+		}
+		completed();
+		return Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * Package is provided by an available archive: a class or resource not found there is not looked for in pending
+	 * archives recorded without that package
+	 */
+	private boolean isProvided(String pkg) {
+		for (Archive a : archives) {
+			Set<String> packages = a.packages;
+			if (a.available && a.file != null && packages != null && packages.contains(pkg)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void touch(Archive archive) {
+		if (archive.touched == 0) {
+			synchronized (archive) {
+				if (archive.touched == 0) {
+					archive.touched = touched.incrementAndGet();
+				}
+			}
+		}
+	}
+
+	@Override
+	protected Class<?> findClass(String name) throws ClassNotFoundException {
+		String path = name.replace('.', '/').concat(".class");
+		String pkg = PackageIndex.getPackage(path);
+		try {
+			boolean complete = index != null;
+			Class<?> c = findClass(name, path, lookup(pkg));
+			if (c == null && !complete && !isProvided(pkg)) {
+				c = findClass(name, path, awaitAll().get(pkg));
+			}
+			if (c != null) {
+				return c;
+			}
+		} catch (IOException e) {
+			throw new ClassNotFoundException(name, e);
+		}
+		throw new ClassNotFoundException(name);
+	}
+
+	private Class<?> findClass(String name, String path, int[] candidates) throws IOException {
+		for (int i : candidates) {
+			Archive archive = await(i);
+			if (archive.file == null) {
+				continue;
+			}
+			JarFile jar = archive.open();
+			JarEntry entry = jar.getJarEntry(path);
+			if (entry != null) {
+				touch(archive);
+				return define(name, archive, jar, entry);
+			}
+		}
+		return null;
+	}
+
+	private Class<?> define(String name, Archive archive, JarFile jar, JarEntry entry) throws IOException {
+		int dot = name.lastIndexOf('.');
+		if (dot > 0) {
+			String pkg = name.substring(0, dot);
+			if (!isDefined(pkg)) {
+				Manifest mf = jar.getManifest();
+				try {
+					if (mf != null) {
+						definePackage(pkg, mf, archive.url);
+					} else {
+						definePackage(pkg, null, null, null, null, null, null, null);
+					}
+				} catch (IllegalArgumentException ignore) {
+					// defined concurrently
+				}
+			}
+		}
+		byte[] bytes = read(jar, entry);
+		// code signers are available once the entry has been read completely
+		CodeSource cs = new CodeSource(archive.url, entry.getCodeSigners());
+		return defineClass(name, bytes, 0, bytes.length, cs);
+	}
+
+	/**
+	 * Package is defined by this class loader (Java 9+), or by this class loader or any of its ancestors (Java 8)
+	 */
+	@SuppressWarnings("deprecation") // getPackage() is the only option on Java 8
+	private boolean isDefined(String pkg) {
+		if (DEFINED_PACKAGE == null) {
+			return getPackage(pkg) != null;
+		}
+		try {
+			return DEFINED_PACKAGE.invoke(this, pkg) != null;
+		} catch (ReflectiveOperationException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	static private byte[] read(JarFile jar, JarEntry entry) throws IOException {
+		InputStream in = null;
+		try {
+			in = jar.getInputStream(entry);
+			long size = entry.getSize();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(size > 0 ? (int) size : 8192);
+			byte[] buf = new byte[8192];
+			for (int n; (n = in.read(buf)) != -1; ) {
+				out.write(buf, 0, n);
+			}
+			return out.toByteArray();
+		} finally {
+			IOHelper.close(in);
+		}
+	}
+
+	@Override
+	public URL findResource(String name) {
+		if (name.endsWith("/")) {
+			return super.findResource(name); // directories are not indexed
+		}
+		String pkg = PackageIndex.getPackage(name);
+		try {
+			boolean complete = index != null;
+			URL url = findResource(name, lookup(pkg));
+			if (url == null && !complete && !isProvided(pkg)) {
+				url = findResource(name, awaitAll().get(pkg));
+			}
+			return url;
+		} catch (IOException e) {
+			Log.debug("Cannot find resource %s: %s", name, e);
+			return null;
+		}
+	}
+
+	private URL findResource(String name, int[] candidates) throws IOException {
+		for (int i : candidates) {
+			Archive archive = await(i);
+			JarEntry entry = (archive.file != null) ? archive.open().getJarEntry(name) : null;
+			if (entry != null) {
+				touch(archive);
+				return toURL(archive, entry);
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public Enumeration<URL> findResources(final String name) throws IOException {
+		if (name.endsWith("/")) {
+			return super.findResources(name);
+		}
+		final String pkg = PackageIndex.getPackage(name);
+		boolean complete = index != null;
+		final int[] candidates = lookup(pkg);
+		final List<URL> urls = findResources(name, candidates);
+		if (complete) {
+			return Collections.enumeration(urls);
+		}
+		// recorded packages may be outdated: once the candidates are exhausted, remaining archives are searched
+		return new Enumeration<URL>() {
+			Iterator<URL> found = urls.iterator();
+			boolean all;
+
+			@Override
+			public boolean hasMoreElements() {
+				if (!found.hasNext() && !all) {
+					all = true;
+					try {
+						found = findResources(name, except(awaitAll().get(pkg), candidates)).iterator();
+					} catch (IOException e) {
+						Log.debug("Cannot find resources %s: %s", name, e);
+					}
+				}
+				return found.hasNext();
+			}
+
+			@Override
+			public URL nextElement() {
+				if (!hasMoreElements()) {
+					throw new NoSuchElementException(name);
+				}
+				return found.next();
+			}
+		};
+	}
+
+	private List<URL> findResources(String name, int[] candidates) throws IOException {
+		List<URL> urls = new ArrayList<URL>();
+		for (int i : candidates) {
+			Archive archive = await(i);
+			JarEntry entry = (archive.file != null) ? archive.open().getJarEntry(name) : null;
+			if (entry != null) {
+				touch(archive);
+				urls.add(toURL(archive, entry));
+			}
+		}
+		return urls;
+	}
+
+	/**
+	 * Archives (sorted indexes) not included in a given set
+	 */
+	static private int[] except(int[] archives, int[] excluded) {
+		int[] result = new int[archives.length];
+		int count = 0;
+		for (int i : archives) {
+			if (Arrays.binarySearch(excluded, i) < 0) {
+				result[count++] = i;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * URL of a given entry: versioned entries are addressed by their real name (as with {@link URLClassLoader}), and
+	 * characters not allowed in URL paths (e.g. spaces, {@code #}, {@code %}) are encoded
+	 */
+	private URL toURL(Archive archive, JarEntry entry) throws MalformedURLException {
+		String name = entry.getName();
+		if (REAL_NAME != null) {
+			try {
+				name = (String) REAL_NAME.invoke(entry);
+			} catch (ReflectiveOperationException e) {
+				throw new AssertionError(e);
+			}
+		}
+		try {
+			return new URL("jar:" + archive.url + "!" + new URI(null, null, "/" + name, null).getRawPath());
+		} catch (URISyntaxException e) {
+			throw new MalformedURLException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Records class path usage of this run (order in which archives were first used, and their packages) in the usage
+	 * record given at creation, if any. Archives still pending keep their previously recorded packages. Nothing is
+	 * recorded if the class path has not been used at all (e.g. application not executed).
+	 */
+	void saveUsage() {
+		if (usage == null || touched.get() == 0) {
+			return;
+		}
+		PackageIndex index = this.index;
+		for (int i = 0; i < archives.length; i++) {
+			Archive a = archives[i];
+			Set<String> packages = (!a.available || a.file == null) ? null
+					: (a.packages != null) ? a.packages
+					: index.getPackages(i);
+			usage.update(a.pending.getArtifact(), a.touched, packages);
+		}
+		usage.save();
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (Archive a : archives) {
+			IOHelper.close(a.jar);
+		}
+		super.close();
+	}
+
+}
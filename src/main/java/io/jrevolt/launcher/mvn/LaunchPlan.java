@@ -0,0 +1,322 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.LauncherCfg;
+import io.jrevolt.launcher.util.Hex;
+import io.jrevolt.launcher.util.IOHelper;
+import io.jrevolt.launcher.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Launch plan is a persistent snapshot of a successful resolution of a given root artifact (and optional extras): a
+ * complete list of resolved artifacts, their cached files, sizes, SHA-1 checksums and the time each was last
+ * confirmed up to date. While the plan remains valid (see {@link LauncherCfg#updateInterval}), the launcher builds
+ * the class path directly from the plan: no resolver context, no repository connections, no manifest parsing.
+ * <p/>
+ * Plans are stored in {@code ${cache}/.plans} and are rewritten after each successful full resolution.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ * @see io.jrevolt.launcher.RepositorySupport#resolve(Artifact, List)
+ */
+public class LaunchPlan {
+
+	static private final String VERSION = "1";
+
+	static private final String P_VERSION = "version";
+	static private final String P_KEY = "key";
+	static private final String P_CREATED = "created";
+	static private final String P_MAINCLASS = "mainClass";
+	static private final String P_DELEGATE = "delegate";
+	static private final String P_COUNT = "artifacts";
+	static private final String P_ARTIFACT = "artifact.%d.%s";
+
+	/**
+	 * Single resolved artifact as recorded in the plan
+	 */
+	static class Entry {
+		String id;          // resolved coordinates, incl. timestamped snapshot version
+		boolean snapshot;
+		File file;          // cached file
+		long size;
+		long lastModified;  // cached file timestamp; together with size used to detect changes in cache
+		long updated;       // last time this artifact was confirmed up to date against remote repository
+		String sha1;
+	}
+
+	/**
+	 * Returns launch plan for given root artifact and extras. Previously saved plan, if any, is loaded; use
+	 * {@link #isValid()} to check if it can be used.
+	 */
+	static public LaunchPlan forArtifacts(Artifact root, List<Artifact> extras) {
+		StringBuilder key = new StringBuilder();
+		if (root != null) {
+			key.append(root.asString(false));
+		}
+		for (Artifact a : extras) {
+			key.append(',').append(a.asString(false));
+		}
+		LaunchPlan plan = new LaunchPlan(key.toString(), new File(getDirectory(),
+				fileName(root, key.toString(), !extras.isEmpty())));
+		plan.load();
+		return plan;
+	}
+
+	/**
+	 * Directory of launch plans and related class path data (see {@link PackageIndex})
+	 */
+	static File getDirectory() {
+		return new File(LauncherCfg.cache.asFile(), ".plans");
+	}
+
+	static private String fileName(Artifact root, String key, boolean qualified) {
+		String base = (root != null && root.getGroupId() != null) ? root.asString(false).replace(':', '_') : "extras";
+		return qualified || root == null || root.getGroupId() == null
+				? String.format("%s+%s.plan", base, new String(Hex.encode(sha1(key))).substring(0, 12))
+				: base + ".plan";
+	}
+
+	static private byte[] sha1(String s) {
+		try {
+			return MessageDigest.getInstance("SHA1").digest(s.getBytes(StandardCharsets.UTF_8));
+		} catch (NoSuchAlgorithmException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	private final String key;
+	private final File file;
+
+	private long created;
+	private String mainClass;
+	private boolean delegate;
+	private List<Entry> entries = Collections.emptyList();
+	private boolean loaded;
+
+	private LaunchPlan(String key, File file) {
+		this.key = key;
+		this.file = file;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public String getMainClass() {
+		return mainClass;
+	}
+
+	public long getCreated() {
+		return created;
+	}
+
+	List<Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Plan is valid if it has been loaded, current configuration does not force an update, none of the recorded
+	 * artifacts has expired, and all cached files are still in place and unchanged (size, timestamp).
+	 */
+	public boolean isValid() {
+		if (!loaded) {
+			return false;
+		}
+		if (LauncherCfg.update.asBoolean() || LauncherCfg.ignoreCache.asBoolean()) {
+			return false;
+		}
+		if (delegate != LauncherCfg.delegate.asBoolean()) {
+			return false;
+		}
+		boolean offline = LauncherCfg.offline.asBoolean();
+		long interval = LauncherCfg.updateInterval.asDuration().toMillis();
+		long now = System.currentTimeMillis();
+		for (Entry e : entries) {
+			if (!offline && isExpired(e, interval, now)) {
+				Log.debug("Launch plan expired: %s", e.id);
+				return false;
+			}
+			if (!isUnchanged(e)) {
+				Log.debug("Launch plan outdated: %s (%s)", e.id, e.file);
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isExpired(Entry e, long interval, long now) {
+		boolean checked = e.snapshot ? LauncherCfg.updateSnapshots.asBoolean() : LauncherCfg.updateReleases.asBoolean();
+		return checked && Math.max(e.updated, 0) + interval < now;
+	}
+
+	private boolean isUnchanged(Entry e) {
+		try {
+			// single stat() per file
+			BasicFileAttributes attrs = Files.readAttributes(e.file.toPath(), BasicFileAttributes.class);
+			return attrs.isRegularFile()
+					&& attrs.size() == e.size
+					&& attrs.lastModifiedTime().toMillis() == e.lastModified;
+		} catch (IOException ignore) {
+			return false;
+		}
+	}
+
+	/**
+	 * Materializes the plan: returns resolved artifacts, in the recorded order. Root artifact instance is reused and
+	 * updated (file, resolved snapshot version, main class).
+	 */
+	public List<Artifact> getArtifacts(Artifact root) {
+		List<Artifact> artifacts = new ArrayList<Artifact>(entries.size());
+		for (Entry e : entries) {
+			Artifact a = Artifact.parse(e.id);
+			if (root != null && a.equals(root)) {
+				root.setResolvedSnapshotVersion(a.getResolvedSnapshotVersion());
+				if (root.getMainClass() == null) {
+					root.setMainClass(mainClass);
+				}
+				a = root;
+			}
+			a.setFile(e.file);
+			a.setRepositoryId("cache");
+			a.setStatus(Artifact.Status.Cached);
+			artifacts.add(a);
+		}
+		return artifacts;
+	}
+
+	/**
+	 * Records a successful resolution. Checksums of files unchanged since the previous plan are reused, checksums
+	 * recorded in the cache index on download are used if available; others are computed. If the plan cannot be
+	 * saved, the failure is only logged: the next launch falls back to a full resolution.
+	 */
+	public void save(String mainClass, List<Artifact> artifacts) {
+		Map<String, Entry> previous = new HashMap<String, Entry>();
+		for (Entry e : entries) {
+			previous.put(e.id, e);
+		}
+
+		File tmp = null;
+		OutputStream out = null;
+		try {
+			CacheIndex index = CacheIndex.forCache(LauncherCfg.cache.asFile());
+			List<Entry> resolved = new ArrayList<Entry>(artifacts.size());
+			for (Artifact a : artifacts) {
+				if (a.getGroupId() == null || a.getFile() == null || !a.getFile().isFile()) {
+					Log.debug("Launch plan not saved: unsupported or unresolved artifact %s", a);
+					return;
+				}
+				Entry e = new Entry();
+				e.id = a.asString(true);
+				e.snapshot = a.isSnapshot();
+				e.file = a.getFile().getAbsoluteFile();
+				e.size = e.file.length();
+				e.lastModified = e.file.lastModified();
+				long checked = index.getLastChecked(e.file);
+				e.updated = (checked > 0) ? checked : System.currentTimeMillis();
+				Entry p = previous.get(e.id);
+				e.sha1 = (p != null && p.file.equals(e.file) && p.size == e.size && p.lastModified == e.lastModified)
+						? p.sha1
+						: index.getChecksum(e.file);
+				if (e.sha1 == null) {
+					e.sha1 = RepositoryConnector.getFileChecksum(e.file, "SHA1");
+				}
+				resolved.add(e);
+			}
+
+			Properties props = new Properties();
+			props.setProperty(P_VERSION, VERSION);
+			props.setProperty(P_KEY, key);
+			props.setProperty(P_CREATED, Long.toString(System.currentTimeMillis()));
+			props.setProperty(P_DELEGATE, Boolean.toString(LauncherCfg.delegate.asBoolean()));
+			if (mainClass != null) {
+				props.setProperty(P_MAINCLASS, mainClass);
+			}
+			props.setProperty(P_COUNT, Integer.toString(resolved.size()));
+			for (int i = 0; i < resolved.size(); i++) {
+				Entry e = resolved.get(i);
+				props.setProperty(String.format(P_ARTIFACT, i, "id"), e.id);
+				props.setProperty(String.format(P_ARTIFACT, i, "snapshot"), Boolean.toString(e.snapshot));
+				props.setProperty(String.format(P_ARTIFACT, i, "file"), e.file.getPath());
+				props.setProperty(String.format(P_ARTIFACT, i, "size"), Long.toString(e.size));
+				props.setProperty(String.format(P_ARTIFACT, i, "lastModified"), Long.toString(e.lastModified));
+				props.setProperty(String.format(P_ARTIFACT, i, "updated"), Long.toString(e.updated));
+				props.setProperty(String.format(P_ARTIFACT, i, "sha1"), e.sha1);
+			}
+
+			// write & rename; concurrent launches may be racing for the same plan
+			file.getParentFile().mkdirs();
+			tmp = new File(file.getParentFile(), UUID.randomUUID() + ".tmp");
+			out = new FileOutputStream(tmp);
+			props.store(out, "JRevolt Launcher: launch plan");
+			out.close();
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						  StandardCopyOption.ATOMIC_MOVE);
+			this.entries = resolved;
+			this.mainClass = mainClass;
+			Log.debug("Saved launch plan %s", file);
+		} catch (Exception e) {
+			Log.debug("Cannot save launch plan %s: %s", file, e);
+		} finally {
+			IOHelper.close(out);
+			if (tmp != null) {
+				tmp.delete();
+			}
+		}
+	}
+
+	private void load() {
+		if (!file.exists()) {
+			return;
+		}
+		InputStream in = null;
+		try {
+			in = new FileInputStream(file);
+			Properties props = new Properties();
+			props.load(in);
+			if (!VERSION.equals(props.getProperty(P_VERSION)) || !key.equals(props.getProperty(P_KEY))) {
+				return;
+			}
+			created = Long.parseLong(props.getProperty(P_CREATED));
+			mainClass = props.getProperty(P_MAINCLASS);
+			delegate = Boolean.parseBoolean(props.getProperty(P_DELEGATE));
+			int count = Integer.parseInt(props.getProperty(P_COUNT));
+			List<Entry> list = new ArrayList<Entry>(count);
+			for (int i = 0; i < count; i++) {
+				Entry e = new Entry();
+				e.id = props.getProperty(String.format(P_ARTIFACT, i, "id"));
+				e.snapshot = Boolean.parseBoolean(props.getProperty(String.format(P_ARTIFACT, i, "snapshot")));
+				e.file = new File(props.getProperty(String.format(P_ARTIFACT, i, "file")));
+				e.size = Long.parseLong(props.getProperty(String.format(P_ARTIFACT, i, "size")));
+				e.lastModified = Long.parseLong(props.getProperty(String.format(P_ARTIFACT, i, "lastModified")));
+				e.updated = Long.parseLong(props.getProperty(String.format(P_ARTIFACT, i, "updated")));
+				e.sha1 = props.getProperty(String.format(P_ARTIFACT, i, "sha1"));
+				list.add(e);
+			}
+			entries = list;
+			loaded = true;
+		} catch (Exception e) {
+			// corrupted or incompatible; will be overwritten after next successful resolution
+			Log.debug("Ignoring invalid launch plan %s: %s", file, e);
+		} finally {
+			IOHelper.close(in);
+		}
+	}
+
+}
@@ -1,208 +1,380 @@
-/*
- * Copyright 2012-2014 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-package io.jrevolt.launcher.mvn;
-
-import io.jrevolt.launcher.LauncherCfg;
-import io.jrevolt.launcher.LauncherException;
-import io.jrevolt.launcher.RepositorySupport;
-import io.jrevolt.launcher.url.UrlSupport;
-import io.jrevolt.launcher.util.IOHelper;
-import io.jrevolt.launcher.util.Log;
-
-import org.springframework.boot.loader.LaunchedURLClassLoader;
-import org.springframework.boot.loader.archive.Archive;
-import org.springframework.boot.loader.archive.JarFileArchive;
-import org.springframework.boot.loader.jar.JarFile;
-
-import java.lang.reflect.InvocationTargetException;
-import java.net.URL;
-import java.net.URLClassLoader;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
-
-/**
- * Specialized implementation of the {@code Launcher} that intelligently downloads dependencies from configured Maven
- * repository.
- *
- * @author Patrik Beno
- * @see org.springframework.boot.loader.ExecutableArchiveLauncher
- */
-public class Launcher {
-
-	static {
-		UrlSupport.init();
-	}
-
-	private Artifact artifact;
-
-	private String mainClass;
-
-	public Launcher(Artifact artifact) {
-		this.artifact = artifact;
-		this.mainClass = artifact.getMainClass();
-	}
-
-	protected String getMainClass() throws Exception {
-		if (artifact.getMainClass() == null) {
-			mainClass = artifact.getArchive().getManifest().getMainAttributes().getValue("Main-Class");
-		}
-		return mainClass;
-	}
-
-	protected List<Archive> getClassPathArchives() {
-		try {
-			return getClassPathArchives(artifact);
-		} catch (LauncherException e) {
-			throw e;
-		} catch (Exception e) {
-			throw new LauncherException(e);
-		}
-	}
-
-
-	protected ClassLoader createClassLoader(List<Archive> archives) throws Exception {
-		List<URL> urls = new ArrayList<URL>(archives.size());
-		for (Archive archive : archives) {
-			urls.add(archive.getUrl());
-		}
-		return createClassLoader(urls.toArray(new URL[urls.size()]));
-	}
-
-	protected ClassLoader createClassLoader(URL[] urls) throws Exception {
-		return new URLClassLoader(urls, null);
-	}
-
-	protected void launch(String[] args) {
-		try {
-			JarFile.registerUrlProtocolHandler();
-			ClassLoader classLoader = createClassLoader(getClassPathArchives());
-			String main = getMainClass();
-			if (main == null && args.length > 0) {
-				main = args[0];
-				args = Arrays.copyOfRange(args, 1, args.length);
-			}
-			launch(args, main, classLoader);
-		} catch (LauncherException e) {
-			throw e;
-		} catch (Exception e) {
-			throw new LauncherException(e);
-		}
-	}
-
-	/// API for embedded use
-
-	/**
-	 * Resolves given artifact and all its dependencies, and configures a class loader linked to a specified parent.
-	 * Caller is responsible for a proper use of the resulting class loader and all the classes loaded.
-	 *
-	 * @param artifact
-	 * @param parent
-	 * @return
-	 */
-	public ClassLoader resolve(Artifact artifact, List<Artifact> ext, ClassLoader parent) {
-		try {
-			List<Archive> archives = getClassPathArchives(artifact);
-			List<URL> urls = new ArrayList<URL>(archives.size());
-			for (Archive archive : archives) {
-				urls.add(archive.getUrl());
-				IOHelper.close(archive);
-			}
-			ClassLoader cl = new LaunchedURLClassLoader(urls.toArray(new URL[urls.size()]), parent);
-			return cl;
-		} catch (Exception e) {
-			throw new LauncherException(e,
-												 "Cannot resolve artifact or its dependencies: " + artifact.asString());
-		}
-	}
-
-	public ClassLoader resolve(Artifact artifact, ClassLoader parent) {
-		return resolve(artifact, null, parent);
-	}
-
-	///
-
-	protected List<Archive> getClassPathArchives(Artifact mvnartifact) throws Exception {
-		List<Artifact> artifacts = RepositorySupport.resolve(mvnartifact);
-		List<Archive> archives = new LinkedList<Archive>();
-		for (Artifact a : artifacts) {
-			archives.add(new JarFileArchive(a.getFile()));
-		}
-		return archives;
-	}
-
-	public void launch(Queue<String> args) throws Exception {
-		launch(args.toArray(new String[args.size()]));
-	}
-
-	protected void launch(final String[] args, final String mainClass, final ClassLoader classLoader) throws Exception {
-		if (!LauncherCfg.execute.asBoolean()) {
-			Log.warn("Application updated. Execution skipped (%s=false)", LauncherCfg.execute.getPropertyName());
-			return;
-		}
-		if (LauncherCfg.debug.asBoolean()) {
-			Log.debug("## Application Arguments:");
-			for (String s : args) {
-				Log.debug(s);
-			}
-			Log.debug("##");
-		}
-		LauncherCfg.export();
-
-		if (mainClass == null) {
-			throw new LauncherException("Missing Main-Class in manifest");
-		}
-
-		Runnable runner = new Runnable() {
-			@Override
-			public void run() {
-				try {
-					Class.forName(mainClass, false, classLoader)
-							.getMethod("main", String[].class)
-							.invoke(null, (Object) args);
-				} catch (InvocationTargetException | IllegalAccessException | ClassNotFoundException | NoSuchMethodException e) {
-					throw new LauncherException(e);
-				}
-			}
-		};
-
-		Thread runnerThread = new Thread(runner);
-		runnerThread.setContextClassLoader(classLoader);
-		runnerThread.setName("main");
-		runnerThread.start();
-	}
-
-
-	///
-
-	private Log.Level toLevel(Artifact.Status status) {
-		switch (status) {
-			case Invalid:
-			case NotFound:
-			case Downloadable:
-				return Log.Level.WRN;
-			case Downloaded:
-			case Updated:
-				return LauncherCfg.isDebugEnabled() ? Log.Level.DBG : Log.Level.INF;
-			default:
-				return Log.Level.DBG;
-		}
-	}
-
-
-}
+/*
+ * Copyright 2012-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.LauncherCfg;
+import io.jrevolt.launcher.LauncherException;
+import io.jrevolt.launcher.RepositorySupport;
+import io.jrevolt.launcher.url.UrlSupport;
+import io.jrevolt.launcher.util.Events;
+import io.jrevolt.launcher.util.IOHelper;
+import io.jrevolt.launcher.util.Log;
+
+import org.springframework.boot.loader.LaunchedURLClassLoader;
+import org.springframework.boot.loader.jar.JarFile;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.jar.Manifest;
+
+/**
+ * Specialized implementation of the {@code Launcher} that intelligently downloads dependencies from configured Maven
+ * repository.
+ *
+ * @author Patrik Beno
+ * @see org.springframework.boot.loader.ExecutableArchiveLauncher
+ */
+public class Launcher {
+
+	static {
+		UrlSupport.init();
+	}
+
+	private Artifact artifact;
+
+	private String mainClass;
+
+	public Launcher(Artifact artifact) {
+		this.artifact = artifact;
+		this.mainClass = artifact.getMainClass();
+	}
+
+	protected String getMainClass() throws Exception {
+		if (artifact.getMainClass() != null) {
+			mainClass = artifact.getMainClass();
+		} else if (mainClass == null) {
+			Manifest mf = artifact.getManifest();
+			mainClass = (mf != null) ? mf.getMainAttributes().getValue("Main-Class") : null;
+		}
+		return mainClass;
+	}
+
+	protected List<URL> getClassPath() {
+		try {
+			return getClassPath(artifact);
+		} catch (LauncherException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new LauncherException(e);
+		}
+	}
+
+
+	protected ClassLoader createClassLoader(List<URL> classpath) throws Exception {
+		Events.Event event = Events.begin(Events.Type.ClassLoader);
+		ClassLoader cl = createClassLoader(classpath.toArray(new URL[classpath.size()]));
+		event.set("archives", classpath.size()).commit();
+		return cl;
+	}
+
+	protected ClassLoader createClassLoader(URL[] urls) throws Exception {
+		if (LauncherCfg.classIndex.asBoolean()) {
+			ClassLoader cl = IndexedClassLoader.create(urls, null, LaunchPlan.getDirectory());
+			if (cl != null) {
+				return cl;
+			}
+		}
+		return new URLClassLoader(urls, null);
+	}
+
+	/**
+	 * Class loader over artifacts that may still be downloading (see {@link LauncherCfg#earlyLaunch}). Usage of the
+	 * class path is recorded when the JVM exits, and drives the download order of the next launch.
+	 */
+	protected ClassLoader createPendingClassLoader(List<PendingArtifact> artifacts) throws Exception {
+		Events.Event event = Events.begin(Events.Type.ClassLoader);
+		final IndexedClassLoader cl = IndexedClassLoader.create(
+				artifacts, null, LaunchPlan.getDirectory(), UsageRecord.forArtifact(artifact));
+		Runtime.getRuntime().addShutdownHook(new Thread(cl::saveUsage, "jrevolt-usage-record"));
+		event.set("archives", artifacts.size()).commit();
+		return cl;
+	}
+
+	protected void launch(String[] args) {
+		try {
+			JarFile.registerUrlProtocolHandler();
+			if (LauncherCfg.earlyLaunch.asBoolean() && !LauncherCfg.fork.asBoolean()) {
+				List<PendingArtifact> artifacts = RepositorySupport.resolveEarly(artifact);
+				String main = getMainClass();
+				if (main == null && args.length > 0) {
+					main = args[0];
+					args = Arrays.copyOfRange(args, 1, args.length);
+				}
+				launch(args, main, createPendingClassLoader(artifacts));
+				return;
+			}
+			List<URL> classpath = getClassPath();
+			String main = getMainClass();
+			if (main == null && args.length > 0) {
+				main = args[0];
+				args = Arrays.copyOfRange(args, 1, args.length);
+			}
+			if (LauncherCfg.fork.asBoolean()) {
+				fork(args, main, classpath);
+				return;
+			}
+			launch(args, main, createClassLoader(classpath));
+		} catch (LauncherException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new LauncherException(e);
+		}
+	}
+
+	/// API for embedded use
+
+	/**
+	 * Resolves given artifact and all its dependencies, and configures a class loader linked to a specified parent.
+	 * Caller is responsible for a proper use of the resulting class loader and all the classes loaded, and for closing
+	 * it once released (archives are opened on first use, and remain open until then).
+	 *
+	 * @param artifact
+	 * @param parent
+	 * @return
+	 */
+	public ClassLoader resolve(Artifact artifact, List<Artifact> ext, ClassLoader parent) {
+		try {
+			List<URL> urls = getClassPath(artifact);
+			ClassLoader cl = new LaunchedURLClassLoader(urls.toArray(new URL[urls.size()]), parent);
+			return cl;
+		} catch (Exception e) {
+			throw new LauncherException(e,
+												 "Cannot resolve artifact or its dependencies: " + artifact.asString());
+		}
+	}
+
+	public ClassLoader resolve(Artifact artifact, ClassLoader parent) {
+		return resolve(artifact, null, parent);
+	}
+
+	///
+
+	/**
+	 * Resolves the class path of a given artifact: plain file URLs, archives are opened by the class loader on first use
+	 */
+	protected List<URL> getClassPath(Artifact mvnartifact) throws Exception {
+		List<Artifact> artifacts = RepositorySupport.resolve(mvnartifact);
+		List<URL> urls = new ArrayList<URL>(artifacts.size());
+		for (Artifact a : artifacts) {
+			urls.add(a.getFile().toURI().toURL());
+		}
+		return urls;
+	}
+
+	public void launch(Queue<String> args) throws Exception {
+		launch(args.toArray(new String[args.size()]));
+	}
+
+	protected void launch(final String[] args, final String mainClass, final ClassLoader classLoader) throws Exception {
+		if (!isExecutable(args, mainClass)) {
+			if (classLoader instanceof Closeable) {
+				IOHelper.close((Closeable) classLoader);
+			}
+			return;
+		}
+		LauncherCfg.export();
+
+		Runnable runner = new Runnable() {
+			@Override
+			public void run() {
+				try {
+					// hand-off: main class loaded and its main method resolved
+					Events.Event event = Events.begin(Events.Type.Launch);
+					Method main = Class.forName(mainClass, false, classLoader).getMethod("main", String[].class);
+					event.set("mainClass", mainClass).commit();
+					main.invoke(null, (Object) args);
+				} catch (InvocationTargetException | IllegalAccessException | ClassNotFoundException | NoSuchMethodException e) {
+					throw new LauncherException(e);
+				}
+			}
+		};
+
+		Thread runnerThread = new Thread(runner);
+		runnerThread.setContextClassLoader(classLoader);
+		runnerThread.setName("main");
+		runnerThread.start();
+	}
+
+
+	/**
+	 * Executes the application in a child JVM, waits for it to complete, and exits with its exit code (if non-zero).
+	 * Class data sharing archive of the class path is used or recorded, if enabled. On Java 9+, the class path is
+	 * passed in an argument file, as it may exceed the command line limits (about 32K characters on Windows).
+	 *
+	 * @see LauncherCfg#fork
+	 * @see LauncherCfg#cds
+	 */
+	protected void fork(String[] args, String mainClass, List<URL> classpath) throws Exception {
+		if (!isExecutable(args, mainClass)) {
+			return;
+		}
+
+		List<File> files = new ArrayList<File>(classpath.size());
+		StringBuilder cp = new StringBuilder();
+		for (URL url : classpath) {
+			File f = IndexedClassLoader.toFile(url);
+			if (f == null) {
+				throw new LauncherException(String.format("Unsupported class path entry: %s", url));
+			}
+			files.add(f);
+			cp.append(cp.length() > 0 ? File.pathSeparator : "").append(f.getPath());
+		}
+
+		List<String> command = new ArrayList<String>();
+		command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+		command.addAll(getJvmOptions());
+		for (Map.Entry<Object, Object> e : LauncherCfg.export(new Properties()).entrySet()) {
+			command.add(String.format("-D%s=%s", e.getKey(), e.getValue()));
+		}
+		SharedArchive cds = null;
+		if (LauncherCfg.cds.asBoolean()) {
+			cds = SharedArchive.forClassPath(getApplicationName(artifact), mainClass, files,
+					new File(LauncherCfg.cache.asFile(), ".cds"));
+			if (cds != null) {
+				command.addAll(cds.getJvmOptions());
+			}
+		}
+		File argfile = null;
+		if (SharedArchive.getJavaVersion() >= 9) {
+			argfile = writeArgFile(Arrays.asList("-cp", cp.toString()));
+			command.add("@" + argfile.getPath());
+		} else {
+			command.add("-cp");
+			command.add(cp.toString());
+		}
+		command.add(mainClass);
+		command.addAll(Arrays.asList(args));
+		Log.debug("Forking: %s", command);
+
+		int status;
+		try {
+			Events.Event event = Events.begin(Events.Type.Launch);
+			final Process process = new ProcessBuilder(command).inheritIO().start();
+			event.set("mainClass", mainClass).commit();
+
+			// launcher terminated: so is the application
+			Thread hook = new Thread(process::destroy, "jrevolt-fork-shutdown");
+			Runtime.getRuntime().addShutdownHook(hook);
+			status = process.waitFor();
+			Runtime.getRuntime().removeShutdownHook(hook);
+		} finally {
+			if (argfile != null) {
+				argfile.delete();
+			}
+		}
+
+		if (cds != null) {
+			cds.recorded();
+		}
+		Log.debug("Application exited: %d", status);
+		if (status != 0) {
+			System.exit(status);
+		}
+	}
+
+	/**
+	 * Writes given arguments into a temporary {@code java @argfile}: one quoted argument per line (backslashes and
+	 * quotes escaped), in the platform encoding the launcher reads it with
+	 */
+	static File writeArgFile(List<String> args) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (String arg : args) {
+			String quoted = arg.replace("\\", "\\\\").replace("\"", "\\\"");
+			sb.append('"').append(quoted).append('"').append(System.lineSeparator());
+		}
+		File f = File.createTempFile("jrevolt-", ".args");
+		String encoding = System.getProperty("sun.jnu.encoding", Charset.defaultCharset().name());
+		Files.write(f.toPath(), sb.toString().getBytes(Charset.forName(encoding)));
+		return f;
+	}
+
+	/**
+	 * Options of this JVM to be used by the child JVM: agents (incl. debugger), class data sharing and flight
+	 * recordings are excluded, as they would conflict with the launcher.
+	 */
+	static private List<String> getJvmOptions() {
+		List<String> options = new ArrayList<String>();
+		for (String s : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+			if (s.startsWith("-agentlib") || s.startsWith("-agentpath") || s.startsWith("-javaagent")
+					|| s.startsWith("-Xrunjdwp") || s.startsWith("-Xdebug") || s.startsWith("-Xshare")
+					|| s.startsWith("-XX:SharedArchiveFile") || s.startsWith("-XX:ArchiveClassesAtExit")
+					|| s.startsWith("-XX:AOT") || s.startsWith("-XX:StartFlightRecording")) {
+				continue;
+			}
+			options.add(s);
+		}
+		return options;
+	}
+
+	/**
+	 * Application name, for use in file names: {@code groupId_artifactId}, or the file name
+	 */
+	static String getApplicationName(Artifact artifact) {
+		return (artifact.getGroupId() != null)
+				? artifact.getGroupId() + "_" + artifact.getArtifactId()
+				: artifact.getFile().getName();
+	}
+
+	private boolean isExecutable(String[] args, String mainClass) {
+		if (!LauncherCfg.execute.asBoolean()) {
+			Log.warn("Application updated. Execution skipped (%s=false)", LauncherCfg.execute.getPropertyName());
+			return false;
+		}
+		if (LauncherCfg.debug.asBoolean()) {
+			Log.debug("## Application Arguments:");
+			for (String s : args) {
+				Log.debug(s);
+			}
+			Log.debug("##");
+		}
+		if (mainClass == null) {
+			throw new LauncherException("Missing Main-Class in manifest");
+		}
+		return true;
+	}
+
+	///
+
+	private Log.Level toLevel(Artifact.Status status) {
+		switch (status) {
+			case Invalid:
+			case NotFound:
+			case Downloadable:
+				return Log.Level.WRN;
+			case Downloaded:
+			case Updated:
+				return LauncherCfg.isDebugEnabled() ? Log.Level.DBG : Log.Level.INF;
+			default:
+				return Log.Level.DBG;
+		}
+	}
+
+
+}
@@ -0,0 +1,128 @@
+package io.jrevolt.launcher.mvn;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot version metadata ({@code <version>/maven-metadata.xml}): latest snapshot (timestamp and build number), and
+ * per-classifier/extension snapshot versions, if available.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ * @see RepositoryConnector#resolveSnapshotVersion(Artifact)
+ */
+class Metadata {
+
+	static private final XMLInputFactory XML = XMLInputFactory.newInstance();
+
+	static {
+		XML.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		XML.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+	}
+
+	String timestamp;
+	String buildNumber;
+
+	/**
+	 * {@code classifier:extension} -> timestamped version
+	 */
+	Map<String, String> snapshotVersions = new HashMap<>();
+
+	/**
+	 * Timestamped version of a given snapshot artifact. Version specific to the artifact's classifier and extension is
+	 * preferred, latest snapshot build is used otherwise. Non-unique snapshots (no timestamp) keep their version.
+	 */
+	String getSnapshotVersion(Artifact artifact) {
+		String version = snapshotVersions.get(key(artifact.getClassifier(), artifact.getPackaging()));
+		if (version != null) {
+			return version;
+		}
+		if (timestamp == null || buildNumber == null) {
+			return artifact.getVersion();
+		}
+		return artifact.getVersion().replaceFirst("SNAPSHOT$", String.format("%s-%s", timestamp, buildNumber));
+	}
+
+	static private String key(String classifier, String extension) {
+		return String.format("%s:%s", classifier != null ? classifier : "", extension != null ? extension : "jar");
+	}
+
+	///
+
+	/**
+	 * Parses metadata XML (streaming; only the snapshot versioning elements are processed)
+	 */
+	static Metadata parse(InputStream in) throws IOException {
+		Metadata metadata = new Metadata();
+		try {
+			XMLStreamReader xml = XML.createXMLStreamReader(in);
+			try {
+				List<String> path = new ArrayList<>();
+				StringBuilder text = new StringBuilder();
+				String classifier = null, extension = null, value = null;
+				while (xml.hasNext()) {
+					switch (xml.next()) {
+						case XMLStreamConstants.START_ELEMENT:
+							path.add(xml.getLocalName());
+							text.setLength(0);
+							break;
+						case XMLStreamConstants.CHARACTERS:
+						case XMLStreamConstants.CDATA:
+							text.append(xml.getText());
+							break;
+						case XMLStreamConstants.END_ELEMENT:
+							String s = text.toString().trim();
+							text.setLength(0);
+							if (matches(path, "versioning", "snapshot", "timestamp")) {
+								metadata.timestamp = s;
+							} else if (matches(path, "versioning", "snapshot", "buildNumber")) {
+								metadata.buildNumber = s;
+							} else if (matches(path, "snapshotVersion", "classifier")) {
+								classifier = s;
+							} else if (matches(path, "snapshotVersion", "extension")) {
+								extension = s;
+							} else if (matches(path, "snapshotVersion", "value")) {
+								value = s;
+							} else if (matches(path, "snapshotVersions", "snapshotVersion")) {
+								if (value != null) {
+									metadata.snapshotVersions.put(key(classifier, extension), value);
+								}
+								classifier = extension = value = null;
+							}
+							path.remove(path.size() - 1);
+							break;
+					}
+				}
+			} finally {
+				xml.close();
+			}
+		} catch (XMLStreamException e) {
+			throw new IOException("Invalid metadata: " + e.getMessage(), e);
+		}
+		return metadata;
+	}
+
+	/**
+	 * Current element path ends with a given suffix
+	 */
+	static private boolean matches(List<String> path, String... suffix) {
+		if (path.size() < suffix.length) {
+			return false;
+		}
+		int offset = path.size() - suffix.length;
+		for (int i = 0; i < suffix.length; i++) {
+			if (!suffix[i].equals(path.get(offset + i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,346 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.LauncherCfg;
+import io.jrevolt.launcher.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Resolution metrics: per-artifact phase timestamps, repository-level events (e.g. connection verification), and
+ * periodic samples of executor queue depth and active threads. Reported once the resolution completes, as configured by
+ * {@link LauncherCfg#metrics}: {@code json} ({@link LauncherCfg#metricsFile}), or {@code waterfall} (log, one row per
+ * artifact).
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class Metrics {
+
+	static private final String NONE = "none";
+	static private final String JSON = "json";
+	static private final String WATERFALL = "waterfall";
+
+	/**
+	 * Width of the waterfall chart (characters)
+	 */
+	static private final int WIDTH = 60;
+
+	/**
+	 * Resolution phases, in pipeline order. Waterfall symbols of later phases take precedence.
+	 */
+	static enum Phase {
+		ResolveQueue('.'), Metadata('m'), Head('h'), Get('g'), DownloadQueue('-'), Download('='), Checksum('c'),
+		Commit('w');
+
+		final char symbol;
+
+		Phase(char symbol) {
+			this.symbol = symbol;
+		}
+	}
+
+	/**
+	 * Start and end of each phase (nanoTime, zero if not recorded). Repeated phases (e.g. download retries) span from
+	 * the first start to the last end.
+	 */
+	static class Timings {
+
+		final long[] start = new long[Phase.values().length];
+		final long[] end = new long[Phase.values().length];
+
+		synchronized void begin(Phase phase) {
+			if (start[phase.ordinal()] == 0) {
+				start[phase.ordinal()] = System.nanoTime();
+			}
+		}
+
+		synchronized void end(Phase phase) {
+			if (start[phase.ordinal()] != 0) {
+				end[phase.ordinal()] = System.nanoTime();
+			}
+		}
+
+		/**
+		 * Take over the phases recorded by a given copy (e.g. parallel lookup)
+		 */
+		synchronized void merge(Timings other) {
+			if (other == this) {
+				return;
+			}
+			synchronized (other) {
+				for (int i = 0; i < start.length; i++) {
+					if (other.start[i] != 0 && (start[i] == 0 || other.start[i] < start[i])) {
+						start[i] = other.start[i];
+					}
+					end[i] = Math.max(end[i], other.end[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Executor gauges: queued tasks and active threads of resolvers, downloaders and lookups
+	 */
+	static class Sample {
+		final long time = System.nanoTime();
+		final int[] values;
+
+		Sample(int... values) {
+			this.values = values;
+		}
+	}
+
+	static private final String[] GAUGES = {
+			"resolversQueued", "resolversActive", "downloadsQueued", "downloadsActive", "lookupsQueued", "lookupsActive" };
+
+	final long created = System.nanoTime();
+
+	final long createdMillis = System.currentTimeMillis();
+
+	/**
+	 * Events not related to a particular artifact (name -> [start, end])
+	 */
+	final Map<String, long[]> events = new ConcurrentHashMap<>();
+
+	final ConcurrentLinkedQueue<Sample> samples = new ConcurrentLinkedQueue<>();
+
+	static boolean isEnabled() {
+		return !NONE.equals(LauncherCfg.metrics.asString());
+	}
+
+	long[] begin(String event) {
+		long[] span = { System.nanoTime(), 0 };
+		events.put(event, span);
+		return span;
+	}
+
+	void end(long[] span) {
+		span[1] = System.nanoTime();
+	}
+
+	void sample(ResolverContext context) {
+		int[] values = new int[GAUGES.length];
+		gauge(context.resolvers, values, 0);
+		gauge(context.downloaders.getExecutor(), values, 2);
+		gauge(context.lookups, values, 4);
+		samples.add(new Sample(values));
+	}
+
+	static private void gauge(ExecutorService executor, int[] values, int offset) {
+		if (executor instanceof ThreadPoolExecutor) {
+			ThreadPoolExecutor tpe = (ThreadPoolExecutor) executor;
+			values[offset] = tpe.getQueue().size();
+			values[offset + 1] = tpe.getActiveCount();
+		} else if (executor instanceof SharedExecutor) {
+			// thread per task: no queue
+			values[offset + 1] = ((SharedExecutor) executor).getActiveCount();
+		}
+	}
+
+	///
+
+	/**
+	 * Report metrics of a given resolution as configured. Waterfall is printed regardless of
+	 * {@link LauncherCfg#quiet}: it has been explicitly requested.
+	 *
+	 * @see LauncherCfg#metrics
+	 */
+	public void report(Artifact main, List<Artifact> artifacts) {
+		String mode = LauncherCfg.metrics.asString();
+		long finished = System.nanoTime();
+		if (WATERFALL.equals(mode)) {
+			waterfall(artifacts, finished);
+		} else if (JSON.equals(mode)) {
+			File f = LauncherCfg.metricsFile.asFile();
+			try {
+				f.getAbsoluteFile().getParentFile().mkdirs();
+				try (PrintWriter out = new PrintWriter(new OutputStreamWriter(
+						Files.newOutputStream(f.toPath()), StandardCharsets.UTF_8))) {
+					json(out, main, artifacts, finished);
+				}
+				Log.debug("Metrics saved: %s", f);
+			} catch (IOException e) {
+				Log.warn("Cannot save metrics %s: %s", f, e);
+			}
+		} else if (!NONE.equals(mode)) {
+			Log.warn("Unsupported metrics report: --%s=%s", LauncherCfg.metrics.name(), mode);
+		}
+	}
+
+	private void waterfall(List<Artifact> artifacts, long finished) {
+		double scale = Math.max(1, finished - created) / (double) WIDTH;
+		Log.log(Log.Level.INF, "Resolution timeline (%d msec, 1 char = %.0f msec): %s",
+				  millis(finished), scale / 1e6, legend());
+		for (Map.Entry<String, long[]> e : events.entrySet()) {
+			long start = e.getValue()[0];
+			long end = e.getValue()[1] != 0 ? e.getValue()[1] : finished;
+			char[] bar = bar();
+			fill(bar, start, end, '#', scale);
+			Log.log(Log.Level.INF, "%-70s |%s| %6d ms", e.getKey(), new String(bar), (end - start) / 1000000);
+		}
+		for (Artifact a : artifacts) {
+			char[] bar = bar();
+			long first = 0, last = 0;
+			synchronized (a.state.timings) {
+				for (Phase p : Phase.values()) {
+					long start = a.state.timings.start[p.ordinal()];
+					long end = a.state.timings.end[p.ordinal()];
+					if (start == 0) {
+						continue;
+					}
+					fill(bar, start, end != 0 ? end : start, p.symbol, scale);
+					first = (first == 0) ? start : Math.min(first, start);
+					last = Math.max(last, end);
+				}
+			}
+			Log.log(Log.Level.INF, "%-70s |%s| %6d ms", a, new String(bar), last > first ? (last - first) / 1000000 : 0);
+		}
+		Sample peak = peak();
+		if (peak != null) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < GAUGES.length; i++) {
+				sb.append(i > 0 ? ", " : "").append(GAUGES[i]).append('=').append(peak.values[i]);
+			}
+			Log.log(Log.Level.INF, "Peak executor load: %s", sb);
+		}
+	}
+
+	static private String legend() {
+		StringBuilder sb = new StringBuilder();
+		for (Phase p : Phase.values()) {
+			sb.append(sb.length() > 0 ? " " : "").append(p.symbol).append('=').append(p.name());
+		}
+		return sb.toString();
+	}
+
+	static private char[] bar() {
+		char[] bar = new char[WIDTH];
+		Arrays.fill(bar, ' ');
+		return bar;
+	}
+
+	private void fill(char[] bar, long start, long end, char symbol, double scale) {
+		int from = (int) Math.min(WIDTH - 1, (start - created) / scale);
+		int to = (int) Math.min(WIDTH - 1, (end - created) / scale);
+		Arrays.fill(bar, Math.max(0, from), Math.max(0, to) + 1, symbol);
+	}
+
+	/**
+	 * Sample with max total load
+	 */
+	private Sample peak() {
+		Sample peak = null;
+		int max = -1;
+		for (Sample s : samples) {
+			int total = 0;
+			for (int v : s.values) {
+				total += v;
+			}
+			if (total > max) {
+				max = total;
+				peak = s;
+			}
+		}
+		return peak;
+	}
+
+	void json(PrintWriter out, Artifact main, List<Artifact> artifacts, long finished) {
+		out.println("{");
+		out.printf(Locale.ROOT, "  \"artifact\": %s,%n", quote(main != null ? main.asString() : null));
+		out.printf(Locale.ROOT, "  \"started\": %d,%n", createdMillis);
+		out.printf(Locale.ROOT, "  \"elapsed\": %.3f,%n", elapsed(finished));
+		out.println("  \"artifacts\": [");
+		for (int i = 0; i < artifacts.size(); i++) {
+			Artifact a = artifacts.get(i);
+			out.printf(Locale.ROOT,
+						  "    {\"artifact\": %s, \"status\": %s, \"repository\": %s, \"size\": %d, \"downloaded\": %d, "
+								+ "\"requests\": %d, \"phases\": {",
+						  quote(a.asString()), quote(String.valueOf(a.getStatus())), quote(a.getRepositoryId()),
+						  a.getSize(), a.getDownloaded(), a.getRequests());
+			boolean first = true;
+			synchronized (a.state.timings) {
+				for (Phase p : Phase.values()) {
+					long start = a.state.timings.start[p.ordinal()];
+					if (start == 0) {
+						continue;
+					}
+					long end = a.state.timings.end[p.ordinal()];
+					out.printf(Locale.ROOT, "%s%s: {\"start\": %.3f, \"end\": %.3f}",
+								  first ? "" : ", ", quote(p.name()), elapsed(start), elapsed(end != 0 ? end : start));
+					first = false;
+				}
+			}
+			out.printf(Locale.ROOT, "}}%s%n", i < artifacts.size() - 1 ? "," : "");
+		}
+		out.println("  ],");
+		out.println("  \"events\": [");
+		List<Map.Entry<String, long[]>> events = new ArrayList<>(this.events.entrySet());
+		for (int i = 0; i < events.size(); i++) {
+			long[] span = events.get(i).getValue();
+			out.printf(Locale.ROOT, "    {\"event\": %s, \"start\": %.3f, \"end\": %.3f}%s%n",
+						  quote(events.get(i).getKey()), elapsed(span[0]), elapsed(span[1] != 0 ? span[1] : finished),
+						  i < events.size() - 1 ? "," : "");
+		}
+		out.println("  ],");
+		out.println("  \"gauges\": [");
+		List<Sample> samples = new ArrayList<>(this.samples);
+		for (int i = 0; i < samples.size(); i++) {
+			Sample s = samples.get(i);
+			out.printf(Locale.ROOT, "    {\"time\": %.3f", elapsed(s.time));
+			for (int j = 0; j < GAUGES.length; j++) {
+				out.printf(Locale.ROOT, ", \"%s\": %d", GAUGES[j], s.values[j]);
+			}
+			out.printf(Locale.ROOT, "}%s%n", i < samples.size() - 1 ? "," : "");
+		}
+		out.println("  ]");
+		out.println("}");
+	}
+
+	/**
+	 * Milliseconds since the resolution started
+	 */
+	private double elapsed(long nanos) {
+		return (nanos - created) / 1e6;
+	}
+
+	private long millis(long nanos) {
+		return (nanos - created) / 1000000;
+	}
+
+	static private String quote(String s) {
+		if (s == null) {
+			return "null";
+		}
+		StringBuilder sb = new StringBuilder("\"");
+		for (char c : s.toCharArray()) {
+			switch (c) {
+				case '"': sb.append("\\\""); break;
+				case '\\': sb.append("\\\\"); break;
+				case '\n': sb.append("\\n"); break;
+				case '\r': sb.append("\\r"); break;
+				case '\t': sb.append("\\t"); break;
+				default:
+					if (c < 0x20) {
+						sb.append(String.format("\\u%04x", (int) c));
+					} else {
+						sb.append(c);
+					}
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+}
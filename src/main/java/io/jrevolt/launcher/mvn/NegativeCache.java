@@ -0,0 +1,180 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.LauncherCfg;
+import io.jrevolt.launcher.util.IOHelper;
+import io.jrevolt.launcher.util.Log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Persistent record of resources confirmed missing ({@code 404 Not Found}, {@code 410 Gone}) in a given repository.
+ * While the record is valid (see {@link LauncherCfg#notFoundInterval}), the resource is reported {@code NotFound}
+ * without contacting the repository. Forced updates ({@link LauncherCfg#update}, {@link LauncherCfg#ignoreCache})
+ * bypass the cache (but keep it up to date).
+ * <p/>
+ * Records are kept in {@code ${cache}/.notfound/<repository-id>.idx}, one {@code <timestamp> <path>} line per record.
+ * The file is append-only (a zero timestamp removes the record), and is compacted once it contains stale lines. The
+ * whole file is indexed in memory on first use.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+class NegativeCache {
+
+	static private final String DIR = ".notfound";
+
+	private final File file;
+
+	// path -> time the resource was found missing
+	private final Map<String, Long> entries = new HashMap<>();
+
+	private boolean loaded;
+
+	private int hits;
+
+	NegativeCache(File cache, Repository repository) {
+		this.file = new File(new File(cache, DIR), repository.getId() + ".idx");
+	}
+
+	/**
+	 * Returns {@code true} if the resource is known to be missing in the repository (and counts the hit)
+	 */
+	synchronized boolean contains(String path) {
+		if (LauncherCfg.update.asBoolean() || LauncherCfg.ignoreCache.asBoolean()) {
+			return false;
+		}
+		load();
+		Long recorded = entries.get(path);
+		if (recorded == null || isExpired(recorded, System.currentTimeMillis())) {
+			return false;
+		}
+		hits++;
+		return true;
+	}
+
+	/**
+	 * Records the resource as missing
+	 */
+	synchronized void add(String path) {
+		if (getInterval() <= 0) {
+			return;
+		}
+		load();
+		long now = System.currentTimeMillis();
+		entries.put(path, now);
+		append(now, path);
+	}
+
+	/**
+	 * Resource has been found: drop the record, if any
+	 */
+	synchronized void remove(String path) {
+		load();
+		if (entries.remove(path) != null) {
+			append(0, path);
+		}
+	}
+
+	/**
+	 * Number of requests avoided so far
+	 */
+	synchronized int getHits() {
+		return hits;
+	}
+
+	File getFile() {
+		return file;
+	}
+
+	private long getInterval() {
+		return LauncherCfg.notFoundInterval.asDuration().toMillis();
+	}
+
+	private boolean isExpired(long recorded, long now) {
+		return recorded + getInterval() < now;
+	}
+
+	private void load() {
+		if (loaded) {
+			return;
+		}
+		loaded = true;
+		if (!file.exists()) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		int lines = 0;
+		BufferedReader in = null;
+		try {
+			in = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+			for (String line; (line = in.readLine()) != null; lines++) {
+				int i = line.indexOf(' ');
+				if (i <= 0) {
+					continue;
+				}
+				long recorded = Long.parseLong(line.substring(0, i));
+				String path = line.substring(i + 1);
+				if (recorded > 0 && !isExpired(recorded, now)) {
+					entries.put(path, recorded);
+				} else {
+					entries.remove(path);
+				}
+			}
+		} catch (Exception e) {
+			Log.debug("Ignoring invalid negative cache %s: %s", file, e);
+			entries.clear();
+		} finally {
+			IOHelper.close(in);
+		}
+		if (lines > entries.size()) {
+			compact();
+		}
+	}
+
+	private void compact() {
+		File tmp = new File(file.getParentFile(), UUID.randomUUID() + ".tmp");
+		OutputStream out = null;
+		try {
+			out = new FileOutputStream(tmp);
+			for (Map.Entry<String, Long> e : entries.entrySet()) {
+				out.write(line(e.getValue(), e.getKey()));
+			}
+			out.close();
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			Log.debug("Cannot compact %s: %s", file, e);
+		} finally {
+			IOHelper.close(out);
+			tmp.delete();
+		}
+	}
+
+	private void append(long recorded, String path) {
+		OutputStream out = null;
+		try {
+			file.getParentFile().mkdirs();
+			out = new FileOutputStream(file, true);
+			out.write(line(recorded, path));
+		} catch (IOException e) {
+			Log.debug("Cannot update %s: %s", file, e);
+		} finally {
+			IOHelper.close(out);
+		}
+	}
+
+	private byte[] line(long recorded, String path) {
+		return String.format("%d %s%n", recorded, path).getBytes(StandardCharsets.UTF_8);
+	}
+
+}
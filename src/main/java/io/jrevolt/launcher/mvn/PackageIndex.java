@@ -0,0 +1,283 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.util.Hex;
+import io.jrevolt.launcher.util.IOHelper;
+import io.jrevolt.launcher.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Package index of a class path: for each package (directory), the archives containing any of its entries, in class
+ * path order. Built once by reading the central directory of each archive, and persisted next to the launch plans
+ * ({@code ${cache}/.plans/classpath-*.idx}), keyed by a fingerprint of the class path (path, size and timestamp of
+ * each archive): any change in the class path yields a different index. Indexes not used for {@link #MAX_AGE} are
+ * removed whenever a new one is saved.
+ * <p/>
+ * Versioned entries of multi-release jars ({@code META-INF/versions/N/...}) are also indexed under their package, so
+ * that classes and resources provided only by a versioned entry are found.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ * @see IndexedClassLoader
+ */
+class PackageIndex {
+
+	static private final int MAGIC = 0x4A525049; // JRPI
+	static private final int VERSION = 2;
+
+	static private final String VERSIONS = "META-INF/versions/";
+
+	/**
+	 * Unused indexes older than this are obsolete (class path has changed)
+	 */
+	static private final long MAX_AGE = TimeUnit.DAYS.toMillis(30);
+
+	static private final Pattern INDEX = Pattern.compile("classpath-\\p{XDigit}{16}\\.idx");
+
+	static private final int[] NONE = new int[0];
+
+	/**
+	 * Returns the index of given class path archives: loaded if available, built and saved otherwise
+	 *
+	 * @param dir where the index is persisted
+	 */
+	static PackageIndex forClassPath(List<File> files, File dir) throws IOException {
+		String fingerprint = fingerprint(files);
+		File file = new File(dir, String.format("classpath-%s.idx", fingerprint.substring(0, 16)));
+		PackageIndex index = load(file, fingerprint, files.size());
+		if (index == null) {
+			index = build(files, fingerprint);
+			index.save(file);
+			prune(dir);
+		} else if (file.lastModified() < System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1)) {
+			file.setLastModified(System.currentTimeMillis()); // still in use (updated once a day at most)
+		}
+		return index;
+	}
+
+	/**
+	 * Package (directory) of a given class path entry, e.g. {@code com/example/} ({@code ""} for root entries)
+	 */
+	static String getPackage(String name) {
+		return name.substring(0, name.lastIndexOf('/') + 1);
+	}
+
+	/**
+	 * SHA1 of the path, size and timestamp of each file (and optional qualifiers)
+	 */
+	static String fingerprint(List<File> files, String... qualifiers) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA1");
+			for (String q : qualifiers) {
+				md.update(String.format("%s%n", q).getBytes(StandardCharsets.UTF_8));
+			}
+			for (File f : files) {
+				md.update(String.format("%s|%d|%d%n", f.getAbsolutePath(), f.length(), f.lastModified())
+									 .getBytes(StandardCharsets.UTF_8));
+			}
+			return new String(Hex.encode(md.digest()));
+		} catch (NoSuchAlgorithmException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	static PackageIndex build(List<File> files, String fingerprint) throws IOException {
+		List<Set<String>> archives = new ArrayList<>(files.size());
+		for (File f : files) {
+			archives.add(getPackages(f));
+		}
+		return of(archives, fingerprint);
+	}
+
+	/**
+	 * In-memory index of archives with given packages, in class path order
+	 */
+	static PackageIndex of(List<Set<String>> archives, String fingerprint) {
+		Map<String, int[]> packages = new HashMap<>();
+		for (int i = 0; i < archives.size(); i++) {
+			for (String pkg : archives.get(i)) {
+				int[] indexes = packages.get(pkg);
+				if (indexes == null) {
+					packages.put(pkg, new int[] { i });
+				} else {
+					indexes = Arrays.copyOf(indexes, indexes.length + 1);
+					indexes[indexes.length - 1] = i;
+					packages.put(pkg, indexes);
+				}
+			}
+		}
+		return new PackageIndex(fingerprint, archives.size(), packages);
+	}
+
+	/**
+	 * Packages of a given archive (central directory)
+	 */
+	static Set<String> getPackages(File file) throws IOException {
+		Set<String> packages = new LinkedHashSet<>();
+		try (ZipFile zip = new ZipFile(file)) {
+			for (Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements(); ) {
+				String name = entries.nextElement().getName();
+				packages.add(getPackage(name));
+				if (name.startsWith(VERSIONS)) {
+					// META-INF/versions/N/com/example/C.class: versioned entry of com/example/
+					int i = name.indexOf('/', VERSIONS.length());
+					if (i > 0) {
+						packages.add(getPackage(name.substring(i + 1)));
+					}
+				}
+			}
+		}
+		return packages;
+	}
+
+	/**
+	 * Removes indexes not used for {@link #MAX_AGE}. Failures are logged and ignored.
+	 */
+	static private void prune(File dir) {
+		long limit = System.currentTimeMillis() - MAX_AGE;
+		File[] obsolete = dir.listFiles((d, name) -> INDEX.matcher(name).matches());
+		for (File f : obsolete != null ? obsolete : new File[0]) {
+			if (f.lastModified() < limit) {
+				Log.debug("Removing obsolete package index %s", f);
+				try {
+					Files.deleteIfExists(f.toPath());
+				} catch (IOException e) {
+					Log.debug("Cannot remove %s: %s", f, e);
+				}
+			}
+		}
+	}
+
+	static private PackageIndex load(File file, String fingerprint, int archives) {
+		if (!file.exists()) {
+			return null;
+		}
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if (in.readInt() != MAGIC || in.readInt() != VERSION || !fingerprint.equals(in.readUTF())
+					|| in.readInt() != archives) {
+				return null;
+			}
+			int count = in.readInt();
+			Map<String, int[]> packages = new HashMap<>(count * 4 / 3 + 1);
+			for (int i = 0; i < count; i++) {
+				String pkg = in.readUTF();
+				int[] indexes = new int[in.readUnsignedShort()];
+				for (int j = 0; j < indexes.length; j++) {
+					indexes[j] = in.readUnsignedShort();
+				}
+				packages.put(pkg, indexes);
+			}
+			return new PackageIndex(fingerprint, archives, packages);
+		} catch (IOException | RuntimeException e) {
+			// corrupted or incompatible; rebuilt and overwritten
+			Log.debug("Ignoring invalid package index %s: %s", file, e);
+			return null;
+		} finally {
+			IOHelper.close(in);
+		}
+	}
+
+	///
+
+	private final String fingerprint;
+
+	private final int archives;
+
+	private final Map<String, int[]> packages;
+
+	private PackageIndex(String fingerprint, int archives, Map<String, int[]> packages) {
+		this.fingerprint = fingerprint;
+		this.archives = archives;
+		this.packages = packages;
+	}
+
+	/**
+	 * Archives (indexes in class path order) containing a given package; empty if none
+	 */
+	int[] get(String pkg) {
+		int[] archives = packages.get(pkg);
+		return archives != null ? archives : NONE;
+	}
+
+	/**
+	 * Packages of a given archive (index in class path order)
+	 */
+	Set<String> getPackages(int archive) {
+		Set<String> result = new LinkedHashSet<>();
+		for (Map.Entry<String, int[]> e : packages.entrySet()) {
+			if (Arrays.binarySearch(e.getValue(), archive) >= 0) {
+				result.add(e.getKey());
+			}
+		}
+		return result;
+	}
+
+	int size() {
+		return packages.size();
+	}
+
+	/**
+	 * Persists the index for the next launch of the same class path. A failed save is only logged: the next launch
+	 * scans the archives again.
+	 */
+	private void save(File file) {
+		File tmp = null;
+		DataOutputStream out = null;
+		try {
+			// write & rename; concurrent launches may be racing for the same index
+			file.getParentFile().mkdirs();
+			tmp = new File(file.getParentFile(), UUID.randomUUID() + ".tmp");
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeUTF(fingerprint);
+			out.writeInt(archives);
+			out.writeInt(packages.size());
+			for (Map.Entry<String, int[]> e : packages.entrySet()) {
+				out.writeUTF(e.getKey());
+				out.writeShort(e.getValue().length);
+				for (int i : e.getValue()) {
+					out.writeShort(i);
+				}
+			}
+			out.close();
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						  StandardCopyOption.ATOMIC_MOVE);
+			Log.debug("Saved package index %s (%d packages)", file, packages.size());
+		} catch (IOException e) {
+			Log.debug("Cannot save package index %s: %s", file, e);
+		} finally {
+			IOHelper.close(out);
+			if (tmp != null) {
+				tmp.delete();
+			}
+		}
+	}
+
+}
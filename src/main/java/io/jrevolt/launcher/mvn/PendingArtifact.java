@@ -0,0 +1,75 @@
+package io.jrevolt.launcher.mvn;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Artifact that may still be resolving or downloading: its coordinates are known immediately, its file once the
+ * future completes.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ * @see io.jrevolt.launcher.RepositorySupport#resolveEarly(Artifact)
+ */
+public class PendingArtifact implements Future<Artifact> {
+
+	/**
+	 * Already resolved artifact
+	 */
+	static public PendingArtifact completed(Artifact artifact) {
+		return new PendingArtifact(artifact, null);
+	}
+
+	private final Artifact artifact;
+
+	private final Future<?> future;
+
+	PendingArtifact(Artifact artifact, Future<?> future) {
+		this.artifact = artifact;
+		this.future = future;
+	}
+
+	/**
+	 * Artifact (not necessarily resolved yet); does not block
+	 */
+	public Artifact getArtifact() {
+		return artifact;
+	}
+
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		return future != null && future.cancel(mayInterruptIfRunning);
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return future != null && future.isCancelled();
+	}
+
+	@Override
+	public boolean isDone() {
+		return future == null || future.isDone();
+	}
+
+	@Override
+	public Artifact get() throws InterruptedException, ExecutionException {
+		if (future != null) {
+			future.get();
+		}
+		return artifact;
+	}
+
+	@Override
+	public Artifact get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		if (future != null) {
+			future.get(timeout, unit);
+		}
+		return artifact;
+	}
+
+	@Override
+	public String toString() {
+		return artifact.toString();
+	}
+}
@@ -0,0 +1,345 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.util.Log;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Subset of the Maven POM relevant to the dependency resolution: coordinates, parent, properties, dependency management
+ * and dependencies. This is the model as declared (not inherited, not interpolated).
+ * <p/>
+ * POMs are parsed once: parsed model is saved next to the cached POM file ({@code *.pom.model}) in a compact binary form,
+ * and reused as long as the POM file does not change.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ * @see PomResolver
+ */
+class Pom {
+
+	static private final int MAGIC = 0x4A52504D; // JRPM
+	static private final int VERSION = 1;
+
+	static private final XMLInputFactory XML = XMLInputFactory.newInstance();
+
+	static {
+		XML.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		XML.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+	}
+
+	/**
+	 * Declared dependency (or dependency management entry)
+	 */
+	static class Dependency {
+		String groupId;
+		String artifactId;
+		String version;
+		String type;
+		String classifier;
+		String scope;
+		boolean optional;
+		List<String> exclusions = new LinkedList<>(); // groupId:artifactId, may contain wildcards
+
+		String getType() {
+			return (type != null) ? type : "jar";
+		}
+
+		String getScope() {
+			return (scope != null) ? scope : "compile";
+		}
+
+		/**
+		 * Identity of the dependency regardless of its version ({@code groupId:artifactId:type:classifier})
+		 */
+		String getKey() {
+			return String.format("%s:%s:%s:%s", groupId, artifactId, getType(), classifier != null ? classifier : "");
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s:%s:%s:%s:%s (%s)", groupId, artifactId, version, getType(), classifier, getScope());
+		}
+	}
+
+	String groupId;
+	String artifactId;
+	String version;
+	String packaging;
+
+	String parentGroupId;
+	String parentArtifactId;
+	String parentVersion;
+
+	Map<String, String> properties = new LinkedHashMap<>();
+	List<Dependency> management = new ArrayList<>();
+	List<Dependency> dependencies = new ArrayList<>();
+
+	boolean hasParent() {
+		return parentArtifactId != null;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s:%s:%s", groupId, artifactId, version);
+	}
+
+	///
+
+	/**
+	 * Loads POM from a given (cached) file, reusing the previously parsed model if available
+	 */
+	static Pom load(File file) throws IOException {
+		File model = new File(file.getParentFile(), file.getName() + ".model");
+		if (model.exists()) {
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(model)))) {
+				if (in.readInt() == MAGIC && in.readInt() == VERSION
+						&& in.readLong() == file.length() && in.readLong() == file.lastModified()) {
+					return read(in);
+				}
+			} catch (IOException e) {
+				Log.debug("Ignoring invalid POM model %s: %s", model, e);
+			}
+		}
+
+		Pom pom;
+		try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+			pom = parse(in);
+		}
+
+		File tmp = new File(model.getParentFile(), UUID.randomUUID() + ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(file.length());
+				out.writeLong(file.lastModified());
+				pom.write(out);
+			}
+			Files.move(tmp.toPath(), model.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			Log.debug("Cannot save POM model %s: %s", model, e);
+		} finally {
+			tmp.delete();
+		}
+
+		return pom;
+	}
+
+	/**
+	 * Parses POM XML (streaming; only the relevant elements are processed)
+	 */
+	static Pom parse(InputStream in) throws IOException {
+		Pom pom = new Pom();
+		try {
+			XMLStreamReader xml = XML.createXMLStreamReader(in);
+			try {
+				List<String> path = new ArrayList<>();
+				Dependency dependency = null;
+				StringBuilder exclusion = null;
+				StringBuilder text = new StringBuilder();
+				while (xml.hasNext()) {
+					switch (xml.next()) {
+						case XMLStreamConstants.START_ELEMENT:
+							path.add(xml.getLocalName());
+							text.setLength(0);
+							if (matches(path, "project", "dependencies", "dependency")
+									|| matches(path, "project", "dependencyManagement", "dependencies", "dependency")) {
+								dependency = new Dependency();
+							} else if (dependency != null && matches(path, "*", "exclusions", "exclusion")) {
+								exclusion = new StringBuilder();
+							}
+							break;
+						case XMLStreamConstants.CHARACTERS:
+						case XMLStreamConstants.CDATA:
+							text.append(xml.getText());
+							break;
+						case XMLStreamConstants.END_ELEMENT:
+							String value = text.toString().trim();
+							text.setLength(0);
+							if (exclusion != null) {
+								if (matches(path, "exclusion", "groupId")) {
+									exclusion.insert(0, value);
+								} else if (matches(path, "exclusion", "artifactId")) {
+									exclusion.append(':').append(value);
+								} else if (matches(path, "exclusions", "exclusion")) {
+									dependency.exclusions.add(exclusion.toString());
+									exclusion = null;
+								}
+							} else if (dependency != null) {
+								if (matches(path, "project", "dependencies", "dependency")) {
+									pom.dependencies.add(dependency);
+									dependency = null;
+								} else if (matches(path, "dependencyManagement", "dependencies", "dependency")) {
+									pom.management.add(dependency);
+									dependency = null;
+								} else {
+									setDependencyField(dependency, path.get(path.size() - 1), value);
+								}
+							} else if (path.size() == 2) {
+								setProjectField(pom, path.get(1), value);
+							} else if (matches(path, "project", "parent", "*")) {
+								setParentField(pom, path.get(2), value);
+							} else if (matches(path, "project", "properties", "*")) {
+								pom.properties.put(path.get(2), value);
+							}
+							path.remove(path.size() - 1);
+							break;
+					}
+				}
+			} finally {
+				xml.close();
+			}
+		} catch (XMLStreamException e) {
+			throw new IOException("Invalid POM: " + e.getMessage(), e);
+		}
+		return pom;
+	}
+
+	/**
+	 * Current element path matches given pattern: complete path (if the pattern starts with {@code project}), or its
+	 * suffix ({@code *} matches any single element)
+	 */
+	static private boolean matches(List<String> path, String... pattern) {
+		boolean absolute = pattern[0].equals("project");
+		if (absolute ? path.size() != pattern.length : path.size() < pattern.length) {
+			return false;
+		}
+		int offset = path.size() - pattern.length;
+		for (int i = 0; i < pattern.length; i++) {
+			if (!pattern[i].equals("*") && !pattern[i].equals(path.get(offset + i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	static private void setProjectField(Pom pom, String name, String value) {
+		switch (name) {
+			case "groupId": pom.groupId = value; break;
+			case "artifactId": pom.artifactId = value; break;
+			case "version": pom.version = value; break;
+			case "packaging": pom.packaging = value; break;
+		}
+	}
+
+	static private void setParentField(Pom pom, String name, String value) {
+		switch (name) {
+			case "groupId": pom.parentGroupId = value; break;
+			case "artifactId": pom.parentArtifactId = value; break;
+			case "version": pom.parentVersion = value; break;
+		}
+	}
+
+	static private void setDependencyField(Dependency d, String name, String value) {
+		switch (name) {
+			case "groupId": d.groupId = value; break;
+			case "artifactId": d.artifactId = value; break;
+			case "version": d.version = value; break;
+			case "type": d.type = value; break;
+			case "classifier": d.classifier = value; break;
+			case "scope": d.scope = value; break;
+			case "optional": d.optional = Boolean.parseBoolean(value); break;
+		}
+	}
+
+	///
+
+	void write(DataOutputStream out) throws IOException {
+		writeString(out, groupId);
+		writeString(out, artifactId);
+		writeString(out, version);
+		writeString(out, packaging);
+		writeString(out, parentGroupId);
+		writeString(out, parentArtifactId);
+		writeString(out, parentVersion);
+		out.writeInt(properties.size());
+		for (Map.Entry<String, String> e : properties.entrySet()) {
+			writeString(out, e.getKey());
+			writeString(out, e.getValue());
+		}
+		write(out, management);
+		write(out, dependencies);
+	}
+
+	static Pom read(DataInputStream in) throws IOException {
+		Pom pom = new Pom();
+		pom.groupId = readString(in);
+		pom.artifactId = readString(in);
+		pom.version = readString(in);
+		pom.packaging = readString(in);
+		pom.parentGroupId = readString(in);
+		pom.parentArtifactId = readString(in);
+		pom.parentVersion = readString(in);
+		for (int i = in.readInt(); i > 0; i--) {
+			pom.properties.put(readString(in), readString(in));
+		}
+		read(in, pom.management);
+		read(in, pom.dependencies);
+		return pom;
+	}
+
+	static private void write(DataOutputStream out, List<Dependency> dependencies) throws IOException {
+		out.writeInt(dependencies.size());
+		for (Dependency d : dependencies) {
+			writeString(out, d.groupId);
+			writeString(out, d.artifactId);
+			writeString(out, d.version);
+			writeString(out, d.type);
+			writeString(out, d.classifier);
+			writeString(out, d.scope);
+			out.writeBoolean(d.optional);
+			out.writeInt(d.exclusions.size());
+			for (String s : d.exclusions) {
+				writeString(out, s);
+			}
+		}
+	}
+
+	static private void read(DataInputStream in, List<Dependency> dependencies) throws IOException {
+		for (int i = in.readInt(); i > 0; i--) {
+			Dependency d = new Dependency();
+			d.groupId = readString(in);
+			d.artifactId = readString(in);
+			d.version = readString(in);
+			d.type = readString(in);
+			d.classifier = readString(in);
+			d.scope = readString(in);
+			d.optional = in.readBoolean();
+			for (int j = in.readInt(); j > 0; j--) {
+				d.exclusions.add(readString(in));
+			}
+			dependencies.add(d);
+		}
+	}
+
+	static private void writeString(DataOutputStream out, String s) throws IOException {
+		out.writeBoolean(s != null);
+		if (s != null) {
+			out.writeUTF(s);
+		}
+	}
+
+	static private String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+}
@@ -0,0 +1,486 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.LauncherCfg;
+import io.jrevolt.launcher.LauncherException;
+import io.jrevolt.launcher.util.Log;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves transitive runtime dependencies of an artifact from Maven POMs, for artifacts that do not declare their
+ * dependencies in the manifest ({@link Resolver#MF_DEPENDENCIES}).
+ * <p/>
+ * Each POM is turned into an effective model: parent POMs are followed (properties, dependency management and
+ * dependencies are inherited), dependency management is applied (including imported BOMs), and property references are
+ * interpolated. Dependency graph is then walked breadth-first, applying Maven rules: compile and runtime scopes only,
+ * optional dependencies of dependencies are ignored, exclusions apply to the whole subtree, the root's dependency
+ * management overrides transitive versions, and version conflicts are mediated by "nearest wins" (first declaration
+ * wins on equal depth).
+ * <p/>
+ * The walk is concurrent: as soon as a POM is available, the POMs of its dependencies are requested (each POM only
+ * once), so that the whole graph is fetched in parallel, level by level, while the mediation itself remains
+ * deterministic.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ * @see Pom
+ * @see LauncherCfg#dependencies
+ */
+class PomResolver {
+
+	/**
+	 * Max depth of parent and import chains (protection against cycles)
+	 */
+	static private final int MAX_INHERITANCE_DEPTH = 32;
+
+	static private final Pattern PROPERTY = Pattern.compile("\\$\\{([^}]+)\\}");
+
+	/**
+	 * Node of the dependency graph
+	 */
+	static private class Node {
+		final int depth;
+		final Set<String> exclusions;
+		final Future<Pom> pom;
+
+		Node(int depth, Set<String> exclusions, Future<Pom> pom) {
+			this.depth = depth;
+			this.exclusions = exclusions;
+			this.pom = pom;
+		}
+	}
+
+	private final ResolverContext context;
+
+	/**
+	 * POMs as declared, by {@code groupId:artifactId:version}
+	 */
+	private final Map<String, Future<Pom>> poms = new ConcurrentHashMap<>();
+
+	/**
+	 * Effective POMs, by {@code groupId:artifactId:version}
+	 */
+	private final Map<String, Future<Pom>> effective = new ConcurrentHashMap<>();
+
+	/**
+	 * Dependency management of the root artifact: applies to the whole graph
+	 */
+	private volatile Map<String, Pom.Dependency> management;
+
+	PomResolver(ResolverContext context) {
+		this.context = context;
+	}
+
+	/**
+	 * Transitive runtime dependencies of a given artifact, nearest first
+	 */
+	List<Artifact> resolve(Artifact artifact) {
+		List<Artifact> result = new ArrayList<>();
+		if (artifact.getGroupId() == null) {
+			return result;
+		}
+
+		Pom root = get(effective(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion()));
+		if (root == null) {
+			Log.debug("No POM available for %s, assuming no dependencies", artifact);
+			return result;
+		}
+
+		// breadth-first: nearest wins
+		Set<String> resolved = new HashSet<>();
+		resolved.add(String.format("%s:%s:%s", artifact.getGroupId(), artifact.getArtifactId(),
+											artifact.getClassifier() != null ? artifact.getClassifier() : ""));
+		Queue<Node> queue = new LinkedList<>();
+		queue.add(new Node(0, new HashSet<String>(), null));
+		while (!queue.isEmpty()) {
+			Node node = queue.remove();
+			Pom pom = (node.pom != null) ? get(node.pom) : root;
+			if (pom == null) {
+				continue; // no POM, no dependencies
+			}
+			for (Pom.Dependency d : pom.dependencies) {
+				if (!isIncluded(d, node) || !resolved.add(getConflictKey(d))) {
+					continue;
+				}
+				Pom.Dependency selected = managed(d, node.depth == 0);
+				if (selected.version == null) {
+					Log.warn("Cannot determine version of %s (required by %s)", d, pom);
+					continue;
+				}
+				Artifact a = toArtifact(selected);
+				if (a != null) {
+					result.add(a);
+				}
+				Set<String> exclusions = new HashSet<>(node.exclusions);
+				exclusions.addAll(selected.exclusions);
+				queue.add(new Node(node.depth + 1, exclusions,
+										 effective(selected.groupId, selected.artifactId, selected.version)));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Runtime dependency that applies to a given node
+	 */
+	private boolean isIncluded(Pom.Dependency d, Node node) {
+		String scope = d.getScope();
+		if (!scope.equals("compile") && !scope.equals("runtime")) {
+			return false;
+		}
+		if (d.optional && node.depth > 0) {
+			return false;
+		}
+		for (String exclusion : node.exclusions) {
+			String[] ga = exclusion.split(":", 2);
+			if ((ga[0].equals("*") || ga[0].equals(d.groupId))
+					&& (ga.length < 2 || ga[1].equals("*") || ga[1].equals(d.artifactId))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Version conflicts are mediated per groupId:artifactId:classifier
+	 */
+	private String getConflictKey(Pom.Dependency d) {
+		return String.format("%s:%s:%s", d.groupId, d.artifactId, d.classifier != null ? d.classifier : "");
+	}
+
+	/**
+	 * Applies the root's dependency management to a dependency, and selects a single version if a version range is
+	 * specified. Versions of transitive dependencies are overridden; direct dependencies (declared by the root) keep
+	 * their own version, if any.
+	 *
+	 * @param direct dependency is declared by the root
+	 */
+	private Pom.Dependency managed(Pom.Dependency d, boolean direct) {
+		Map<String, Pom.Dependency> m = management;
+		Pom.Dependency managed = (m != null && !(direct && d.version != null)) ? m.get(d.getKey()) : null;
+		String version = (managed != null && managed.version != null) ? managed.version : d.version;
+		if (version != null && version.matches("[\\[(].*[\\])]")) {
+			String v = select(version);
+			Log.debug("Version range %s of %s:%s resolved as %s", version, d.groupId, d.artifactId, v);
+			version = v;
+		}
+		if (Objects.equals(version, d.version)) {
+			return d;
+		}
+		Pom.Dependency copy = copy(d);
+		copy.version = version;
+		return copy;
+	}
+
+	/**
+	 * Selects a single version of a version range: inclusive bound (lower one preferred). Versions available in the
+	 * repository are not looked up, so that a range without an inclusive bound (e.g. {@code (1.0,)},
+	 * {@code (1.0,2.0)}) cannot be resolved.
+	 *
+	 * @return {@code null} if the range has no inclusive bound
+	 */
+	static String select(String range) {
+		String[] bounds = range.substring(1, range.length() - 1).split(",", -1);
+		String lower = bounds[0].trim();
+		String upper = bounds[bounds.length - 1].trim();
+		if (range.startsWith("[") && !lower.isEmpty()) {
+			return lower;
+		}
+		if (range.endsWith("]") && !upper.isEmpty()) {
+			return upper;
+		}
+		return null;
+	}
+
+	/**
+	 * Classpath artifact of a given dependency, {@code null} if the dependency does not contribute to the classpath
+	 */
+	private Artifact toArtifact(Pom.Dependency d) {
+		String type = d.getType();
+		String classifier = d.classifier;
+		switch (type) {
+			case "jar":
+			case "bundle":
+			case "ejb":
+			case "maven-plugin":
+				type = "jar";
+				break;
+			case "test-jar":
+				type = "jar";
+				classifier = (classifier != null) ? classifier : "tests";
+				break;
+			default:
+				return null; // pom, war, zip, ...: dependencies only
+		}
+		return Artifact.parse(String.format("%s:%s:%s:%s%s",
+														d.groupId, d.artifactId, d.version, type,
+														classifier != null ? ":" + classifier : ""));
+	}
+
+	///
+
+	/**
+	 * Effective POM of a given artifact (asynchronous, requested only once)
+	 */
+	private Future<Pom> effective(final String groupId, final String artifactId, final String version) {
+		String key = String.format("%s:%s:%s", groupId, artifactId, version);
+		return submit(effective, key, new Callable<Pom>() {
+			@Override
+			public Pom call() throws Exception {
+				Pom pom = build(groupId, artifactId, version, 0);
+				if (pom == null) {
+					return null;
+				}
+				boolean root = management == null;
+				if (root) {
+					// first effective POM is the root (dependencies are requested only once it is complete)
+					Map<String, Pom.Dependency> m = new LinkedHashMap<>();
+					for (Pom.Dependency d : pom.management) {
+						m.put(d.getKey(), d);
+					}
+					management = m;
+				}
+				prefetch(pom, root);
+				return pom;
+			}
+		});
+	}
+
+	/**
+	 * Requests POMs of the dependencies in advance
+	 */
+	private void prefetch(Pom pom, boolean root) {
+		for (Pom.Dependency d : pom.dependencies) {
+			String scope = d.getScope();
+			if (!d.optional && (scope.equals("compile") || scope.equals("runtime"))) {
+				Pom.Dependency selected = managed(d, root);
+				if (selected.version != null) {
+					effective(selected.groupId, selected.artifactId, selected.version);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Builds effective POM: inheritance, dependency management and interpolation
+	 *
+	 * @return {@code null} if the POM is not available
+	 */
+	private Pom build(String groupId, String artifactId, String version, int depth) throws IOException {
+		if (depth > MAX_INHERITANCE_DEPTH) {
+			throw new IOException("POM inheritance too deep (cycle?): " + groupId + ":" + artifactId + ":" + version);
+		}
+		Pom declared = get(declared(groupId, artifactId, version));
+		if (declared == null) {
+			return null;
+		}
+
+		Pom parent = declared.hasParent()
+				? build(declared.parentGroupId, declared.parentArtifactId, declared.parentVersion, depth + 1)
+				: null;
+
+		Pom pom = new Pom();
+		pom.groupId = (declared.groupId != null) ? declared.groupId : declared.parentGroupId;
+		pom.artifactId = declared.artifactId;
+		pom.version = (declared.version != null) ? declared.version : declared.parentVersion;
+		pom.packaging = declared.packaging;
+		pom.parentGroupId = declared.parentGroupId;
+		pom.parentArtifactId = declared.parentArtifactId;
+		pom.parentVersion = declared.parentVersion;
+
+		// inheritance: parent first, child overrides
+		if (parent != null) {
+			pom.properties.putAll(parent.properties);
+		}
+		pom.properties.putAll(declared.properties);
+
+		Map<String, Pom.Dependency> management = new LinkedHashMap<>();
+		for (Pom.Dependency d : declared.management) {
+			d = interpolate(d, pom);
+			if (d.getScope().equals("import") && d.getType().equals("pom")) {
+				Pom bom = build(d.groupId, d.artifactId, d.version, depth + 1);
+				if (bom != null) {
+					for (Pom.Dependency imported : bom.management) {
+						if (!management.containsKey(imported.getKey())) {
+							management.put(imported.getKey(), imported);
+						}
+					}
+				}
+				continue;
+			}
+			management.put(d.getKey(), d);
+		}
+		if (parent != null) {
+			for (Pom.Dependency d : parent.management) {
+				if (!management.containsKey(d.getKey())) {
+					management.put(d.getKey(), d);
+				}
+			}
+		}
+		pom.management.addAll(management.values());
+
+		if (parent != null) {
+			pom.dependencies.addAll(parent.dependencies);
+		}
+		for (Pom.Dependency d : declared.dependencies) {
+			d = interpolate(d, pom);
+			Pom.Dependency managed = management.get(d.getKey());
+			if (managed != null) {
+				if (d.version == null) {
+					d.version = managed.version;
+				}
+				if (d.scope == null) {
+					d.scope = managed.scope;
+				}
+				if (d.exclusions.isEmpty()) {
+					d.exclusions.addAll(managed.exclusions);
+				}
+			}
+			pom.dependencies.add(d);
+		}
+
+		return pom;
+	}
+
+	/**
+	 * Interpolated copy of a dependency
+	 */
+	private Pom.Dependency interpolate(Pom.Dependency d, Pom pom) {
+		Pom.Dependency copy = copy(d);
+		copy.groupId = interpolate(d.groupId, pom);
+		copy.artifactId = interpolate(d.artifactId, pom);
+		copy.version = interpolate(d.version, pom);
+		copy.type = interpolate(d.type, pom);
+		copy.classifier = interpolate(d.classifier, pom);
+		copy.scope = interpolate(d.scope, pom);
+		return copy;
+	}
+
+	/**
+	 * Resolves {@code ${property}} references: project coordinates, POM properties and system properties. Unresolved
+	 * references are left as is.
+	 */
+	private String interpolate(String value, Pom pom) {
+		for (int i = 0; value != null && value.contains("${") && i < 10; i++) {
+			Matcher m = PROPERTY.matcher(value);
+			StringBuffer sb = new StringBuffer();
+			while (m.find()) {
+				String resolved = getProperty(m.group(1), pom);
+				m.appendReplacement(sb, Matcher.quoteReplacement(resolved != null ? resolved : m.group()));
+			}
+			m.appendTail(sb);
+			if (sb.toString().equals(value)) {
+				break;
+			}
+			value = sb.toString();
+		}
+		return value;
+	}
+
+	private String getProperty(String name, Pom pom) {
+		switch (name) {
+			case "project.groupId":
+			case "pom.groupId":
+			case "groupId":
+				return pom.groupId;
+			case "project.artifactId":
+			case "pom.artifactId":
+			case "artifactId":
+				return pom.artifactId;
+			case "project.version":
+			case "pom.version":
+			case "version":
+				return pom.version;
+			case "project.parent.groupId":
+				return pom.parentGroupId;
+			case "project.parent.version":
+				return pom.parentVersion;
+		}
+		String value = pom.properties.get(name);
+		return (value != null) ? value : System.getProperty(name);
+	}
+
+	static private Pom.Dependency copy(Pom.Dependency d) {
+		Pom.Dependency copy = new Pom.Dependency();
+		copy.groupId = d.groupId;
+		copy.artifactId = d.artifactId;
+		copy.version = d.version;
+		copy.type = d.type;
+		copy.classifier = d.classifier;
+		copy.scope = d.scope;
+		copy.optional = d.optional;
+		copy.exclusions.addAll(d.exclusions);
+		return copy;
+	}
+
+	///
+
+	/**
+	 * Declared POM of a given artifact (asynchronous, downloaded only once)
+	 */
+	private Future<Pom> declared(final String groupId, final String artifactId, final String version) {
+		String key = String.format("%s:%s:%s", groupId, artifactId, version);
+		return submit(poms, key, new Callable<Pom>() {
+			@Override
+			public Pom call() throws Exception {
+				Artifact pom = Artifact.parse(String.format("%s:%s:%s:pom", groupId, artifactId, version));
+				context.connector.resolve(pom);
+				File f = context.connector.download(pom);
+				if (f == null || !f.exists()) {
+					Log.debug("POM not available: %s (%s)", pom, pom.getStatus());
+					return null;
+				}
+				return Pom.load(f);
+			}
+		});
+	}
+
+	private Future<Pom> submit(Map<String, Future<Pom>> futures, String key, final Callable<Pom> task) {
+		Future<Pom> future = futures.get(key);
+		if (future == null) {
+			synchronized (futures) {
+				future = futures.get(key);
+				if (future == null) {
+					future = context.lookups.submit(task);
+					futures.put(key, future);
+				}
+			}
+		}
+		return future;
+	}
+
+	private Pom get(Future<Pom> future) {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof FileNotFoundException) {
+				return null;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new LauncherException(cause, "Error resolving POM");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LauncherException(e, "Interrupted while resolving POM");
+		}
+	}
+
+}
@@ -1,632 +1,1654 @@
-/*
- * Copyright 2012-2014 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-package io.jrevolt.launcher.mvn;
-
-import io.jrevolt.launcher.LauncherCfg;
-import io.jrevolt.launcher.LauncherException;
-import io.jrevolt.launcher.util.Log;
-import io.jrevolt.launcher.util.StatusLine;
-
-import org.springframework.boot.loader.Launcher;
-
-import org.w3c.dom.Document;
-
-import javax.xml.bind.DatatypeConverter;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.xpath.XPath;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLConnection;
-import java.nio.file.AccessDeniedException;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
-import java.security.MessageDigest;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Scanner;
-import java.util.UUID;
-import java.util.concurrent.Callable;
-
-import static io.jrevolt.launcher.mvn.Artifact.Status.Downloaded;
-import static io.jrevolt.launcher.util.IOHelper.close;
-
-/**
- * @author Patrik Beno
- */
-public class RepositoryConnector {
-
-	static private enum UrlConMethod {HEAD, GET}
-
-	static private final String USER_AGENT = String.format(
-			"JRevolt-Launcher/%s", Launcher.class.getPackage().getImplementationVersion());
-
-	Repository repository;
-
-	RepositoryConnector parent;
-
-	ResolverContext context;
-
-	boolean connectionVerified = LauncherCfg.offline.asBoolean();
-
-	int retries = LauncherCfg.retries.asInt();
-
-	public RepositoryConnector(Repository repository, ResolverContext context, RepositoryConnector parent) {
-		this.repository = repository;
-		this.context = context;
-		this.parent = parent;
-	}
-
-	/**
-	 * If the connection to repository seems invalid, throw an exception
-	 */
-	void verifyConnection() {
-		if (LauncherCfg.offline.asBoolean()) throw new AssertionError("LauncherCfg.offline=true");
-
-		if (connectionVerified) {
-			return;
-		}
-
-		synchronized (this) {
-			if (connectionVerified) {
-				return;
-			}
-
-			// check http:// and https:// repositories: must be able to connect successfully
-			if (repository.getURL().getProtocol().matches("https?")) {
-				URLConnection con = null;
-				StatusLine.push("Verifying connection to %s", repository.getURL().getHost());
-				try {
-					con = urlcon(repository.getURL(), false, UrlConMethod.HEAD, null);
-					con.setConnectTimeout(2500);
-					con.connect();
-					connectionVerified = true;
-				} catch (IOException e) {
-					throw new LauncherException(e, "Invalid or misconfigured repository " + repository.getURL());
-				} finally {
-					close(con);
-					StatusLine.pop();
-				}
-
-				// verify file:// repositories: directory must exist
-			} else if (repository.getURL().getProtocol().equals("file")) {
-				File f = new File(repository.getURL().getPath());
-				connectionVerified = f.exists();
-				if (!f.exists()) {
-					throw new LauncherException("Invalid repository: " + repository.getURL());
-				}
-
-				// unknown / unrecognized protocol
-			} else {
-				Log.debug("Cannot verify protocol %s://. Good luck!", repository.getURL().getProtocol());
-				connectionVerified = true;
-			}
-		}
-	}
-
-	/**
-	 * Attempts to resolve given artifacts: each artifact's remote file is downloaded or updated, verified (if
-	 * required).
-	 *
-	 * @param artifacts
-	 * @throws LauncherException if any of the artifacts is invalid or unavailable, and strict error checking is enabled
-	 * @see LauncherCfg#failOnError
-	 */
-	public void resolveArtifacts(List<Artifact> artifacts) {
-
-		long started = System.currentTimeMillis();
-
-		// sort the artifacts by name; we want to provide a human-readable dependency
-		// report
-		final List<Artifact> sorted = new ArrayList<Artifact>(artifacts);
-		Collections.sort(sorted, Artifact.COMPARATOR);
-
-		for (Artifact ma : sorted) {
-			if (ma.getStatus() == null) {
-				ma.setStatus(Artifact.Status.Resolving);
-			}
-		}
-
-		List<Callable<Artifact>> resolvers = new LinkedList<Callable<Artifact>>();
-		for (final Artifact ma : sorted) {
-			resolvers.add(new Callable<Artifact>() {
-				@Override
-				public Artifact call() throws Exception {
-					resolve(ma);
-					switch (ma.getStatus()) {
-						case NotFound:
-							if (parent != null) {
-								parent.resolve(ma);
-							}
-					}
-					return ma;
-				}
-			});
-		}
-
-	}
-
-	/**
-	 * Resolve single artifact: download or update & verify. Most errors are reported via {@code MvnArtifact.status} and
-	 * described using {@code MvnArtifact.error}. The only exception is generic {@code IOException} which is rethrown as
-	 * {@code MvnLauncherException}
-	 *
-	 * @param artifact
-	 * @return cached artifact's file (also saved in {@code MvnArtifact.file}
-	 * @see LauncherException
-	 * @see Artifact#file
-	 * @see Artifact#error
-	 * @see Artifact.Status
-	 */
-	public File resolve(final Artifact artifact) {
-
-		if (artifact.getFile() != null && artifact.getFile().exists()) {
-			return artifact.getFile();
-		}
-
-		// in case of snapshots, resolve the latest version
-		if (artifact.isSnapshot()) {
-			resolveSnapshotVersion(artifact);
-		}
-
-		URLConnection con = null;
-		try {
-			// target file in cache
-			final File f = new File(context.cache, artifact.getPath());
-			final File fLastUpdated = getLastUpdatedMarkerFile(f);
-			final boolean expired = isExpired(fLastUpdated);
-
-			// in offline mode, artifact is either available or not; we're not doing
-			// anything about it
-			if (LauncherCfg.offline.asBoolean()) {
-				return resource(
-						artifact,
-						f.exists() ? Artifact.Status.Offline : Artifact.Status.NotFound,
-						repository.getURL(), f,
-						f.exists() ? null : new FileNotFoundException(f.getAbsolutePath()));
-			}
-
-			// should we try to update the file?
-			boolean update = LauncherCfg.update.asBoolean()
-					|| (artifact.isSnapshot() && LauncherCfg.updateSnapshots.asBoolean() && expired)
-					|| (artifact.isRelease() && LauncherCfg.updateReleases.asBoolean() && expired);
-			boolean nocache = LauncherCfg.ignoreCache.asBoolean();
-
-			// file is in cache already and update is disabled
-			if (f.exists() && !update && !nocache) {
-				return resource(artifact, Artifact.Status.Cached, repository.getURL(), f, null);
-			}
-
-			// ok, we're going remote...
-
-			// source URL
-			URL url = new URL(repository.getURL(), artifact.getPath());
-			con = urlcon(url, UrlConMethod.HEAD, null);
-			boolean available = isAvailable(con);
-
-			if (!available) {
-				return parent != null
-						? parent.resolve(artifact)
-						: resource(artifact, Artifact.Status.NotFound, url, null, new FileNotFoundException(url.toString()));
-			}
-
-			final long lastModified = con.getLastModified();
-
-			// checking the cache: it the cached file is up to date, use it
-			if (f.exists() && f.lastModified() == lastModified && !nocache) {
-				return resource(artifact, Artifact.Status.NotModified, url, f, null);
-			}
-
-			// cache miss or ignore, proceed to download
-			artifact.size = con.getContentLength();
-
-			// use temp. file, rename after success
-			final File tmp = new File(f.getParentFile(), UUID.randomUUID() + ".tmp");
-
-			artifact.con = con;
-			artifact.tmp = tmp;
-
-			return resource(artifact, Artifact.Status.Downloadable, url, f, null);
-		} catch (IOException e) {
-			// infrastructure failure? just give up
-			throw new LauncherException(e, "Error resolving " + artifact.asString());
-		} finally {
-			close(con);
-		}
-	}
-
-	private boolean isAvailable(URLConnection con) {
-		try {
-			return con != null && con.getLastModified() > 0;
-		} catch (Exception ignore) {
-			return false;
-		}
-	}
-
-	private File getLastUpdatedMarkerFile(File f) {
-		return new File(f.getParentFile(), f.getName() + ".lastUpdated");
-	}
-
-	private void rememberLastUpdateTime(File fLastUpdated, long updateTimestamp) {
-		try {
-			// touch .lastUpdated flag file
-			fLastUpdated.createNewFile();
-			if (fLastUpdated.exists()) {
-				fLastUpdated.setLastModified(updateTimestamp);
-			}
-		} catch (IOException e) {
-			Log.debug(e.toString());
-		}
-	}
-
-	File download(Artifact artifact) throws IOException {
-
-		if (!artifact.getStatus().equals(Artifact.Status.Downloadable)) {
-			return artifact.getFile();
-		}
-
-		if (!context.isDownloadAllowed(artifact)) {
-			return null;
-		}
-
-		URLConnection con = null;
-		try {
-			URL url = artifact.con.getURL();
-			con = urlcon(url, UrlConMethod.GET, null);
-
-			File tmp = artifact.tmp;
-			File f = artifact.getFile();
-
-			// download
-			download(artifact, con, tmp);
-
-			boolean isVerifyEnabled = LauncherCfg.verify.asBoolean() && !url.getProtocol().equals("file");
-
-			// verify the checksum; report the errors if enabled
-			if (isVerifyEnabled && !verify(tmp, url)) {
-				// invalid, drop it & report
-				Files.delete(tmp.toPath());
-				return resource(artifact, Artifact.Status.Invalid, url, null, null);
-			}
-
-			// updated existing or downloaded new?
-			boolean updated = f.exists();
-
-			// save
-			commit(tmp, f, con.getLastModified());
-
-			// done, report result
-			Artifact.Status status = (updated) ? Artifact.Status.Updated : Downloaded;
-			return resource(artifact, status, url, f, null);
-		} finally {
-			close(con);
-		}
-	}
-
-	void download(final Artifact artifact, final URLConnection con, final File file) throws IOException {
-		if (LauncherCfg.offline.asBoolean()) throw new AssertionError("LauncherCfg.offline=true");
-
-		artifact.setStatus(Artifact.Status.Downloading);
-		file.getParentFile().mkdirs();
-		for (int attempt = 1; attempt <= retries && !artifact.getStatus().equals(Downloaded); attempt++) {
-			InputStream in = null;
-			try {
-				artifact.size = con.getContentLength();
-				artifact.setFile(file);
-				in = con.getInputStream();
-				Files.copy(in, file.toPath());
-				artifact.downloaded += file.length();
-				artifact.setStatus(Downloaded);
-				break;
-			} catch (IOException e) {
-				Log.debug("Error (attempt %d/%d): %s", attempt, retries, con.getURL());
-				if (attempt == retries) {
-					throw e;
-				}
-			} finally {
-				close(in);
-				close(con);
-				artifact.requests++;
-			}
-		}
-	}
-
-	void commit(File tmp, File dst, long lastModified) {
-		try {
-			Files.move(tmp.toPath(), dst.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
-			dst.setLastModified(lastModified);
-			File fmarker = getLastUpdatedMarkerFile(dst);
-			fmarker.createNewFile();
-			fmarker.setLastModified(System.currentTimeMillis());
-		} catch (AccessDeniedException e) {
-			// probably locked by other process
-			if (dst.exists() && getFileChecksum(tmp, "SHA1").equals(getFileChecksum(dst, "SHA1"))) {
-				// assume file is already there, just locked
-				Log.warn("Locked? Cannot update %s", dst);
-				tmp.delete();
-			} else {
-				throw new RuntimeException(e);
-			}
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
-	}
-
-	/**
-	 * Populate internal structures of Maven artifact as needed, report status if enabled
-	 *
-	 * @return cached file ready to use (if any)
-	 */
-	File resource(final Artifact artifact, Artifact.Status status, URL source, File file, Throwable error) {
-		artifact.setStatus(status);
-		artifact.setSource(source);
-		artifact.setFile(file);
-		if (error != null && artifact.getError() == null) {
-			artifact.setError(error);
-		}
-
-		switch (status) {
-			case Downloadable:
-				artifact.setRepositoryId(repository.getId());
-				break;
-			case Downloaded:
-			case Updated:
-			case NotModified:
-				artifact.setRepositoryId(repository.getId());
-				rememberLastUpdateTime(getLastUpdatedMarkerFile(file), System.currentTimeMillis());
-				break;
-			case Cached:
-			case Offline:
-				artifact.setRepositoryId("cache");
-			case Invalid:
-			case NotFound:
-				break;
-			default:
-				throw new AssertionError(status);
-		}
-
-		return artifact.getFile();
-	}
-
-	/**
-	 * Resolve timestamped downloadable snapshot version of a given snapshot artifact
-	 */
-	void resolveSnapshotVersion(Artifact artifact) {
-		URLConnection metadata = null;
-		try {
-			// metadata: remote URL and cached local file
-			URL url = new URL(repository.getURL(), artifact.getPath());
-			URL murl = new URL(url, "maven-metadata.xml");
-			File mfile = new File(new File(context.cache, artifact.getPath()).getParentFile(), "maven-metadata.xml");
-			File fLastUpdated = getLastUpdatedMarkerFile(mfile);
-
-			if (LauncherCfg.offline.asBoolean() && !mfile.exists()) {
-				return;
-			}
-
-			final boolean expired = isExpired(fLastUpdated);
-
-			// should we try and update?
-			boolean update = !LauncherCfg.offline.asBoolean() && (
-					LauncherCfg.update.asBoolean()
-					|| (LauncherCfg.updateSnapshots.asBoolean() && expired
-					|| LauncherCfg.ignoreCache.asBoolean()));
-
-			// metadata
-			if (update) {
-				metadata = urlcon(murl, UrlConMethod.GET, mfile.exists() ? mfile.lastModified() : null);
-				metadata.connect();
-			}
-			long lastModified = isAvailable(metadata) ? metadata.getLastModified() : mfile.lastModified();
-			if (update) artifact.requests++;
-
-
-			// is our local copy up to date?
-			boolean recent = mfile.exists() && (mfile.lastModified() >= lastModified || LauncherCfg.offline.asBoolean());
-
-			boolean downloadAllowed = context.isDownloadAllowed(artifact);
-
-			// latest snapshot version from metadata
-			String snapshotVersion;
-
-			if (!recent) {
-				File tmp = new File(mfile.getParentFile(), UUID.randomUUID().toString() + ".tmp");
-				download(artifact, metadata, tmp);
-				snapshotVersion = getSnapshotVersionFromMetadata(tmp);
-				if (downloadAllowed) {
-					commit(tmp, mfile, lastModified);
-				} else {
-					tmp.delete();
-				}
-			} else {
-				snapshotVersion = getSnapshotVersionFromMetadata(mfile);
-			}
-
-			// and set the result
-			artifact.setResolvedSnapshotVersion(artifact.getVersion().replaceFirst("SNAPSHOT$", snapshotVersion));
-
-		} catch (FileNotFoundException e) {
-			// no metadata, artifact probably does not exist
-			artifact.setError(e);
-
-		} catch (IOException e) {
-			// nope, something went wrong
-			throw new LauncherException(e, "Could not resolve snapshot version of " + artifact);
-		} finally {
-			close(metadata);
-		}
-	}
-
-	private boolean isExpired(File f) {
-		final long lastUpdated = f.exists() ? f.lastModified() : 0;
-		final long validUntil = lastUpdated + LauncherCfg.updateInterval.asDuration().toMillis();
-		return validUntil < System.currentTimeMillis();
-	}
-
-	/**
-	 * Extract timestamped snapshot version from downloaded/cached metadata
-	 *
-	 * @param file metadata
-	 * @return timestamped snapshot version
-	 */
-	String getSnapshotVersionFromMetadata(File file) {
-		try {
-			DocumentBuilder db = context.dbf.newDocumentBuilder();
-			Document doc = db.parse(file);
-			XPath xpath = context.xpf.newXPath();
-			String version = String.format("%s-%s",
-													 xpath.evaluate("//versioning/snapshot/timestamp", doc),
-													 xpath.evaluate("//versioning/snapshot/buildNumber", doc));
-			return version;
-		} catch (Exception e) {
-			throw new RuntimeException(e);
-		}
-	}
-
-	/**
-	 * Compute downloaded file checksum and verify computed value against the declared remote value.
-	 *
-	 * @return true if computed checksum matches the declared one, false otherwise
-	 */
-	boolean verify(File f, URL source) {
-
-		String ALG = "SHA1"; // or MD5
-
-		InputStream in = null;
-		URLConnection con = null;
-		try {
-			// construct checksum resoruce URL and open connection
-			URL url = new URL(source.toExternalForm() + "." + ALG.toLowerCase());
-			con = urlcon(url, UrlConMethod.GET, null);
-			in = con.getInputStream();
-
-			// load declared; QDH see
-			// https://weblogs.java.net/blog/pat/archive/2004/10/stupid_scanner_1.html
-			// also, some non-standard SHA1 sums files have ignorable suffixes that need to be stripped, hence
-			// the final regexp (e.g. http://goo.gl/JbfT2P)
-			String declared = new Scanner(in, "ASCII").useDelimiter("\\A").next().trim().replaceFirst("[ \t].*", "");
-			// compute actual
-			String computed = getFileChecksum(f, ALG);
-
-			// compare/validate
-			return declared.equals(computed);
-
-		} catch (IOException e) {
-			// uh-oh
-			throw new LauncherException(e, "Error verifying " + f);
-
-		} finally {
-			// cleanup
-			close(in);
-			close(con);
-		}
-	}
-
-	/**
-	 * Compute checksum of a given file, using given algorithm, and convert it to hex-string
-	 */
-	private String getFileChecksum(File f, String alg) {
-		byte[] bytes = getChecksumBytes(f, alg);
-		StringBuilder sb = new StringBuilder();
-		for (byte b : bytes) {
-			sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
-		}
-		return sb.toString();
-	}
-
-	/**
-	 * Compute checksum of a given file using specified algorithm
-	 *
-	 * @see stackoverflow http://stackoverflow.com/questions/304268/getting-a-files-md5-checksum-in-java
-	 */
-	private byte[] getChecksumBytes(File f, String alg) {
-		InputStream in = null;
-		try {
-			in = new FileInputStream(f);
-
-			byte[] buffer = new byte[1024 * 64];
-			MessageDigest complete = MessageDigest.getInstance(alg);
-			int numRead;
-
-			do {
-				numRead = in.read(buffer);
-				if (numRead > 0) {
-					complete.update(buffer, 0, numRead);
-				}
-			}
-			while (numRead != -1);
-
-			return complete.digest();
-
-		} catch (Exception e) {
-			throw new RuntimeException(e);
-
-		} finally {
-			if (in != null) {
-				try {
-					in.close();
-				} catch (IOException ignore) {
-				}
-			}
-		}
-	}
-
-	private URLConnection urlcon(URL url, UrlConMethod method, Long ifModifiedSince) {
-		if (LauncherCfg.offline.asBoolean()) throw new AssertionError("LauncherCfg.offline=true");
-		return urlcon(url, !connectionVerified, method, ifModifiedSince);
-	}
-
-	private URLConnection urlcon(URL url, boolean verify, UrlConMethod method, Long ifModifiedSince) {
-		if (verify) {
-			verifyConnection();
-		}
-		try {
-			URLConnection con = url.openConnection();
-
-			if (con instanceof HttpURLConnection) {
-				HttpURLConnection hcon = (HttpURLConnection) con;
-				hcon.setRequestProperty("User-Agent", USER_AGENT);
-				hcon.setRequestMethod(method.name());
-				if (ifModifiedSince != null) {
-					hcon.setIfModifiedSince(ifModifiedSince);
-				}
-				// bypass proxy cache (@see #20)
-				if (LauncherCfg.ignoreCache.asBoolean()) {
-					hcon.setRequestProperty("Cache-Control", "no-cache");
-				}
-			}
-
-			// credentials are lazily initialized in #verifyConnection()
-			if (repository != null && repository.hasPassword()) {
-				String auth = String.format("%s:%s", repository.getUserName(), repository.getPassword());
-				con.setRequestProperty(
-						"Authorization", String.format(
-								"Basic %s", DatatypeConverter.printBase64Binary(auth.getBytes("UTF-8"))));
-			}
-			return con;
-		} catch (IOException e) {
-			throw new LauncherException(e, "Error opening connection " + url);
-		}
-	}
-
-
-}
+/*
+ * Copyright 2012-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.LauncherCfg;
+import io.jrevolt.launcher.LauncherException;
+import io.jrevolt.launcher.util.Events;
+import io.jrevolt.launcher.util.Log;
+import io.jrevolt.launcher.util.StatusLine;
+
+import org.springframework.boot.loader.Launcher;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static io.jrevolt.launcher.mvn.Artifact.Status.Downloaded;
+import static io.jrevolt.launcher.util.IOHelper.close;
+
+/**
+ * @author Patrik Beno
+ */
+public class RepositoryConnector {
+
+	static private enum UrlConMethod {HEAD, GET}
+
+	/**
+	 * Checksum algorithm used to verify downloads
+	 */
+	static private final String CHECKSUM = "SHA1"; // or MD5
+
+	static private final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+	static private final Pattern CONTENT_RANGE = Pattern.compile("^bytes (\\d+)-");
+
+	/**
+	 * Upper bound of the delay between download attempts
+	 */
+	static private final long MAX_RETRY_DELAY = 30000;
+
+	/**
+	 * How long a download waits for the declared checksum to look up the content store before the transfer starts
+	 */
+	static private final long STORE_LOOKUP_TIMEOUT = 1000;
+
+	static private final String USER_AGENT = String.format(
+			"JRevolt-Launcher/%s", Launcher.class.getPackage().getImplementationVersion());
+
+	Repository repository;
+
+	RepositoryConnector parent;
+
+	ResolverContext context;
+
+	Transport transport;
+
+	Throttle throttle;
+
+	NegativeCache notFound;
+
+	/**
+	 * Snapshot metadata loaded so far, by repository path
+	 */
+	Map<String, Future<Metadata>> snapshots = new ConcurrentHashMap<>();
+
+	boolean connectionVerified = LauncherCfg.offline.asBoolean();
+
+	int retries = LauncherCfg.retries.asInt();
+
+	public RepositoryConnector(Repository repository, ResolverContext context, RepositoryConnector parent) {
+		this.repository = repository;
+		this.context = context;
+		this.parent = parent;
+		this.transport = Transport.forRepository(repository);
+		this.throttle = Throttle.forRepository(repository);
+		this.notFound = new NegativeCache(context.cache, repository);
+	}
+
+	/**
+	 * If the connection to repository seems invalid, throw an exception
+	 */
+	void verifyConnection() {
+		if (LauncherCfg.offline.asBoolean()) throw new AssertionError("LauncherCfg.offline=true");
+
+		if (connectionVerified) {
+			return;
+		}
+
+		synchronized (this) {
+			if (connectionVerified) {
+				return;
+			}
+
+			// check http:// and https:// repositories: must be able to connect successfully
+			if (repository.getURL().getProtocol().matches("https?")) {
+				URLConnection con = null;
+				StatusLine.push("Verifying connection to %s", repository.getURL().getHost());
+				long[] span = context.metrics.begin("verify " + repository.getId());
+				Events.Event event = Events.begin(Events.Type.RepositoryVerify)
+						.set("repository", repository.getId()).set("url", repository.getURL());
+				try {
+					con = urlcon(repository.getURL(), false, UrlConMethod.HEAD, null);
+					con.setConnectTimeout(2500);
+					con.connect();
+					connectionVerified = true;
+					// complete the exchange so that the connection can be reused
+					getResponseCode(con);
+				} catch (IOException e) {
+					throw new LauncherException(e, "Invalid or misconfigured repository " + repository.getURL());
+				} finally {
+					release(con);
+					context.metrics.end(span);
+					event.commit();
+					StatusLine.pop();
+				}
+
+				// verify file:// repositories: directory must exist
+			} else if (repository.getURL().getProtocol().equals("file")) {
+				File f = new File(repository.getURL().getPath());
+				connectionVerified = f.exists();
+				if (!f.exists()) {
+					throw new LauncherException("Invalid repository: " + repository.getURL());
+				}
+
+				// unknown / unrecognized protocol
+			} else {
+				Log.debug("Cannot verify protocol %s://. Good luck!", repository.getURL().getProtocol());
+				connectionVerified = true;
+			}
+		}
+	}
+
+	/**
+	 * Attempts to resolve given artifacts: each artifact's remote file is downloaded or updated, verified (if
+	 * required).
+	 *
+	 * @param artifacts
+	 * @throws LauncherException if any of the artifacts is invalid or unavailable, and strict error checking is enabled
+	 * @see LauncherCfg#failOnError
+	 */
+	public void resolveArtifacts(List<Artifact> artifacts) {
+
+		long started = System.currentTimeMillis();
+
+		// sort the artifacts by name; we want to provide a human-readable dependency
+		// report
+		final List<Artifact> sorted = new ArrayList<Artifact>(artifacts);
+		Collections.sort(sorted, Artifact.COMPARATOR);
+
+		for (Artifact ma : sorted) {
+			if (ma.getStatus() == null) {
+				ma.setStatus(Artifact.Status.Resolving);
+			}
+		}
+
+		List<Callable<Artifact>> resolvers = new LinkedList<Callable<Artifact>>();
+		for (final Artifact ma : sorted) {
+			resolvers.add(new Callable<Artifact>() {
+				@Override
+				public Artifact call() throws Exception {
+					resolve(ma);
+					switch (ma.getStatus()) {
+						case NotFound:
+							if (parent != null) {
+								parent.resolve(ma);
+							}
+					}
+					return ma;
+				}
+			});
+		}
+
+	}
+
+	/**
+	 * Resolve single artifact: download or update & verify. Most errors are reported via {@code MvnArtifact.status} and
+	 * described using {@code MvnArtifact.error}. The only exception is generic {@code IOException} which is rethrown as
+	 * {@code MvnLauncherException}
+	 *
+	 * @param artifact
+	 * @return cached artifact's file (also saved in {@code MvnArtifact.file}
+	 * @see LauncherException
+	 * @see Artifact#file
+	 * @see Artifact#error
+	 * @see Artifact.Status
+	 */
+	public File resolve(final Artifact artifact) {
+		return resolve(artifact, true);
+	}
+
+	/**
+	 * @param fallback if set, artifacts not found in this repository are resolved using parent repositories
+	 */
+	private File resolve(final Artifact artifact, boolean fallback) {
+
+		if (artifact.getFile() != null && artifact.getFile().exists()) {
+			return artifact.getFile();
+		}
+
+		if (fallback && parent != null && LauncherCfg.parallelLookup.asBoolean() && !LauncherCfg.offline.asBoolean()) {
+			return lookup(artifact);
+		}
+
+		// in case of snapshots, resolve the latest version
+		if (artifact.isSnapshot()) {
+			resolveSnapshotVersion(artifact);
+		}
+
+		try {
+			// target file in cache
+			final File f = new File(context.cache, artifact.getPath());
+			final boolean expired = isExpired(f);
+
+			// in offline mode, artifact is either available or not; we're not doing
+			// anything about it
+			if (LauncherCfg.offline.asBoolean()) {
+				return resource(
+						artifact,
+						f.exists() ? Artifact.Status.Offline : Artifact.Status.NotFound,
+						repository.getURL(), f,
+						f.exists() ? null : new FileNotFoundException(f.getAbsolutePath()));
+			}
+
+			// should we try to update the file?
+			boolean update = LauncherCfg.update.asBoolean()
+					|| (artifact.isSnapshot() && LauncherCfg.updateSnapshots.asBoolean() && expired)
+					|| (artifact.isRelease() && LauncherCfg.updateReleases.asBoolean() && expired);
+			boolean nocache = LauncherCfg.ignoreCache.asBoolean();
+
+			// file is in cache already and update is disabled
+			if (f.exists() && !update && !nocache) {
+				return resource(artifact, Artifact.Status.Cached, repository.getURL(), f, null);
+			}
+
+			// ok, we're going remote...
+
+			// source URL
+			URL url = new URL(repository.getURL(), artifact.getPath());
+
+			// known to be missing here, do not ask again
+			if (notFound.contains(artifact.getPath())) {
+				return notFound(artifact, url, fallback);
+			}
+
+			// cached resource validators
+			Validators cached = (f.exists() && !nocache) ? context.index.getValidators(f) : null;
+
+			return LauncherCfg.conditionalFetch.asBoolean()
+					? fetch(artifact, url, f, cached, fallback)
+					: probe(artifact, url, f, cached, fallback);
+
+		} catch (IOException e) {
+			// infrastructure failure? just give up
+			throw new LauncherException(e, "Error resolving " + artifact.asString());
+		}
+	}
+
+	/**
+	 * Parallel lookup: the artifact is resolved in all repositories concurrently (using independent copies of the
+	 * artifact), and the first hit in the declared repository order is taken. Once the hit is known, lookups in all
+	 * lower-priority repositories are cancelled and their responses discarded. Resolution time is therefore bounded by
+	 * the slowest of the higher-priority misses and the hit, instead of by their sum.
+	 *
+	 * @see LauncherCfg#parallelLookup
+	 */
+	private File lookup(Artifact artifact) {
+		List<Lookup> lookups = new ArrayList<Lookup>();
+		for (RepositoryConnector c = this; c != null; c = c.parent) {
+			lookups.add(new Lookup(c, artifact.copy()));
+		}
+		Lookup selected = null;
+		try {
+			for (Lookup l : lookups) {
+				l.future = context.lookups.submit(l);
+			}
+			for (Lookup l : lookups) {
+				selected = l;
+				if (l.get().getStatus() != Artifact.Status.NotFound) {
+					break;
+				}
+			}
+		} finally {
+			for (Lookup l : lookups) {
+				if (l != selected) {
+					l.discard();
+				}
+				artifact.state.requests.addAndGet(l.artifact.getRequests());
+			}
+		}
+		artifact.assign(selected.artifact);
+		return artifact.getFile();
+	}
+
+	/**
+	 * Single round-trip resolution: conditional GET using validators of the cached file (if any). Unmodified resource
+	 * is reported as such without transferring its content. Otherwise, the open connection is retained, and the content
+	 * is streamed from it in {@link #download(Artifact)}.
+	 */
+	private File fetch(Artifact artifact, URL url, File f, Validators cached, boolean fallback) throws IOException {
+		artifact.state.timings.begin(Metrics.Phase.Get);
+		Events.Event event = request(artifact, url, UrlConMethod.GET);
+		URLConnection con = urlcon(url, UrlConMethod.GET, cached);
+		boolean retained = false;
+		int status = 0;
+		try {
+			status = getResponseCode(con);
+
+			if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+				return notModified(artifact, url, f, cached, Validators.of(con).merge(cached));
+			}
+
+			if (status != HttpURLConnection.HTTP_OK) {
+				if (isMissing(con)) {
+					notFound.add(artifact.getPath());
+				}
+				return notFound(artifact, url, fallback);
+			}
+
+			// server ignored the condition but the resource did not change: skip the content
+			Validators remote = Validators.of(con);
+			if (remote.matches(cached)) {
+				Transport.discard(con.getInputStream());
+				return notModified(artifact, url, f, cached, remote);
+			}
+
+			retained = true;
+			return downloadable(artifact, url, f, con);
+		} finally {
+			// retained connection is accounted for in download
+			if (!retained) {
+				artifact.state.requests.incrementAndGet();
+				release(con);
+			}
+			event.set("status", status).commit();
+			artifact.state.timings.end(Metrics.Phase.Get);
+		}
+	}
+
+	/**
+	 * Legacy two-step resolution: HEAD to check availability and freshness, followed by GET in
+	 * {@link #download(Artifact)}
+	 *
+	 * @see LauncherCfg#conditionalFetch
+	 */
+	private File probe(Artifact artifact, URL url, File f, Validators cached, boolean fallback) throws IOException {
+		artifact.state.timings.begin(Metrics.Phase.Head);
+		Events.Event event = request(artifact, url, UrlConMethod.HEAD);
+		URLConnection con = urlcon(url, UrlConMethod.HEAD, null);
+		try {
+			if (event.isEnabled()) {
+				event.set("status", getResponseCode(con));
+			}
+			if (!isAvailable(con)) {
+				if (isMissing(con)) {
+					notFound.add(artifact.getPath());
+				}
+				return notFound(artifact, url, fallback);
+			}
+
+			// checking the cache: it the cached file is up to date, use it
+			Validators remote = Validators.of(con);
+			if (remote.matches(cached)) {
+				return notModified(artifact, url, f, cached, remote);
+			}
+
+			// cache miss or ignore, proceed to download
+			return downloadable(artifact, url, f, con);
+		} finally {
+			release(con);
+			event.commit();
+			artifact.state.timings.end(Metrics.Phase.Head);
+		}
+	}
+
+	private File notFound(Artifact artifact, URL url, boolean fallback) {
+		return fallback && parent != null
+				? parent.resolve(artifact)
+				: resource(artifact, Artifact.Status.NotFound, url, null, new FileNotFoundException(url.toString()));
+	}
+
+	private File notModified(Artifact artifact, URL url, File f, Validators cached, Validators remote) {
+		if (!remote.equals(cached)) {
+			context.index.update(f, remote);
+		}
+		return resource(artifact, Artifact.Status.NotModified, url, f, null);
+	}
+
+	private File downloadable(Artifact artifact, URL url, File f, URLConnection con) {
+		artifact.state.size = con.getContentLength();
+
+		// use partial file, rename after success
+		artifact.state.tmp = getPartialFile(f);
+		artifact.state.con = con;
+
+		// declared checksum is requested right away: it is needed for the content store lookup before the transfer
+		if (context.store != null) {
+			artifact.state.declared = requestDeclaredChecksum(url);
+		}
+
+		return resource(artifact, Artifact.Status.Downloadable, url, f, null);
+	}
+
+	/**
+	 * HTTP status code, or its equivalent for other protocols ({@code 200} if the resource is available, {@code 404}
+	 * otherwise)
+	 */
+	private int getResponseCode(URLConnection con) {
+		try {
+			if (con instanceof HttpURLConnection) {
+				return ((HttpURLConnection) con).getResponseCode();
+			}
+			return isAvailable(con) ? HttpURLConnection.HTTP_OK : HttpURLConnection.HTTP_NOT_FOUND;
+		} catch (IOException e) {
+			Log.debug("%s: %s", con.getURL(), e);
+			return HttpURLConnection.HTTP_NOT_FOUND;
+		}
+	}
+
+	/**
+	 * Connection can be reused for download if it is an already open GET request (or any non-HTTP connection)
+	 */
+	private boolean isReusable(URLConnection con) {
+		return !(con instanceof HttpURLConnection)
+				|| ((HttpURLConnection) con).getRequestMethod().equals(UrlConMethod.GET.name());
+	}
+
+	/**
+	 * Remote repository confirmed the resource does not exist (as opposed to failing to respond)
+	 */
+	private boolean isMissing(URLConnection con) {
+		try {
+			if (con instanceof HttpURLConnection) {
+				int status = ((HttpURLConnection) con).getResponseCode();
+				return status == HttpURLConnection.HTTP_NOT_FOUND || status == HttpURLConnection.HTTP_GONE;
+			}
+		} catch (IOException ignore) {
+		}
+		return false;
+	}
+
+	private boolean isAvailable(URLConnection con) {
+		try {
+			return con != null && con.getLastModified() > 0;
+		} catch (Exception ignore) {
+			return false;
+		}
+	}
+
+	/**
+	 * Resolution of an artifact copy in a single repository
+	 */
+	static private class Lookup implements Callable<Artifact> {
+
+		final RepositoryConnector connector;
+		final Artifact artifact;
+		Future<Artifact> future;
+		boolean done;
+		boolean discarded;
+
+		Lookup(RepositoryConnector connector, Artifact artifact) {
+			this.connector = connector;
+			this.artifact = artifact;
+		}
+
+		@Override
+		public Artifact call() throws Exception {
+			try {
+				connector.resolve(artifact, false);
+				return artifact;
+			} finally {
+				synchronized (this) {
+					done = true;
+					if (discarded) {
+						abort();
+					}
+				}
+			}
+		}
+
+		Artifact get() {
+			try {
+				return future.get();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new LauncherException(e.getCause(), "Error resolving " + artifact.asString());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new LauncherException(e, "Interrupted while resolving " + artifact.asString());
+			}
+		}
+
+		/**
+		 * Cancel pending request, or release the retained response (if any)
+		 */
+		synchronized void discard() {
+			discarded = true;
+			if (done) {
+				abort();
+			} else if (future != null) {
+				future.cancel(true);
+			}
+		}
+
+		private void abort() {
+			if (artifact.state.con != null) {
+				connector.transport.abort(artifact.state.con);
+				artifact.state.con = null;
+			}
+			if (artifact.state.declared != null) {
+				artifact.state.declared.cancel(true);
+				artifact.state.declared = null;
+			}
+		}
+	}
+
+	/**
+	 * Freshness marker used by older versions
+	 *
+	 * @see CacheIndex
+	 */
+	static File getLastUpdatedMarkerFile(File f) {
+		return new File(f.getParentFile(), f.getName() + ".lastUpdated");
+	}
+
+	private void rememberLastUpdateTime(File f, long updateTimestamp) {
+		context.index.checked(f, updateTimestamp);
+	}
+
+	/**
+	 * Download in progress. Content downloaded so far is kept (along with the validators of the remote resource) if the
+	 * download fails, so that it can be resumed later, possibly by the next launch.
+	 */
+	static File getPartialFile(File f) {
+		return new File(f.getParentFile(), f.getName() + ".part");
+	}
+
+	File download(Artifact artifact) throws IOException {
+
+		if (!artifact.getStatus().equals(Artifact.Status.Downloadable)) {
+			return artifact.getFile();
+		}
+
+		if (!context.isDownloadAllowed(artifact)) {
+			transport.abort(artifact.state.con);
+			if (artifact.state.declared != null) {
+				artifact.state.declared.cancel(true);
+			}
+			return null;
+		}
+
+		URLConnection con = null;
+		Future<String> declared = artifact.state.declared;
+		artifact.state.declared = null;
+		try {
+			URL url = artifact.state.con.getURL();
+			boolean isVerifyEnabled = LauncherCfg.verify.asBoolean() && !url.getProtocol().equals("file");
+			ContentStore store = context.store;
+
+			// declared checksum is fetched while the content is being downloaded (if not requested on resolution)
+			if (declared == null && (isVerifyEnabled || store != null)) {
+				declared = requestDeclaredChecksum(url);
+			}
+
+			// content already available in the store? skip the transfer (the checksum is awaited only briefly, so that
+			// a slow checksum request does not delay the transfer much)
+			File blob = (store != null) ? store.find(getDeclaredChecksum(declared, STORE_LOOKUP_TIMEOUT)) : null;
+
+			// no transfer needed: only a response retained on resolution (if any) is used, and discarded
+			con = (blob != null || isReusable(artifact.state.con))
+					? artifact.state.con
+					: urlcon(url, UrlConMethod.GET, null);
+			Validators validators = Validators.of(con);
+
+			File tmp = artifact.state.tmp;
+			File f = artifact.getFile();
+
+			// partial content left by an interrupted download? resume it if the remote resource did not change
+			if (!isLockable(tmp)) {
+				// being downloaded by another process, do not interfere
+				tmp = artifact.state.tmp = new File(f.getParentFile(), UUID.randomUUID() + ".tmp");
+			} else if (blob == null && tmp.length() > 0) {
+				CacheIndex.Entry partial = context.index.get(tmp);
+				if (partial != null && partial.getValidators().matches(validators)) {
+					Log.debug("Resuming %s (%d bytes available)", url, tmp.length());
+					transport.abort(con);
+					artifact.state.requests.incrementAndGet();
+					con = resume(url, tmp, validators);
+				} else {
+					Files.delete(tmp.toPath());
+					context.index.remove(tmp);
+				}
+			}
+
+			String computed;
+			MessageDigest sha256 = null;
+			artifact.state.timings.begin(Metrics.Phase.Download);
+			if (blob != null) {
+				if (isReusable(con)) {
+					transport.abort(con);
+					artifact.state.requests.incrementAndGet();
+				}
+				con = null;
+				Files.deleteIfExists(tmp.toPath());
+				store.restore(blob, tmp);
+				computed = getDeclaredChecksum(declared);
+				artifact.setStatus(Downloaded);
+				Log.debug("Restored %s from content store (%s)", artifact, computed);
+			} else {
+				// download; checksum is computed on the fly
+				MessageDigest digest = newDigest(CHECKSUM);
+				sha256 = (store != null) ? newDigest("SHA-256") : null;
+				try {
+					if (isSegmentable(con, tmp)) {
+						downloadSegmented(artifact, con, tmp, digest, sha256);
+					} else {
+						download(artifact, con, tmp, digest, sha256);
+					}
+				} catch (IOException e) {
+					// keep partial content for later
+					context.index.update(tmp, validators);
+					throw e;
+				} finally {
+					con = null; // released
+				}
+				computed = toHex(digest.digest());
+			}
+			artifact.state.timings.end(Metrics.Phase.Download);
+			context.index.remove(tmp);
+
+			// verify the checksum; report the errors if enabled
+			artifact.state.timings.begin(Metrics.Phase.Checksum);
+			Events.Event verification = Events.begin(Events.Type.ChecksumVerification);
+			boolean valid = !isVerifyEnabled || verify(computed, declared, url);
+			if (isVerifyEnabled) {
+				verification.set("artifact", artifact).set("url", url).set("valid", valid).commit();
+			}
+			artifact.state.timings.end(Metrics.Phase.Checksum);
+			if (!valid) {
+				// invalid, drop it & report
+				Files.delete(tmp.toPath());
+				return resource(artifact, Artifact.Status.Invalid, url, null, null);
+			}
+
+			// updated existing or downloaded new?
+			boolean updated = f.exists();
+
+			// save
+			artifact.state.timings.begin(Metrics.Phase.Commit);
+			commit(tmp, f, validators, computed);
+			if (sha256 != null) {
+				store.put(f, computed, toHex(sha256.digest()));
+			}
+			artifact.state.timings.end(Metrics.Phase.Commit);
+
+			// done, report result
+			Artifact.Status status = (updated) ? Artifact.Status.Updated : Downloaded;
+			return resource(artifact, status, url, f, null);
+		} finally {
+			release(con);
+			if (declared != null) {
+				declared.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Download remote content into a given file. Failed attempts are retried (up to {@link LauncherCfg#retries}) after
+	 * a randomized exponential backoff ({@link LauncherCfg#retryDelay}), using a fresh connection that resumes the
+	 * transfer at the end of the content received so far, if possible. Given connection is released.
+	 *
+	 * @param con connection to download from; if the file contains partial content, this may be a ranged request
+	 * @param digests updated with the downloaded content
+	 * @see #resume(URL, File, Validators)
+	 */
+	void download(Artifact artifact, URLConnection con, File file, MessageDigest... digests) throws IOException {
+		if (LauncherCfg.offline.asBoolean()) throw new AssertionError("LauncherCfg.offline=true");
+
+		artifact.setStatus(Artifact.Status.Downloading);
+		artifact.setFile(file);
+		file.getParentFile().mkdirs();
+
+		URL url = con.getURL();
+		Validators validators = Validators.of(con);
+
+		for (int attempt = 1; ; attempt++) {
+			InputStream in = null;
+			boolean failed = true;
+			Events.Event event = null;
+			long copied = 0;
+			try {
+				if (con == null) {
+					backoff(attempt - 1);
+					con = resume(url, file, validators);
+				}
+				event = request(artifact, url, UrlConMethod.GET);
+				long offset = getOffset(con, file);
+				if (event.isEnabled()) {
+					event.set("status", getResponseCode(con));
+				}
+				long length = con.getContentLengthLong();
+				artifact.state.size = (length >= 0) ? offset + length : -1;
+				in = con.getInputStream();
+				try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+																	 StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+					lock(out, file);
+					out.truncate(offset);
+					for (MessageDigest digest : digests) {
+						if (digest != null) {
+							digest.reset();
+							update(digest, out, offset);
+							in = new DigestInputStream(in, digest);
+						}
+					}
+					out.position(offset);
+					copied = copy(in, out);
+					artifact.state.downloaded.addAndGet(copied);
+					// connection closed prematurely is not always reported as an error
+					if (length >= 0 && copied < length) {
+						throw new EOFException(String.format("Incomplete content: %d of %d bytes", copied, length));
+					}
+				}
+				artifact.setStatus(Downloaded);
+				failed = false;
+				return;
+			} catch (IOException e) {
+				Log.debug("Error (attempt %d/%d): %s: %s", attempt, retries, url, e);
+				if (attempt >= retries) {
+					throw e;
+				}
+			} finally {
+				close(in);
+				if (failed) {
+					transport.abort(con);
+				} else {
+					release(con);
+				}
+				con = null;
+				artifact.state.requests.incrementAndGet();
+				if (event != null) {
+					event.set("bytes", copied).commit();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Large resources are downloaded in concurrent segments, provided that the server supports ranged requests
+	 * ({@code Accept-Ranges}) and the response carries a validator usable with {@code If-Range} (strong ETag or
+	 * Last-Modified). Otherwise, and for resumed downloads (partial file available), content is downloaded in a
+	 * single stream.
+	 *
+	 * @see LauncherCfg#segmentThreshold
+	 */
+	private boolean isSegmentable(URLConnection con, File file) {
+		long threshold = LauncherCfg.segmentThreshold.asLong();
+		// segments must be conditional (If-Range): all of them have to come from the same version of the content
+		return con instanceof HttpURLConnection
+				&& LauncherCfg.segments.asInt() > 1 && threshold > 0 && file.length() == 0
+				&& getResponseCode(con) == HttpURLConnection.HTTP_OK
+				&& con.getContentLengthLong() >= threshold
+				&& "bytes".equalsIgnoreCase(con.getHeaderField("Accept-Ranges"))
+				&& Validators.of(con).isRangeable();
+	}
+
+	/**
+	 * Download content in {@link LauncherCfg#segments} concurrent ranged requests, each writing its own part of the
+	 * preallocated file. The first segment is read from the given connection (whole content), the remaining content of
+	 * which is discarded. Segments are retried independently, like regular downloads. Checksum is computed once the file
+	 * is complete.
+	 * <p/>
+	 * If the download fails, the file is truncated to the contiguous content received from its start, so that it can be
+	 * resumed by a regular download.
+	 *
+	 * @param con connection to a resource that supports ranged requests
+	 * @param digests updated with the downloaded content
+	 * @see #isSegmentable(URLConnection, File)
+	 */
+	void downloadSegmented(Artifact artifact, URLConnection con, File file, MessageDigest... digests)
+			throws IOException {
+		if (LauncherCfg.offline.asBoolean()) throw new AssertionError("LauncherCfg.offline=true");
+
+		artifact.setStatus(Artifact.Status.Downloading);
+		artifact.setFile(file);
+		file.getParentFile().mkdirs();
+
+		URL url = con.getURL();
+		Validators validators = Validators.of(con);
+		long length = con.getContentLengthLong();
+		long size = (length + LauncherCfg.segments.asInt() - 1) / LauncherCfg.segments.asInt();
+		artifact.state.size = length;
+
+		List<Segment> segments = new ArrayList<>();
+		try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+															StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			lock(ch, file);
+
+			// preallocate
+			ch.truncate(0);
+			ch.write(ByteBuffer.allocate(1), length - 1);
+
+			for (long start = 0; start < length; start += size) {
+				segments.add(new Segment(url, validators, ch, start, Math.min(start + size, length)));
+			}
+			Log.debug("Downloading %s in %d segments", url, segments.size());
+
+			Segment first = segments.get(0);
+			first.con = con;
+			con = null;
+			for (Segment s : segments.subList(1, segments.size())) {
+				s.future = context.lookups.submit(s);
+			}
+
+			// wait for all segments, even if some of them failed (they are writing to the file)
+			Exception error = null;
+			for (Segment s : segments) {
+				try {
+					s.get();
+				} catch (IOException | RuntimeException e) {
+					error = (error != null) ? error : e;
+				}
+				artifact.state.downloaded.addAndGet(s.copied);
+				artifact.state.requests.addAndGet(s.requests);
+			}
+			if (error != null) {
+				ch.truncate(first.position);
+				if (error instanceof IOException) {
+					throw (IOException) error;
+				}
+				throw (RuntimeException) error;
+			}
+
+			// checksum of the assembled content
+			for (MessageDigest digest : digests) {
+				if (digest != null) {
+					digest.reset();
+					update(digest, ch, length);
+				}
+			}
+			artifact.setStatus(Downloaded);
+		} finally {
+			if (con != null) {
+				transport.abort(con);
+			}
+		}
+	}
+
+	/**
+	 * GET request resuming a partial download: only the missing content is requested ({@code Range}), on condition
+	 * that the remote resource did not change in the meantime ({@code If-Range}); otherwise, the server responds with
+	 * the whole content
+	 */
+	private URLConnection resume(URL url, File partial, Validators validators) {
+		URLConnection con = urlcon(url, UrlConMethod.GET, null);
+		if (con instanceof HttpURLConnection && partial.length() > 0) {
+			validators.applyRange((HttpURLConnection) con, partial.length());
+		}
+		return con;
+	}
+
+	/**
+	 * Position in the file at which the response content starts: the file length, for a partial response to the
+	 * {@link #resume(URL, File, Validators) resumed} request; zero, if the response carries the whole content.
+	 */
+	private long getOffset(URLConnection con, File file) throws IOException {
+		if (!(con instanceof HttpURLConnection)) {
+			return 0;
+		}
+		int status = ((HttpURLConnection) con).getResponseCode();
+		if (status == HTTP_RANGE_NOT_SATISFIABLE) {
+			// partial content does not match the remote resource
+			Files.deleteIfExists(file.toPath());
+			throw new IOException(String.format("Cannot resume download of %s: HTTP %d", con.getURL(), status));
+		}
+		if (status != HttpURLConnection.HTTP_PARTIAL) {
+			return 0;
+		}
+		// Content-Range: bytes <first>-<last>/<length>
+		String range = con.getHeaderField("Content-Range");
+		Matcher m = (range != null) ? CONTENT_RANGE.matcher(range) : null;
+		if (m == null || !m.find() || Long.parseLong(m.group(1)) != file.length()) {
+			throw new IOException(String.format("Unexpected Content-Range of %s: %s", con.getURL(), range));
+		}
+		return file.length();
+	}
+
+	/**
+	 * Range of the content downloaded by {@link #downloadSegmented(Artifact, URLConnection, File, MessageDigest...)}
+	 */
+	private class Segment implements Callable<Segment> {
+
+		final URL url;
+		final Validators validators;
+		final FileChannel ch;
+		final long end;
+
+		/**
+		 * Connection to use for the first attempt: whole content response (first segment)
+		 */
+		URLConnection con;
+		Future<Segment> future;
+
+		volatile long position;
+		long copied;
+		int requests;
+
+		Segment(URL url, Validators validators, FileChannel ch, long start, long end) {
+			this.url = url;
+			this.validators = validators;
+			this.ch = ch;
+			this.position = start;
+			this.end = end;
+		}
+
+		@Override
+		public Segment call() throws IOException {
+			for (int attempt = 1; ; attempt++) {
+				InputStream in = null;
+				boolean complete = false;
+				Events.Event event = request(null, url, UrlConMethod.GET);
+				long started = position;
+				try {
+					if (con == null) {
+						if (attempt > 1) {
+							backoff(attempt - 1);
+						}
+						con = urlcon(url, UrlConMethod.GET, null, true);
+						validators.applyRange((HttpURLConnection) con, position, end);
+					} else if (getResponseCode(con) != HttpURLConnection.HTTP_OK) {
+						throw new IOException(String.format("Cannot download %s: HTTP %d", url, getResponseCode(con)));
+					}
+					event.set("status", getResponseCode(con));
+					boolean ranged = getResponseCode(con) == HttpURLConnection.HTTP_PARTIAL;
+					if (ranged && getOffset(con) != position) {
+						throw new IOException(String.format("Unexpected Content-Range of %s: %s",
+																		url, con.getHeaderField("Content-Range")));
+					}
+					if (!ranged && position > 0) {
+						// resource changed since the download started, or server ignored the range
+						throw new IOException(String.format("Cannot download %s: range not supported", url));
+					}
+					in = con.getInputStream();
+					byte[] bytes = new byte[1024 * 64];
+					while (position < end) {
+						int n = in.read(bytes, 0, (int) Math.min(bytes.length, end - position));
+						if (n < 0) {
+							throw new EOFException(String.format("Incomplete content: %s at %d", url, position));
+						}
+						throttle.acquire(n);
+						ByteBuffer buf = ByteBuffer.wrap(bytes, 0, n);
+						while (buf.hasRemaining()) {
+							position += ch.write(buf, position);
+						}
+						copied += n;
+					}
+					// the rest of the whole content response is not needed
+					complete = ranged;
+					return this;
+				} catch (IOException e) {
+					Log.debug("Error (attempt %d/%d): %s: %s", attempt, retries, url, e);
+					if (attempt >= retries) {
+						throw e;
+					}
+				} finally {
+					close(in);
+					if (complete) {
+						release(con);
+					} else {
+						transport.abort(con);
+					}
+					con = null;
+					requests++;
+					event.set("bytes", position - started).commit();
+				}
+			}
+		}
+
+		/**
+		 * Waits for the segment to complete (downloaded in the current thread, if not submitted)
+		 */
+		void get() throws IOException {
+			if (future == null) {
+				call();
+				return;
+			}
+			try {
+				future.get();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				}
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new LauncherException(e.getCause(), "Error downloading " + url);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while downloading " + url);
+			}
+		}
+
+		private long getOffset(URLConnection con) {
+			String range = con.getHeaderField("Content-Range");
+			Matcher m = (range != null) ? CONTENT_RANGE.matcher(range) : null;
+			return (m != null && m.find()) ? Long.parseLong(m.group(1)) : -1;
+		}
+	}
+
+	/**
+	 * Waits before the next attempt: exponentially growing delay (doubled on each attempt), randomized between 50% and
+	 * 100% of its nominal value, so that concurrent downloads do not retry all at once
+	 */
+	private void backoff(int attempt) throws InterruptedIOException {
+		long base = LauncherCfg.retryDelay.asDuration().toMillis();
+		long delay = Math.min(base << Math.min(attempt - 1, 16), MAX_RETRY_DELAY);
+		delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+		try {
+			Thread.sleep(delay);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting to retry download");
+		}
+	}
+
+	/**
+	 * Updates the digest with the first {@code length} bytes of the file (content received by earlier attempts)
+	 */
+	static private void update(MessageDigest digest, FileChannel ch, long length) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(1024 * 64);
+		for (long pos = 0; pos < length; ) {
+			buf.clear();
+			buf.limit((int) Math.min(buf.capacity(), length - pos));
+			int n = ch.read(buf, pos);
+			if (n < 0) {
+				throw new EOFException(String.valueOf(pos));
+			}
+			buf.flip();
+			digest.update(buf);
+			pos += n;
+		}
+	}
+
+	/**
+	 * @return number of bytes copied
+	 */
+	private long copy(InputStream in, FileChannel out) throws IOException {
+		byte[] bytes = new byte[1024 * 64];
+		long total = 0;
+		int n;
+		while ((n = in.read(bytes)) != -1) {
+			throttle.acquire(n);
+			ByteBuffer buf = ByteBuffer.wrap(bytes, 0, n);
+			while (buf.hasRemaining()) {
+				out.write(buf);
+			}
+			total += n;
+		}
+		return total;
+	}
+
+	/**
+	 * Read (small) remote content into memory. Failed attempts are retried like regular downloads, but never resumed.
+	 * Given connection is released.
+	 *
+	 * @see #download(Artifact, URLConnection, File, MessageDigest...)
+	 */
+	private byte[] read(Artifact artifact, URLConnection con) throws IOException {
+		if (LauncherCfg.offline.asBoolean()) throw new AssertionError("LauncherCfg.offline=true");
+
+		URL url = con.getURL();
+
+		for (int attempt = 1; ; attempt++) {
+			boolean failed = true;
+			try {
+				if (con == null) {
+					backoff(attempt - 1);
+					con = urlcon(url, UrlConMethod.GET, null);
+				}
+				long length = con.getContentLengthLong();
+				ByteArrayOutputStream out = new ByteArrayOutputStream(length > 0 ? (int) length : 4096);
+				try (InputStream in = con.getInputStream()) {
+					byte[] bytes = new byte[4096];
+					for (int n; (n = in.read(bytes)) != -1; ) {
+						throttle.acquire(n);
+						out.write(bytes, 0, n);
+					}
+				}
+				artifact.state.downloaded.addAndGet(out.size());
+				// connection closed prematurely is not always reported as an error
+				if (length >= 0 && out.size() < length) {
+					throw new EOFException(String.format("Incomplete content: %d of %d bytes", out.size(), length));
+				}
+				failed = false;
+				return out.toByteArray();
+			} catch (FileNotFoundException e) {
+				throw e; // not worth retrying
+			} catch (IOException e) {
+				Log.debug("Error (attempt %d/%d): %s: %s", attempt, retries, url, e);
+				if (attempt >= retries) {
+					throw e;
+				}
+			} finally {
+				if (failed) {
+					transport.abort(con);
+				} else {
+					release(con);
+				}
+				con = null;
+				artifact.state.requests.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Exclusive lock of a file being downloaded. File locks are held on behalf of the whole JVM: a lock held by another
+	 * thread is reported by an (unchecked) {@link OverlappingFileLockException}, and it is treated the same way as a
+	 * lock held by another process. The lock is held until the channel is closed.
+	 */
+	static private void lock(FileChannel ch, File file) throws IOException {
+		FileLock lock;
+		try {
+			lock = ch.tryLock();
+		} catch (OverlappingFileLockException e) {
+			lock = null;
+		}
+		if (lock == null) {
+			throw new IOException("Locked by another download: " + file);
+		}
+	}
+
+	/**
+	 * File is not being written by another process
+	 */
+	static private boolean isLockable(File f) {
+		if (!f.exists()) {
+			return true;
+		}
+		try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.WRITE); FileLock lock = ch.tryLock()) {
+			return lock != null;
+		} catch (IOException | OverlappingFileLockException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Move downloaded file into place and record it in the cache index
+	 *
+	 * @param checksum SHA1 checksum of the downloaded file, if known
+	 */
+	void commit(File tmp, File dst, Validators validators, String checksum) {
+		try {
+			Files.move(tmp.toPath(), dst.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			// rename is a no-op if both are links to the same file (content store)
+			Files.deleteIfExists(tmp.toPath());
+			// stored files may be links to a blob shared by other cached files: their timestamps are left alone, remote
+			// Last-Modified is recorded in the cache index
+			if (validators.getLastModified() > 0 && context.store == null) {
+				dst.setLastModified(validators.getLastModified());
+			}
+			context.index.committed(dst, validators, checksum, System.currentTimeMillis());
+		} catch (AccessDeniedException e) {
+			// probably locked by other process
+			if (dst.exists() && getFileChecksum(tmp, "SHA1").equals(getFileChecksum(dst, "SHA1"))) {
+				// assume file is already there, just locked
+				Log.warn("Locked? Cannot update %s", dst);
+				tmp.delete();
+			} else {
+				throw new RuntimeException(e);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Populate internal structures of Maven artifact as needed, report status if enabled
+	 *
+	 * @return cached file ready to use (if any)
+	 */
+	File resource(final Artifact artifact, Artifact.Status status, URL source, File file, Throwable error) {
+		artifact.setStatus(status);
+		artifact.setSource(source);
+		artifact.setFile(file);
+		if (error != null && artifact.getError() == null) {
+			artifact.setError(error);
+		}
+
+		switch (status) {
+			case Downloadable:
+				artifact.setRepositoryId(repository.getId());
+				notFound.remove(artifact.getPath());
+				break;
+			case NotModified:
+				notFound.remove(artifact.getPath());
+				rememberLastUpdateTime(file, System.currentTimeMillis());
+				artifact.setRepositoryId(repository.getId());
+				break;
+			case Downloaded:
+			case Updated:
+				// (new content recorded in cache index on commit)
+				artifact.setRepositoryId(repository.getId());
+				break;
+			case Cached:
+			case Offline:
+				artifact.setRepositoryId("cache");
+			case Invalid:
+			case NotFound:
+				break;
+			default:
+				throw new AssertionError(status);
+		}
+
+		return artifact.getFile();
+	}
+
+	/**
+	 * Resolve timestamped downloadable snapshot version of a given snapshot artifact. Metadata is loaded once per
+	 * version directory: artifacts sharing it (jar, pom, classifiers) are resolved from a single fetch.
+	 */
+	void resolveSnapshotVersion(final Artifact artifact) {
+		final String mpath = artifact.getPath().replaceFirst("[^/]*$", "maven-metadata.xml");
+		FutureTask<Metadata> task = new FutureTask<>(new Callable<Metadata>() {
+			@Override
+			public Metadata call() throws Exception {
+				return loadMetadata(artifact, mpath);
+			}
+		});
+		Future<Metadata> future = snapshots.putIfAbsent(mpath, task);
+		artifact.state.timings.begin(Metrics.Phase.Metadata);
+		Events.Event event = Events.begin(Events.Type.SnapshotMetadata);
+		if (future == null) {
+			task.run();
+			future = task;
+		}
+		try {
+			Metadata md = future.get();
+			if (md != null) {
+				artifact.setResolvedSnapshotVersion(md.getSnapshotVersion(artifact));
+			}
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof FileNotFoundException) {
+				// no metadata, artifact probably does not exist
+				artifact.setError(e.getCause());
+			} else if (e.getCause() instanceof LauncherException) {
+				throw (LauncherException) e.getCause();
+			} else {
+				// nope, something went wrong
+				throw new LauncherException(e.getCause(), "Could not resolve snapshot version of " + artifact);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LauncherException(e, "Could not resolve snapshot version of " + artifact);
+		} finally {
+			artifact.state.timings.end(Metrics.Phase.Metadata);
+			event.set("repository", repository.getId()).set("artifact", artifact)
+					.set("version", artifact.getResolvedSnapshotVersion()).commit();
+		}
+	}
+
+	/**
+	 * Load snapshot metadata (cached, or updated from the repository, if needed)
+	 *
+	 * @param mpath repository path of the metadata
+	 * @return metadata, or null if not available (offline)
+	 * @throws FileNotFoundException if the metadata does not exist
+	 */
+	private Metadata loadMetadata(Artifact artifact, String mpath) throws IOException {
+		URLConnection metadata = null;
+		Events.Event request = null;
+		long bytes = 0;
+		try {
+			// metadata: remote URL and cached local file
+			URL murl = new URL(repository.getURL(), mpath);
+			File mfile = new File(context.cache, mpath);
+
+			if (LauncherCfg.offline.asBoolean() && !mfile.exists()) {
+				return null;
+			}
+
+			final boolean expired = isExpired(mfile);
+
+			// should we try and update?
+			boolean update = !LauncherCfg.offline.asBoolean() && (
+					LauncherCfg.update.asBoolean()
+					|| (LauncherCfg.updateSnapshots.asBoolean() && expired
+					|| LauncherCfg.ignoreCache.asBoolean())
+					|| !mfile.exists());
+
+			// metadata known to be missing here: rely on cached copy (if any)
+			if (update && notFound.contains(mpath)) {
+				if (!mfile.exists()) {
+					throw new FileNotFoundException(murl.toString());
+				}
+				update = false;
+			}
+
+			// metadata: conditional GET
+			Validators cached = mfile.exists() ? context.index.getValidators(mfile) : null;
+			Validators remote = null;
+			int status = 0;
+			if (update) {
+				request = request(artifact, murl, UrlConMethod.GET);
+				metadata = urlcon(murl, UrlConMethod.GET, cached);
+				status = getResponseCode(metadata);
+				request.set("status", status);
+				remote = Validators.of(metadata);
+				artifact.state.requests.incrementAndGet();
+				if (isMissing(metadata)) {
+					notFound.add(mpath);
+				} else if (status == HttpURLConnection.HTTP_OK || status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+					notFound.remove(mpath);
+				}
+			}
+
+			boolean notModified = status == HttpURLConnection.HTTP_NOT_MODIFIED
+					|| (status == HttpURLConnection.HTTP_OK && Validators.of(metadata).matches(cached));
+
+			// is our local copy up to date? (unless there's a fresh remote copy, use the cached one)
+			boolean recent = mfile.exists() && (status != HttpURLConnection.HTTP_OK || notModified);
+
+			// confirmed up to date: postpone next check
+			if (recent && notModified) {
+				Validators merged = remote.merge(cached);
+				if (!merged.equals(cached)) {
+					context.index.update(mfile, merged);
+				}
+				rememberLastUpdateTime(mfile, System.currentTimeMillis());
+			}
+
+			boolean downloadAllowed = context.isDownloadAllowed(artifact);
+
+			// fresh remote copy: parsed from the response content, and cached
+			if (!recent) {
+				byte[] content = read(artifact, metadata);
+				metadata = null;
+				bytes = content.length;
+				Metadata md = Metadata.parse(new ByteArrayInputStream(content));
+				if (downloadAllowed) {
+					File tmp = new File(mfile.getParentFile(), UUID.randomUUID().toString() + ".tmp");
+					tmp.getParentFile().mkdirs();
+					Files.write(tmp.toPath(), content);
+					commit(tmp, mfile, remote, null);
+				}
+				return md;
+			}
+
+			try (InputStream in = new BufferedInputStream(new FileInputStream(mfile))) {
+				return Metadata.parse(in);
+			}
+
+		} finally {
+			release(metadata);
+			if (request != null) {
+				request.set("bytes", bytes).commit();
+			}
+		}
+	}
+
+	private boolean isExpired(File f) {
+		final long lastUpdated = context.index.getLastChecked(f);
+		final long validUntil = lastUpdated + LauncherCfg.updateInterval.asDuration().toMillis();
+		return validUntil < System.currentTimeMillis();
+	}
+
+	/**
+	 * Verify computed checksum of the downloaded content against the declared remote value. Resources without a
+	 * declared checksum cannot be verified: this is an error, unless {@link LauncherCfg#allowMissingChecksum} is set.
+	 *
+	 * @return true if computed checksum matches the declared one, false otherwise
+	 */
+	boolean verify(String computed, Future<String> declared, URL source) {
+		try {
+			String expected = declared.get();
+			if (expected == null && !LauncherCfg.allowMissingChecksum.asBoolean()) {
+				throw new LauncherException(String.format(
+						"No %s checksum available, cannot verify %s (see --%s)",
+						CHECKSUM, source, LauncherCfg.allowMissingChecksum.name()));
+			}
+			if (expected == null) {
+				Log.warn("No %s checksum available, cannot verify %s", CHECKSUM, source);
+				return true;
+			}
+			return expected.equalsIgnoreCase(computed);
+		} catch (ExecutionException e) {
+			throw new LauncherException(e.getCause(), "Error verifying " + source);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LauncherException(e, "Error verifying " + source);
+		}
+	}
+
+	/**
+	 * Load checksum declared by remote repository for a given resource.
+	 *
+	 * @return declared checksum, or {@code null} if there is none
+	 */
+	String getDeclaredChecksum(URL source) throws IOException {
+		InputStream in = null;
+		URLConnection con = null;
+		Events.Event event = null;
+		try {
+			// construct checksum resource URL and open connection
+			URL url = new URL(source.toExternalForm() + "." + CHECKSUM.toLowerCase());
+			event = request(null, url, UrlConMethod.GET);
+			con = urlcon(url, UrlConMethod.GET, null, true);
+			in = con.getInputStream();
+			event.set("status", HttpURLConnection.HTTP_OK);
+
+			// load declared; QDH see
+			// https://weblogs.java.net/blog/pat/archive/2004/10/stupid_scanner_1.html
+			// also, some non-standard SHA1 sums files have ignorable suffixes that need to be stripped, hence
+			// the final regexp (e.g. http://goo.gl/JbfT2P)
+			return new Scanner(in, "ASCII").useDelimiter("\\A").next().trim().replaceFirst("[ \t].*", "");
+
+		} catch (FileNotFoundException e) {
+			if (event != null) {
+				event.set("status", HttpURLConnection.HTTP_NOT_FOUND);
+			}
+			return null;
+
+		} finally {
+			// cleanup
+			close(in);
+			release(con);
+			if (event != null) {
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * Requests the declared checksum of a given resource in background
+	 */
+	private Future<String> requestDeclaredChecksum(final URL url) {
+		return context.lookups.submit(new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				return getDeclaredChecksum(url);
+			}
+		});
+	}
+
+	/**
+	 * Declared checksum fetched in background, or {@code null} if it is not available
+	 */
+	private String getDeclaredChecksum(Future<String> declared) {
+		try {
+			return declared.get();
+		} catch (ExecutionException e) {
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	/**
+	 * Declared checksum fetched in background, or {@code null} if it is not available within a given time
+	 */
+	private String getDeclaredChecksum(Future<String> declared, long timeout) {
+		try {
+			return declared.get(timeout, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException | TimeoutException e) {
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	static private MessageDigest newDigest(String alg) {
+		try {
+			return MessageDigest.getInstance(alg);
+		} catch (NoSuchAlgorithmException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	/**
+	 * Compute checksum of a given file, using given algorithm, and convert it to hex-string
+	 */
+	static String getFileChecksum(File f, String alg) {
+		return toHex(getChecksumBytes(f, alg));
+	}
+
+	static private String toHex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder();
+		for (byte b : bytes) {
+			sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Compute checksum of a given file using specified algorithm
+	 *
+	 * @see stackoverflow http://stackoverflow.com/questions/304268/getting-a-files-md5-checksum-in-java
+	 */
+	static private byte[] getChecksumBytes(File f, String alg) {
+		InputStream in = null;
+		try {
+			in = new FileInputStream(f);
+
+			byte[] buffer = new byte[1024 * 64];
+			MessageDigest complete = MessageDigest.getInstance(alg);
+			int numRead;
+
+			do {
+				numRead = in.read(buffer);
+				if (numRead > 0) {
+					complete.update(buffer, 0, numRead);
+				}
+			}
+			while (numRead != -1);
+
+			return complete.digest();
+
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException ignore) {
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the connection to the transport (null-safe, idempotent)
+	 */
+	private void release(URLConnection con) {
+		if (con != null) {
+			transport.release(con);
+		}
+	}
+
+	/**
+	 * Flight Recorder event of a remote request, to be completed by the caller (status, bytes transferred)
+	 *
+	 * @param artifact requested artifact, if any (not set for checksums and content segments)
+	 */
+	private Events.Event request(Artifact artifact, URL url, UrlConMethod method) {
+		return Events.begin(Events.Type.RepositoryRequest)
+				.set("repository", repository.getId()).set("artifact", artifact).set("url", url).set("method", method);
+	}
+
+	private URLConnection urlcon(URL url, UrlConMethod method, Validators validators) {
+		return urlcon(url, method, validators, false);
+	}
+
+	/**
+	 * @param nested request made while the content is being downloaded (see {@link Transport#open(URL, boolean)})
+	 */
+	private URLConnection urlcon(URL url, UrlConMethod method, Validators validators, boolean nested) {
+		if (LauncherCfg.offline.asBoolean()) throw new AssertionError("LauncherCfg.offline=true");
+		return urlcon(url, !connectionVerified, method, validators, nested);
+	}
+
+	private URLConnection urlcon(URL url, boolean verify, UrlConMethod method, Validators validators) {
+		return urlcon(url, verify, method, validators, false);
+	}
+
+	private URLConnection urlcon(URL url, boolean verify, UrlConMethod method, Validators validators,
+										  boolean nested) {
+		if (verify) {
+			verifyConnection();
+		}
+		try {
+			URLConnection con = transport.open(url, nested);
+
+			if (con instanceof HttpURLConnection) {
+				HttpURLConnection hcon = (HttpURLConnection) con;
+				hcon.setRequestProperty("User-Agent", USER_AGENT);
+				hcon.setRequestMethod(method.name());
+				if (validators != null) {
+					validators.apply(hcon);
+				}
+				// bypass proxy cache (@see #20)
+				if (LauncherCfg.ignoreCache.asBoolean()) {
+					hcon.setRequestProperty("Cache-Control", "no-cache");
+				}
+			}
+
+			// credentials are lazily initialized in #verifyConnection()
+			if (repository != null && repository.hasPassword()) {
+				String auth = String.format("%s:%s", repository.getUserName(), repository.getPassword());
+				con.setRequestProperty(
+						"Authorization", String.format(
+								"Basic %s", DatatypeConverter.printBase64Binary(auth.getBytes("UTF-8"))));
+			}
+			return con;
+		} catch (IOException e) {
+			throw new LauncherException(e, "Error opening connection " + url);
+		}
+	}
+
+
+}
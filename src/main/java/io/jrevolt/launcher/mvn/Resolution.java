@@ -0,0 +1,40 @@
+package io.jrevolt.launcher.mvn;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolution state of an {@link Artifact}, separated from its (immutable) {@link Coordinates}. Updated by resolver,
+ * download and lookup threads, and read by the progress monitor: fields are volatile, counters are atomic.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+final class Resolution {
+
+	volatile String resolvedSnapshotVersion; // e.g. 1.0-SNAPSHOT (logical) -> 1.0.20140131.123456 (timestamped)
+
+	volatile Artifact.Status status = Artifact.Status.Undefined;
+
+	volatile URL source; // origin
+
+	volatile String repositoryId;
+
+	volatile File file; // cached
+
+	volatile Throwable error; // resolver error, if any (for reporting purposes)
+
+	volatile URLConnection con; // open connection retained for download
+	volatile File tmp; // partial content
+	volatile Future<String> declared; // declared checksum requested on resolution (content store lookup)
+
+	volatile long size;
+	final AtomicLong downloaded = new AtomicLong();
+	final AtomicInteger requests = new AtomicInteger();
+
+	final Metrics.Timings timings = new Metrics.Timings(); // resolution phases (see LauncherCfg.metrics)
+
+}
@@ -1,153 +1,203 @@
-package io.jrevolt.launcher.mvn;
-
-import io.jrevolt.launcher.LauncherCfg;
-import io.jrevolt.launcher.LauncherException;
-import io.jrevolt.launcher.util.Log;
-import io.jrevolt.launcher.util.StatusLine;
-
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPathFactory;
-import java.io.File;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.TimeUnit;
-
-/**
- * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
- */
-public class ResolverContext implements AutoCloseable {
-
-	public final long created = System.currentTimeMillis();
-
-	File cache = LauncherCfg.cache.asFile();
-
-	Artifact main;
-
-	List<Artifact> artifacts = new LinkedList<Artifact>();
-
-	RepositoryConnector connector;
-
-	ThreadGroup group = new ThreadGroup(getClass().getSimpleName());
-
-	ExecutorService resolvers = Executors.newFixedThreadPool(LauncherCfg.resolvers.asInt(), new ThreadFactory() {
-		int counter;
-
-		@Override
-		public Thread newThread(Runnable r) {
-			return new Thread(group, r, "JRevolt:Launcher:Resolver#" + (++counter));
-		}
-	});
-	ExecutorService downloaders = Executors.newFixedThreadPool(LauncherCfg.downloaders.asInt(), new ThreadFactory() {
-		int counter;
-
-		@Override
-		public Thread newThread(Runnable r) {
-			return new Thread(group, r, "JRevolt:Launcher:Downloader#" + (++counter));
-		}
-	});
-
-	ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
-		@Override
-		public Thread newThread(Runnable r) {
-			return new Thread(group, r, "JRevolt:Launcher:ProgressMonitor");
-		}
-	});
-
-	DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-	XPathFactory xpf = XPathFactory.newInstance();
-
-	public ResolverContext(Artifact main) {
-		this.main = main;
-		this.connector = buildMvnRepositoryConnector();
-
-	}
-
-	public void startProgressMonitor() {
-		StatusLine.push("Resolving dependencies");
-		progress.scheduleAtFixedRate(createProgressMonitor(), 0, 500, TimeUnit.MILLISECONDS);
-	}
-
-	public void stopProgressMonitor() {
-		progress.shutdownNow();
-		StatusLine.pop();
-	}
-
-	RepositoryConnector buildMvnRepositoryConnector() {
-		List<String> ids = LauncherCfg.repositories.asList();
-		Collections.reverse(ids);
-		RepositoryConnector connector = null;
-		for (String id : ids) {
-			Repository repo = Repository.forRepositoryId(id);
-			if (repo == null) {
-				Log.error(null, "Cannot resolve repository: `%s`. Ignoring.", id);
-				continue;
-			}
-			connector = new RepositoryConnector(repo, this, connector);
-		}
-		if (connector == null) {
-			throw new LauncherException("No valid repositories configured");
-		}
-		Log.debug("Using repositories:");
-		for (RepositoryConnector c = connector; c != null; c = c.parent) {
-			String credentials = c.repository.hasPassword() ? c.repository.getUserName() : "<anonymous>";
-			Log.debug("- %12s : %s (%s)", c.repository.getId(), c.repository.getURL(), credentials);
-		}
-		return connector;
-	}
-
-	private Runnable createProgressMonitor() {
-		return new Runnable() {
-			@Override
-			public void run() {
-				try {
-					int completed = 0;
-					long downloaded = 0;
-					long size = 0;
-					for (Artifact ma : artifacts) {
-						switch (ma.getStatus()) {
-							case Undefined:
-							case Resolving:
-								break;
-							case Resolved:
-							case Downloadable:
-							case Downloading:
-								downloaded += ma.getFile().length();
-								size += ma.size;
-								break;
-							default:
-								downloaded += ma.downloaded;
-								size += ma.size;
-								completed++;
-						}
-					}
-					StatusLine.update(
-							"Resolving dependencies %d/%d (%d KB / %d%%) %s",
-							completed, artifacts.size(), downloaded / 1024, size > 0 ? downloaded * 100 / size : 100,
-							LauncherCfg.debug.asBoolean() ? "" : "\033[0m(Use --debug to see more)");
-				} catch (Throwable e) {
-					e.printStackTrace();
-				}
-			}
-		};
-	}
-
-	boolean isDownloadAllowed(Artifact artifact) {
-		if (LauncherCfg.offline.asBoolean()) { return false; }
-		return !LauncherCfg.skipDownload.asBoolean() || artifact.equals(this.main);
-	}
-
-	/**
-	 * Close & release executor
-	 */
-	public void close() {
-		resolvers.shutdownNow();
-		downloaders.shutdownNow();
-		progress.shutdownNow();
-	}
-
-}
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.LauncherCfg;
+import io.jrevolt.launcher.LauncherException;
+import io.jrevolt.launcher.util.Log;
+import io.jrevolt.launcher.util.StatusLine;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class ResolverContext implements AutoCloseable {
+
+	public final long created = System.currentTimeMillis();
+
+	File cache = LauncherCfg.cache.asFile();
+
+	CacheIndex index = CacheIndex.forCache(cache);
+
+	ContentStore store = LauncherCfg.contentStore.asBoolean() ? new ContentStore(new File(cache, ".blobs")) : null;
+
+	Artifact main;
+
+	List<Artifact> artifacts = new LinkedList<Artifact>();
+
+	RepositoryConnector connector;
+
+	ThreadGroup group = new ThreadGroup(getClass().getSimpleName());
+
+	/**
+	 * Executor shared across contexts (if enabled)
+	 *
+	 * @see LauncherCfg#executor
+	 */
+	SharedExecutor shared = SharedExecutor.forCurrentMode();
+
+	ExecutorService resolvers = (shared != null) ? shared : Executors.newFixedThreadPool(
+			LauncherCfg.resolvers.asInt(), new ThreadFactory() {
+				int counter;
+
+				@Override
+				public Thread newThread(Runnable r) {
+					return new Thread(group, r, "JRevolt:Launcher:Resolver#" + (++counter));
+				}
+			});
+
+	DownloadScheduler downloaders = (shared != null) ? new DownloadScheduler(shared) : new DownloadScheduler(
+			LauncherCfg.downloaders.asInt(), new ThreadFactory() {
+				int counter;
+
+				@Override
+				public Thread newThread(Runnable r) {
+					return new Thread(group, r, "JRevolt:Launcher:Downloader#" + (++counter));
+				}
+			});
+
+	ExecutorService lookups = (shared != null) ? shared : Executors.newCachedThreadPool(new ThreadFactory() {
+		int counter;
+
+		@Override
+		public Thread newThread(Runnable r) {
+			return new Thread(group, r, "JRevolt:Launcher:Lookup#" + (++counter));
+		}
+	});
+
+	/**
+	 * @see LauncherCfg#metrics
+	 */
+	public final Metrics metrics = new Metrics();
+
+	ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable r) {
+			return new Thread(group, r, "JRevolt:Launcher:ProgressMonitor");
+		}
+	});
+
+	public ResolverContext(Artifact main) {
+		this.main = main;
+		this.connector = buildMvnRepositoryConnector();
+		if (main != null && LauncherCfg.earlyLaunch.asBoolean()) {
+			downloaders.setUsage(UsageRecord.forArtifact(main));
+		}
+
+	}
+
+	public void startProgressMonitor() {
+		StatusLine.push("Resolving dependencies");
+		progress.scheduleAtFixedRate(createProgressMonitor(), 0, 500, TimeUnit.MILLISECONDS);
+		if (Metrics.isEnabled()) {
+			progress.scheduleAtFixedRate(new Runnable() {
+				@Override
+				public void run() {
+					metrics.sample(ResolverContext.this);
+				}
+			}, 0, 100, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	public void stopProgressMonitor() {
+		progress.shutdownNow();
+		StatusLine.pop();
+	}
+
+	RepositoryConnector buildMvnRepositoryConnector() {
+		List<String> ids = LauncherCfg.repositories.asList();
+		Collections.reverse(ids);
+		RepositoryConnector connector = null;
+		for (String id : ids) {
+			Repository repo = Repository.forRepositoryId(id);
+			if (repo == null) {
+				Log.error(null, "Cannot resolve repository: `%s`. Ignoring.", id);
+				continue;
+			}
+			connector = new RepositoryConnector(repo, this, connector);
+		}
+		if (connector == null) {
+			throw new LauncherException("No valid repositories configured");
+		}
+		Log.debug("Using repositories:");
+		for (RepositoryConnector c = connector; c != null; c = c.parent) {
+			String credentials = c.repository.hasPassword() ? c.repository.getUserName() : "<anonymous>";
+			Log.debug("- %12s : %s (%s)", c.repository.getId(), c.repository.getURL(), credentials);
+		}
+		return connector;
+	}
+
+	private Runnable createProgressMonitor() {
+		return new Runnable() {
+			@Override
+			public void run() {
+				try {
+					int completed = 0;
+					long downloaded = 0;
+					long size = 0;
+					for (Artifact ma : artifacts) {
+						switch (ma.getStatus()) {
+							case Undefined:
+							case Resolving:
+								break;
+							case Resolved:
+							case Downloadable:
+							case Downloading:
+								downloaded += ma.getFile().length();
+								size += ma.getSize();
+								break;
+							default:
+								downloaded += ma.getDownloaded();
+								size += ma.getSize();
+								completed++;
+						}
+					}
+					StatusLine.update(
+							"Resolving dependencies %d/%d (%d KB / %d%%) %s",
+							completed, artifacts.size(), downloaded / 1024, size > 0 ? downloaded * 100 / size : 100,
+							LauncherCfg.debug.asBoolean() ? "" : "\033[0m(Use --debug to see more)");
+				} catch (Throwable e) {
+					e.printStackTrace();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Number of remote requests avoided using the negative cache
+	 *
+	 * @see NegativeCache
+	 */
+	public int getNegativeCacheHits() {
+		int hits = 0;
+		for (RepositoryConnector c = connector; c != null; c = c.parent) {
+			hits += c.notFound.getHits();
+		}
+		return hits;
+	}
+
+	boolean isDownloadAllowed(Artifact artifact) {
+		if (LauncherCfg.offline.asBoolean()) { return false; }
+		// POMs are needed to resolve the dependencies
+		return !LauncherCfg.skipDownload.asBoolean() || artifact.equals(this.main)
+				|| "pom".equals(artifact.getPackaging());
+	}
+
+	/**
+	 * Close & release executor
+	 */
+	public void close() {
+		resolvers.shutdownNow();
+		downloaders.shutdownNow();
+		lookups.shutdownNow();
+		progress.shutdownNow();
+	}
+
+}
@@ -0,0 +1,129 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Class data sharing archive of a forked application (see {@link io.jrevolt.launcher.LauncherCfg#fork}): dynamic
+ * AppCDS archive (Java 13+), or AOT cache (Java 25+), stored in {@code ${cache}/.cds}.
+ * <p/>
+ * Archive is keyed by a fingerprint of the class path (path, size and timestamp of each archive), main class and the
+ * JVM: any change yields a different archive. If no archive is available, the launch is the training run: the JVM
+ * writes the archive when the application exits, and the archive is published once complete (rename), replacing
+ * archives of any previous class paths of the same application.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+class SharedArchive {
+
+	/**
+	 * Returns archive for given application and class path, or {@code null} if class data sharing is not supported by
+	 * the current JVM.
+	 *
+	 * @param name application name (file name prefix), e.g. {@code groupId_artifactId}
+	 * @param dir where archives are stored
+	 */
+	static SharedArchive forClassPath(String name, String mainClass, List<File> files, File dir) {
+		int version = getJavaVersion();
+		if (version < 13) {
+			Log.debug("Class data sharing not supported (Java %d)", version);
+			return null;
+		}
+		boolean aot = version >= 25;
+		String fingerprint = PackageIndex.fingerprint(files, mainClass,
+				System.getProperty("java.home"), System.getProperty("java.vm.version"));
+		String prefix = name.replaceAll("[^\\w.-]", "_") + "-";
+		File file = new File(dir, prefix + fingerprint.substring(0, 16) + (aot ? ".aot" : ".jsa"));
+		return new SharedArchive(file, prefix, aot);
+	}
+
+	static int getJavaVersion() {
+		String v = System.getProperty("java.specification.version");
+		try {
+			return Integer.parseInt(v.startsWith("1.") ? v.substring(2) : v);
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	private final File file;
+	private final File tmp;
+	private final String prefix;
+	private final boolean aot;
+	private final boolean available;
+
+	private SharedArchive(File file, String prefix, boolean aot) {
+		this.file = file;
+		// partial archive: same extension (the JVM may derive related file names from it)
+		String ext = aot ? ".aot" : ".jsa";
+		String base = file.getName().substring(0, file.getName().length() - ext.length());
+		this.tmp = new File(file.getParentFile(), String.format("%s.%s%s", base, UUID.randomUUID(), ext));
+		this.prefix = prefix;
+		this.aot = aot;
+		this.available = file.isFile();
+	}
+
+	File getFile() {
+		return file;
+	}
+
+	/**
+	 * Archive is available; otherwise, this is the training run
+	 */
+	boolean isAvailable() {
+		return available;
+	}
+
+	/**
+	 * JVM options that use the archive, or record it if not available
+	 */
+	List<String> getJvmOptions() {
+		if (available) {
+			Log.debug("Using shared archive %s", file);
+			return Arrays.asList(aot ? "-XX:AOTCache=" + file : "-XX:SharedArchiveFile=" + file);
+		}
+		Log.debug("Recording shared archive %s", file);
+		tmp.getParentFile().mkdirs();
+		return Arrays.asList(aot ? "-XX:AOTCacheOutput=" + tmp : "-XX:ArchiveClassesAtExit=" + tmp);
+	}
+
+	/**
+	 * Publishes the archive recorded by the training run (if any), and removes archives of previous class paths. If
+	 * the archive cannot be published, the failure is only logged: the next launch runs without it and records it
+	 * again.
+	 */
+	void recorded() {
+		if (available) {
+			return;
+		}
+		try {
+			if (!tmp.isFile() || tmp.length() == 0) {
+				Log.debug("Shared archive not recorded: %s", file);
+				return;
+			}
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						  StandardCopyOption.ATOMIC_MOVE);
+			Log.debug("Saved shared archive %s (%d KB)", file, file.length() / 1024);
+			Pattern archives = Pattern.compile(Pattern.quote(prefix) + "\\p{XDigit}{16}\\.(jsa|aot)");
+			File[] obsolete = file.getParentFile().listFiles(
+					(dir, name) -> archives.matcher(name).matches() && !name.equals(file.getName()));
+			for (File f : obsolete != null ? obsolete : new File[0]) {
+				Log.debug("Removing obsolete shared archive %s", f);
+				Files.deleteIfExists(f.toPath());
+			}
+		} catch (IOException e) {
+			Log.debug("Cannot save shared archive %s: %s", file, e);
+		} finally {
+			tmp.delete();
+		}
+	}
+
+}
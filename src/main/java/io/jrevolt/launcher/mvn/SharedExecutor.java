@@ -0,0 +1,211 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.LauncherCfg;
+import io.jrevolt.launcher.util.Log;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor of a single {@link ResolverContext} running each task in its own thread, provided by a JVM-wide executor
+ * shared across contexts (see {@link LauncherCfg#executor}):
+ * <ul>
+ * <li>{@code shared}: cached pool of (daemon) platform threads</li>
+ * <li>{@code virtual}: virtual threads (Java 21+); on older runtimes, falls back to {@code shared}</li>
+ * </ul>
+ * There is no limit on the number of concurrent tasks: concurrency of remote requests is bounded by the per-host
+ * connection limits of the {@link Transport} ({@link LauncherCfg#connectionsPerHost}) instead.
+ * <p/>
+ * Shutting down this executor does not affect the shared one: it rejects new tasks and (if requested) cancels the
+ * pending ones submitted through it.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+class SharedExecutor extends AbstractExecutorService {
+
+	static final String SHARED = "shared";
+	static final String VIRTUAL = "virtual";
+
+	static private ExecutorService threads;
+	static private ExecutorService virtualThreads;
+	static private boolean virtualThreadsChecked;
+
+	/**
+	 * Returns a new context executor for the configured executor mode, or {@code null} if the mode does not use the
+	 * shared executor (per-context thread pools)
+	 */
+	static SharedExecutor forCurrentMode() {
+		String mode = LauncherCfg.executor.asString();
+		if (VIRTUAL.equals(mode)) {
+			ExecutorService executor = getVirtualThreads();
+			return new SharedExecutor(executor != null ? executor : getThreads());
+		}
+		if (SHARED.equals(mode)) {
+			return new SharedExecutor(getThreads());
+		}
+		return null;
+	}
+
+	static synchronized private ExecutorService getThreads() {
+		if (threads == null) {
+			threads = Executors.newCachedThreadPool(new ThreadFactory() {
+				final AtomicInteger counter = new AtomicInteger();
+
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "JRevolt:Launcher:Task#" + counter.incrementAndGet());
+					t.setDaemon(true); // never keep the launched application alive
+					return t;
+				}
+			});
+		}
+		return threads;
+	}
+
+	/**
+	 * Virtual thread per task executor ({@code Executors.newThreadPerTaskExecutor(Thread.ofVirtual().factory())}),
+	 * looked up reflectively, as the launcher targets Java 8
+	 *
+	 * @return {@code null} if virtual threads are not supported by current runtime
+	 */
+	static synchronized private ExecutorService getVirtualThreads() {
+		if (!virtualThreadsChecked) {
+			virtualThreadsChecked = true;
+			try {
+				Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+				Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+				builder = builderClass.getMethod("name", String.class, long.class)
+						.invoke(builder, "JRevolt:Launcher:VirtualTask#", 1L);
+				ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+				virtualThreads = (ExecutorService) Executors.class
+						.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+			} catch (ReflectiveOperationException | LinkageError e) {
+				Log.debug("Virtual threads not supported (Java %s), using `%s` executor",
+							 System.getProperty("java.version"), SHARED);
+			}
+		}
+		return virtualThreads;
+	}
+
+	private final ExecutorService executor;
+
+	private final Set<Future<?>> pending = Collections.newSetFromMap(new ConcurrentHashMap<Future<?>, Boolean>());
+
+	private volatile boolean shutdown;
+
+	/**
+	 * Task submitted through this executor: pending until completed (or cancelled)
+	 */
+	private class Task<T> extends FutureTask<T> {
+
+		Task(Callable<T> callable) {
+			super(callable);
+		}
+
+		Task(Runnable runnable, T value) {
+			super(runnable, value);
+		}
+
+		@Override
+		protected void done() {
+			pending.remove(this);
+		}
+	}
+
+	SharedExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	@Override
+	protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+		return new Task<>(callable);
+	}
+
+	@Override
+	protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+		return new Task<>(runnable, value);
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		if (shutdown) {
+			throw new RejectedExecutionException("Executor has been shut down");
+		}
+		if (command instanceof Task) {
+			pending.add((Task<?>) command);
+		}
+		executor.execute(command);
+	}
+
+	@Override
+	public void shutdown() {
+		shutdown = true;
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		shutdown = true;
+		for (Future<?> f : pending) {
+			f.cancel(true);
+		}
+		pending.clear();
+		return Collections.emptyList();
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return shutdown;
+	}
+
+	@Override
+	public boolean isTerminated() {
+		if (!shutdown) {
+			return false;
+		}
+		for (Future<?> f : pending) {
+			if (!f.isDone()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Number of tasks submitted through this executor and not yet completed (running, or waiting for a thread)
+	 */
+	int getActiveCount() {
+		int active = 0;
+		for (Future<?> f : pending) {
+			if (!f.isDone()) {
+				active++;
+			}
+		}
+		return active;
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (!isTerminated()) {
+			if (System.nanoTime() >= deadline) {
+				return false;
+			}
+			Thread.sleep(10);
+		}
+		return true;
+	}
+
+}
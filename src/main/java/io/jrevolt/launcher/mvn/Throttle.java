@@ -0,0 +1,83 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.LauncherCfg;
+
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bandwidth limit shared by all downloads from a given repository ({@code jrevolt.launcher.repository.$id.bandwidth}),
+ * and by all downloads in general ({@link LauncherCfg#bandwidth}). Token bucket: transferred bytes consume the budget,
+ * which is replenished at the configured rate, allowing bursts of up to one second worth of data. Downloads exceeding
+ * the budget are delayed.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+class Throttle {
+
+	static private final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	static private final Map<String, Throttle> THROTTLES = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the (shared) throttle of a given repository, chained to the global one
+	 */
+	static Throttle forRepository(Repository repository) {
+		final long global = LauncherCfg.bandwidth.asLong() * 1024;
+		final long local = repository.getBandwidth() * 1024;
+		Throttle parent = THROTTLES.computeIfAbsent("*:" + global, k -> new Throttle(global, null));
+		return THROTTLES.computeIfAbsent(
+				String.format("%s:%d:%d", repository.getId(), local, global), k -> new Throttle(local, parent));
+	}
+
+	private final long rate; // bytes per second (0: unlimited)
+	private final Throttle parent;
+
+	private long available;
+	private long updated = System.nanoTime();
+
+	Throttle(long rate, Throttle parent) {
+		this.rate = Math.max(rate, 0);
+		this.parent = parent;
+		this.available = this.rate;
+	}
+
+	/**
+	 * Accounts for a given number of transferred bytes, waiting as needed to keep the transfer rate within the limits
+	 */
+	void acquire(int bytes) throws InterruptedIOException {
+		if (rate > 0) {
+			sleep(reserve(bytes));
+		}
+		if (parent != null) {
+			parent.acquire(bytes);
+		}
+	}
+
+	/**
+	 * @return nanoseconds to wait until the reserved bytes are covered by the budget
+	 */
+	private synchronized long reserve(int bytes) {
+		long now = System.nanoTime();
+		long refill = (long) ((double) (now - updated) * rate / SECOND);
+		available = Math.min(rate, available + refill);
+		updated = now;
+		available -= bytes;
+		return (available < 0) ? -available * SECOND / rate : 0;
+	}
+
+	private void sleep(long nanos) throws InterruptedIOException {
+		if (nanos <= 0) {
+			return;
+		}
+		try {
+			TimeUnit.NANOSECONDS.sleep(nanos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for bandwidth");
+		}
+	}
+
+}
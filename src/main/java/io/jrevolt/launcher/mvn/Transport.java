@@ -0,0 +1,212 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.LauncherCfg;
+import io.jrevolt.launcher.util.IOHelper;
+import io.jrevolt.launcher.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection management strategy used by {@link RepositoryConnector}. Transports are shared per repository (and
+ * across resolver contexts); connection limits are shared per remote host.
+ * <p/>
+ * Supported modes (see {@link LauncherCfg#transport}):
+ * <ul>
+ * <li>{@code pooled} (default): persistent (keep-alive) HTTP connections; responses are consumed and connections are
+ * returned to the JVM-wide keep-alive pool instead of being closed, so that subsequent requests skip TCP and TLS
+ * handshakes. Number of concurrent connections per host is limited by {@link LauncherCfg#connectionsPerHost}, plus
+ * {@link #RESERVED_CONNECTIONS} for nested requests.</li>
+ * <li>{@code simple}: new connection for every request, disconnected after use</li>
+ * </ul>
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+abstract class Transport {
+
+	static private final String POOLED = "pooled";
+	static private final String SIMPLE = "simple";
+
+	/**
+	 * Max time to wait for a free connection slot. Limits are best-effort: they must never block the launcher forever.
+	 */
+	static private final long ACQUIRE_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+	/**
+	 * Max unread response content discarded in order to keep the connection alive
+	 */
+	static private final int MAX_DISCARD = 64 * 1024;
+
+	static private final Map<String, Transport> TRANSPORTS = new ConcurrentHashMap<>();
+
+	static private final Map<String, Semaphore> HOSTS = new ConcurrentHashMap<>();
+
+	/**
+	 * Connections per host reserved for nested requests (see {@link #open(URL, boolean)}), on top of
+	 * {@link LauncherCfg#connectionsPerHost}
+	 */
+	static private final int RESERVED_CONNECTIONS = 1;
+
+	static private final Map<String, Semaphore> RESERVED = new ConcurrentHashMap<>();
+
+	static Transport forRepository(Repository repository) {
+		String mode = LauncherCfg.transport.asString();
+		String key = String.format("%s:%s:%s", mode, repository.getId(), repository.getURL());
+		return TRANSPORTS.computeIfAbsent(key, k -> {
+			if (POOLED.equals(mode)) {
+				return new Pooled();
+			}
+			if (!SIMPLE.equals(mode)) {
+				Log.warn("Unsupported transport: --%s=%s. Using `%s`", LauncherCfg.transport.name(), mode, SIMPLE);
+			}
+			return new Simple();
+		});
+	}
+
+	/**
+	 * Open (but do not connect) a new connection to the given URL
+	 */
+	URLConnection open(URL url) throws IOException {
+		return open(url, false);
+	}
+
+	/**
+	 * Open (but do not connect) a new connection to the given URL
+	 *
+	 * @param nested request made on behalf of another one already holding a connection (e.g. checksum of the
+	 * content being downloaded): it never waits for a regular connection slot, as the slots may all be held by
+	 * connections waiting for its completion. If no regular slot is free, it takes the slot reserved for nested
+	 * requests (see {@link #RESERVED_CONNECTIONS}).
+	 */
+	abstract URLConnection open(URL url, boolean nested) throws IOException;
+
+	/**
+	 * Release the connection once the response has been processed. Unread error response content is discarded.
+	 * Releasing the same connection repeatedly is allowed.
+	 */
+	abstract void release(URLConnection con);
+
+	/**
+	 * Abandon the connection without reading any pending response content: underlying socket is closed and the
+	 * connection is released.
+	 */
+	void abort(URLConnection con) {
+		IOHelper.close(con);
+		release(con);
+	}
+
+	///
+
+	/**
+	 * One connection per request
+	 */
+	static class Simple extends Transport {
+
+		@Override
+		URLConnection open(URL url, boolean nested) throws IOException {
+			return url.openConnection();
+		}
+
+		@Override
+		void release(URLConnection con) {
+			IOHelper.close(con);
+		}
+	}
+
+	/**
+	 * Persistent connections, limited per host
+	 */
+	static class Pooled extends Transport {
+
+		// active connections and their respective host limits
+		private final Map<URLConnection, Semaphore> leases =
+				Collections.synchronizedMap(new IdentityHashMap<URLConnection, Semaphore>());
+
+		@Override
+		URLConnection open(URL url, boolean nested) throws IOException {
+			URLConnection con = url.openConnection();
+			if (con instanceof HttpURLConnection) {
+				Semaphore permits = permits(HOSTS, url, LauncherCfg.connectionsPerHost.asInt());
+				boolean acquired = nested && permits.tryAcquire();
+				if (nested && !acquired) {
+					// regular slots may all be held by connections waiting for this very request: use the reserve,
+					// which is only ever held by nested requests (these complete without waiting for any other)
+					permits = permits(RESERVED, url, RESERVED_CONNECTIONS);
+				}
+				if (acquired || acquire(permits, url)) {
+					leases.put(con, permits);
+				}
+			}
+			return con;
+		}
+
+		@Override
+		void release(URLConnection con) {
+			if (!(con instanceof HttpURLConnection)) {
+				return;
+			}
+			Semaphore permits = leases.remove(con);
+			if (permits == null) {
+				return; // already released or never acquired
+			}
+			try {
+				HttpURLConnection http = (HttpURLConnection) con;
+				// error response body must be consumed, or the connection cannot be reused
+				InputStream err = http.getErrorStream();
+				if (err != null) {
+					discard(err);
+				}
+			} finally {
+				permits.release();
+			}
+		}
+
+		private Semaphore permits(Map<String, Semaphore> hosts, URL url, int limit) {
+			int port = (url.getPort() != -1) ? url.getPort() : url.getDefaultPort();
+			String host = String.format("%s:%d", url.getHost(), port);
+			return hosts.computeIfAbsent(host, k -> new Semaphore(limit, true));
+		}
+
+		private boolean acquire(Semaphore permits, URL url) throws InterruptedIOException {
+			try {
+				if (permits.tryAcquire(ACQUIRE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+					return true;
+				}
+				Log.debug("Connection limit exceeded, proceeding anyway: %s", url);
+				return false;
+			} catch (InterruptedException e) {
+				// request cancelled while waiting (e.g. parallel lookup already found the artifact elsewhere)
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException(url.toString());
+			}
+		}
+	}
+
+	/**
+	 * Read (up to a limit) and close the given response stream. Fully consumed keep-alive streams return their
+	 * connection to the pool on close; the JDK closes the connection if too much content remains unread.
+	 */
+	static void discard(InputStream in) {
+		try {
+			byte[] buf = new byte[4096];
+			int total = 0;
+			for (int n; total < MAX_DISCARD && (n = in.read(buf)) != -1; ) {
+				total += n;
+			}
+		} catch (IOException ignore) {
+		} finally {
+			IOHelper.close(in);
+		}
+	}
+
+}
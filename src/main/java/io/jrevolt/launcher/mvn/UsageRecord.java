@@ -0,0 +1,185 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.LauncherCfg;
+import io.jrevolt.launcher.util.IOHelper;
+import io.jrevolt.launcher.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class path usage of an application recorded on previous runs (see {@link LauncherCfg#earlyLaunch}): for each
+ * artifact (version-less key), the order in which the application first touched it (loaded a class or resource), and
+ * the packages it contains. Touched artifacts are downloaded first; package lists tell which pending archives a lookup
+ * may have to wait for.
+ * <p/>
+ * Stored next to the launch plans ({@code ${cache}/.plans/*.usage}), rewritten when the application exits.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+class UsageRecord {
+
+	static private final String VERSION = "1";
+
+	static private final String P_VERSION = "version";
+	static private final String P_RANK = "%s.rank";
+	static private final String P_PACKAGES = "%s.packages";
+
+	static private final Map<File, UsageRecord> INSTANCES = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the (shared) usage record of a given application
+	 */
+	static UsageRecord forArtifact(Artifact root) {
+		String name = Launcher.getApplicationName(root).replaceAll("[^\\w.-]", "_");
+		return INSTANCES.computeIfAbsent(new File(LaunchPlan.getDirectory(), name + ".usage").getAbsoluteFile(),
+													UsageRecord::new);
+	}
+
+	/**
+	 * Version-less artifact key: {@code groupId:artifactId:packaging[:classifier]}
+	 */
+	static String getKey(Artifact artifact) {
+		if (artifact.getGroupId() == null) {
+			return artifact.getFile() != null ? artifact.getFile().getName() : String.valueOf(artifact);
+		}
+		StringBuilder sb = new StringBuilder()
+				.append(artifact.getGroupId()).append(':')
+				.append(artifact.getArtifactId()).append(':')
+				.append(artifact.getPackaging());
+		if (artifact.getClassifier() != null) {
+			sb.append(':').append(artifact.getClassifier());
+		}
+		return sb.toString();
+	}
+
+	private final File file;
+
+	private volatile Properties props = new Properties();
+
+	UsageRecord(File file) {
+		this.file = file;
+		load();
+	}
+
+	File getFile() {
+		return file;
+	}
+
+	/**
+	 * Order in which the artifact has been first touched on the previous run ({@link Integer#MAX_VALUE} if unknown or
+	 * not touched)
+	 */
+	int getRank(Artifact artifact) {
+		String rank = props.getProperty(String.format(P_RANK, getKey(artifact)));
+		try {
+			return (rank != null) ? Integer.parseInt(rank) : Integer.MAX_VALUE;
+		} catch (NumberFormatException e) {
+			return Integer.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Packages of the artifact as recorded on the previous run, or {@code null} if unknown
+	 */
+	Set<String> getPackages(Artifact artifact) {
+		String packages = props.getProperty(String.format(P_PACKAGES, getKey(artifact)));
+		if (packages == null) {
+			return null;
+		}
+		return packages.isEmpty()
+				? Collections.<String>emptySet()
+				: new HashSet<String>(Arrays.asList(packages.split(",", -1)));
+	}
+
+	/**
+	 * Records usage of an artifact (in memory; see {@link #save()}). Unknown packages keep their previous value.
+	 *
+	 * @param rank order in which the artifact was touched, or {@code 0} if not touched
+	 * @param packages {@code null} if unknown
+	 */
+	synchronized void update(Artifact artifact, int rank, Set<String> packages) {
+		String key = getKey(artifact);
+		Properties props = (Properties) this.props.clone();
+		if (rank > 0) {
+			props.setProperty(String.format(P_RANK, key), Integer.toString(rank));
+		} else {
+			props.remove(String.format(P_RANK, key));
+		}
+		if (packages != null) {
+			StringBuilder sb = new StringBuilder();
+			for (String p : packages) {
+				sb.append(sb.length() > 0 ? "," : "").append(p);
+			}
+			// root package only ("") must not read as no packages
+			props.setProperty(String.format(P_PACKAGES, key),
+									(sb.length() == 0 && !packages.isEmpty()) ? "," : sb.toString());
+		}
+		this.props = props;
+	}
+
+	/**
+	 * Rewrites the record file. A failed save is only logged: the next launch uses the previously saved usage, if any,
+	 * and downloads untouched artifacts in class path order.
+	 */
+	synchronized void save() {
+		File tmp = null;
+		OutputStream out = null;
+		try {
+			Properties props = (Properties) this.props.clone();
+			props.setProperty(P_VERSION, VERSION);
+
+			// write & rename; concurrent launches may be racing for the same record
+			file.getParentFile().mkdirs();
+			tmp = new File(file.getParentFile(), UUID.randomUUID() + ".tmp");
+			out = new FileOutputStream(tmp);
+			props.store(out, "JRevolt Launcher: class path usage");
+			out.close();
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						  StandardCopyOption.ATOMIC_MOVE);
+			Log.debug("Saved usage record %s", file);
+		} catch (IOException e) {
+			Log.debug("Cannot save usage record %s: %s", file, e);
+		} finally {
+			IOHelper.close(out);
+			if (tmp != null) {
+				tmp.delete();
+			}
+		}
+	}
+
+	private void load() {
+		if (!file.exists()) {
+			return;
+		}
+		InputStream in = null;
+		try {
+			in = new FileInputStream(file);
+			Properties props = new Properties();
+			props.load(in);
+			if (VERSION.equals(props.getProperty(P_VERSION))) {
+				this.props = props;
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			// corrupted; will be overwritten
+			Log.debug("Ignoring invalid usage record %s: %s", file, e);
+		} finally {
+			IOHelper.close(in);
+		}
+	}
+
+}
@@ -0,0 +1,186 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.util.IOHelper;
+import io.jrevolt.launcher.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URLConnection;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * HTTP cache validators ({@code ETag}, {@code Last-Modified}) of a cached remote resource. Validators are kept in the
+ * {@link CacheIndex}, and are used to issue conditional requests ({@code If-None-Match}, {@code If-Modified-Since}) and
+ * to decide whether the cached copy is up to date without relying on file system timestamps.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+class Validators {
+
+	static private final String P_ETAG = "etag";
+	static private final String P_LAST_MODIFIED = "lastModified";
+
+	/**
+	 * Loads validators stored in a given {@code .lastUpdated} marker file (maintained by older versions). If there are
+	 * none, falls back to the cached file's timestamp, which is the remote {@code Last-Modified} value applied on commit.
+	 */
+	static Validators load(File marker, File file) {
+		Validators v = new Validators(null, 0);
+		if (marker.exists() && marker.length() > 0) {
+			InputStream in = null;
+			try {
+				in = new FileInputStream(marker);
+				Properties props = new Properties();
+				props.load(in);
+				v.etag = props.getProperty(P_ETAG);
+				v.lastModified = Long.parseLong(props.getProperty(P_LAST_MODIFIED, "0"));
+			} catch (Exception e) {
+				Log.debug("Ignoring invalid marker %s: %s", marker, e);
+			} finally {
+				IOHelper.close(in);
+			}
+		}
+		if (v.isEmpty() && file.exists()) {
+			v.lastModified = file.lastModified();
+		}
+		return v;
+	}
+
+	/**
+	 * Validators of a remote resource as reported by the connection (this may trigger the request)
+	 */
+	static Validators of(URLConnection con) {
+		String etag = (con instanceof HttpURLConnection) ? con.getHeaderField("ETag") : null;
+		return new Validators(etag, con.getLastModified());
+	}
+
+	private String etag;
+	private long lastModified;
+
+	Validators(String etag, long lastModified) {
+		this.etag = etag;
+		this.lastModified = lastModified;
+	}
+
+	String getETag() {
+		return etag;
+	}
+
+	long getLastModified() {
+		return lastModified;
+	}
+
+	boolean isEmpty() {
+		return etag == null && lastModified <= 0;
+	}
+
+	/**
+	 * Strong comparison: ETags, if both are known, otherwise {@code Last-Modified} values
+	 */
+	boolean matches(Validators other) {
+		if (other == null) {
+			return false;
+		}
+		if (etag != null && other.etag != null) {
+			return etag.equals(other.etag);
+		}
+		return lastModified > 0 && lastModified == other.lastModified;
+	}
+
+	/**
+	 * Response to a conditional request may omit validators; keep the known ones
+	 */
+	Validators merge(Validators other) {
+		if (other == null) {
+			return this;
+		}
+		return new Validators(
+				etag != null ? etag : other.etag,
+				lastModified > 0 ? lastModified : other.lastModified);
+	}
+
+	/**
+	 * Make the request conditional
+	 */
+	void apply(HttpURLConnection con) {
+		if (etag != null) {
+			con.setRequestProperty("If-None-Match", etag);
+		}
+		if (lastModified > 0) {
+			con.setIfModifiedSince(lastModified);
+		}
+	}
+
+	/**
+	 * Make the request ask for the content starting at a given offset ({@code Range}), provided that the resource still
+	 * matches these validators ({@code If-Range}). Weak ETags cannot be used for this purpose.
+	 *
+	 * @return false if there is no suitable validator (request left unchanged)
+	 */
+	boolean applyRange(HttpURLConnection con, long offset) {
+		return applyRange(con, offset, -1);
+	}
+
+	/**
+	 * Make the request ask for a given range of the content
+	 *
+	 * @param end end of the range (exclusive), or {@code -1} for the rest of the content
+	 * @see #applyRange(HttpURLConnection, long)
+	 */
+	boolean applyRange(HttpURLConnection con, long offset, long end) {
+		String condition = getRangeCondition();
+		if (condition == null) {
+			return false;
+		}
+		con.setRequestProperty("Range", "bytes=" + offset + "-" + (end > 0 ? Long.toString(end - 1) : ""));
+		con.setRequestProperty("If-Range", condition);
+		return true;
+	}
+
+	/**
+	 * Ranged requests can be made conditional ({@code If-Range}): there is a strong ETag or a modification time
+	 */
+	boolean isRangeable() {
+		return getRangeCondition() != null;
+	}
+
+	private String getRangeCondition() {
+		if (etag != null && !etag.startsWith("W/")) {
+			return etag;
+		} else if (lastModified > 0) {
+			return DateTimeFormatter.RFC_1123_DATE_TIME.format(
+					ZonedDateTime.ofInstant(Instant.ofEpochMilli(lastModified), ZoneOffset.UTC));
+		} else {
+			return null;
+		}
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof Validators)) {
+			return false;
+		}
+		Validators that = (Validators) o;
+		return lastModified == that.lastModified && Objects.equals(etag, that.etag);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(etag, lastModified);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("{etag=%s, lastModified=%tc}", etag, lastModified);
+	}
+}
@@ -1,379 +1,379 @@
-package io.jrevolt.launcher.util;
-
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
-import java.util.Base64;
-
-/**
- * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
- */
-public abstract class Base64Support {
-
-	static private boolean isBase64SupportAvailable;
-
-	private static final int MIMELINEMAX = 76;
-	private static final byte[] CRLF = new byte[]{'\r', '\n'};
-
-	static {
-		try {
-			Class.forName("java.util.Base64");
-			isBase64SupportAvailable = true;
-		} catch (ClassNotFoundException ignore) {
-		}
-	}
-
-	public static IEncoder getMimeEncoder() {
-		return isBase64SupportAvailable ? new Java8Encoder(true) : new EncoderFallback(true);
-	}
-
-	public static IDecoder getMimeDecoder() {
-		return isBase64SupportAvailable ? new Java8Decoder(true) : new DecoderFallback(true);
-	}
-
-	public static IEncoder getEncoder() {
-		return isBase64SupportAvailable ? new Java8Encoder(false) : new EncoderFallback(false);
-	}
-
-	public static IDecoder getDecoder() {
-		return isBase64SupportAvailable ? new Java8Decoder(false) : new DecoderFallback(false);
-	}
-
-	static public interface IEncoder {
-		byte[] encode(byte[] src);
-
-		String encodeToString(byte[] src);
-	}
-
-	static public interface IDecoder {
-		byte[] decode(byte[] src);
-
-		byte[] decode(String src);
-	}
-
-	static private class Java8Encoder implements IEncoder {
-
-		Base64.Encoder delegate;
-
-		public Java8Encoder(boolean isMIME) {
-			delegate = isMIME ? Base64.getMimeEncoder() : Base64.getEncoder();
-		}
-
-		@Override
-		public byte[] encode(byte[] src) {
-			return delegate.encode(src);
-		}
-
-		@Override
-		public String encodeToString(byte[] src) {
-			return delegate.encodeToString(src);
-		}
-	}
-
-	static private class Java8Decoder implements IDecoder {
-
-		Base64.Decoder delegate;
-
-		public Java8Decoder(boolean isMIME) {
-			delegate = isMIME ? Base64.getMimeDecoder() : Base64.getDecoder();
-		}
-
-		@Override
-		public byte[] decode(byte[] src) {
-			return delegate.decode(src);
-		}
-
-		@Override
-		public byte[] decode(String src) {
-			return delegate.decode(src);
-		}
-	}
-
-	/**
-	 * extracted from JDK8
-	 * <p/>
-	 * Copyright (c) 2012, 2013, Oracle and/or its affiliates. All rights reserved. DO NOT ALTER OR REMOVE COPYRIGHT
-	 * NOTICES OR THIS FILE HEADER.
-	 * <p/>
-	 * This code is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
-	 * License version 2 only, as published by the Free Software Foundation.  Oracle designates this particular file as
-	 * subject to the "Classpath" exception as provided by Oracle in the LICENSE file that accompanied this code.
-	 * <p/>
-	 * This code is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
-	 * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License version 2 for
-	 * more details (a copy is included in the LICENSE file that accompanied this code).
-	 * <p/>
-	 * You should have received a copy of the GNU General Public License version 2 along with this work; if not, write to
-	 * the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
-	 * <p/>
-	 * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA or visit www.oracle.com if you need
-	 * additional information or have any questions.
-	 *
-	 * @author Xueming Shen
-	 * @see java.util.Base64
-	 * @see http://hg.openjdk.java.net/jdk8u/jdk8u/jdk/file/tip/src/share/classes/java/util/Base64.java
-	 * @see http://openjdk.java.net/legal/gplv2+ce.html
-	 */
-	public static class EncoderFallback implements IEncoder {
-
-		private final byte[] newline;
-		private final int linemax;
-		private final boolean doPadding = true;
-
-		private EncoderFallback(boolean isMIME) {
-			this.newline = isMIME ? CRLF : null;
-			this.linemax = isMIME ? MIMELINEMAX : -1;
-		}
-
-		private static final char[] toBase64 = {
-				'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J', 'K', 'L', 'M',
-				'N', 'O', 'P', 'Q', 'R', 'S', 'T', 'U', 'V', 'W', 'X', 'Y', 'Z',
-				'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j', 'k', 'l', 'm',
-				'n', 'o', 'p', 'q', 'r', 's', 't', 'u', 'v', 'w', 'x', 'y', 'z',
-				'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '+', '/'
-		};
-
-
-		private int outLength(int srclen) {
-			int len = 0;
-			if (doPadding) {
-				len = 4 * ((srclen + 2) / 3);
-			} else {
-				int n = srclen % 3;
-				len = 4 * (srclen / 3) + (n == 0 ? 0 : n + 1);
-			}
-			if (linemax > 0)                                  // line separators
-			{
-				len += (len - 1) / linemax * newline.length;
-			}
-			return len;
-		}
-
-		public byte[] encode(byte[] src) {
-			int len = outLength(src.length);          // dst array size
-			byte[] dst = new byte[len];
-			int ret = encode0(src, 0, src.length, dst);
-			if (ret != dst.length) {
-				return Arrays.copyOf(dst, ret);
-			}
-			return dst;
-		}
-
-		@SuppressWarnings("deprecation")
-		public String encodeToString(byte[] src) {
-			byte[] encoded = encode(src);
-			return new String(encoded, 0, 0, encoded.length);
-		}
-
-		private int encode0(byte[] src, int off, int end, byte[] dst) {
-			char[] base64 = toBase64;
-			int sp = off;
-			int slen = (end - off) / 3 * 3;
-			int sl = off + slen;
-			if (linemax > 0 && slen > linemax / 4 * 3) {
-				slen = linemax / 4 * 3;
-			}
-			int dp = 0;
-			while (sp < sl) {
-				int sl0 = Math.min(sp + slen, sl);
-				for (int sp0 = sp, dp0 = dp; sp0 < sl0; ) {
-					int bits = (src[sp0++] & 0xff) << 16 |
-							(src[sp0++] & 0xff) << 8 |
-							(src[sp0++] & 0xff);
-					dst[dp0++] = (byte) base64[(bits >>> 18) & 0x3f];
-					dst[dp0++] = (byte) base64[(bits >>> 12) & 0x3f];
-					dst[dp0++] = (byte) base64[(bits >>> 6) & 0x3f];
-					dst[dp0++] = (byte) base64[bits & 0x3f];
-				}
-				int dlen = (sl0 - sp) / 3 * 4;
-				dp += dlen;
-				sp = sl0;
-				if (dlen == linemax && sp < end) {
-					for (byte b : newline) {
-						dst[dp++] = b;
-					}
-				}
-			}
-			if (sp < end) {               // 1 or 2 leftover bytes
-				int b0 = src[sp++] & 0xff;
-				dst[dp++] = (byte) base64[b0 >> 2];
-				if (sp == end) {
-					dst[dp++] = (byte) base64[(b0 << 4) & 0x3f];
-					if (doPadding) {
-						dst[dp++] = '=';
-						dst[dp++] = '=';
-					}
-				} else {
-					int b1 = src[sp++] & 0xff;
-					dst[dp++] = (byte) base64[(b0 << 4) & 0x3f | (b1 >> 4)];
-					dst[dp++] = (byte) base64[(b1 << 2) & 0x3f];
-					if (doPadding) {
-						dst[dp++] = '=';
-					}
-				}
-			}
-			return dp;
-		}
-	}
-
-	/**
-	 * extracted from JDK8
-	 * <p/>
-	 * Copyright (c) 2012, 2013, Oracle and/or its affiliates. All rights reserved. DO NOT ALTER OR REMOVE COPYRIGHT
-	 * NOTICES OR THIS FILE HEADER.
-	 * <p/>
-	 * This code is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
-	 * License version 2 only, as published by the Free Software Foundation.  Oracle designates this particular file as
-	 * subject to the "Classpath" exception as provided by Oracle in the LICENSE file that accompanied this code.
-	 * <p/>
-	 * This code is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
-	 * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License version 2 for
-	 * more details (a copy is included in the LICENSE file that accompanied this code).
-	 * <p/>
-	 * You should have received a copy of the GNU General Public License version 2 along with this work; if not, write to
-	 * the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
-	 * <p/>
-	 * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA or visit www.oracle.com if you need
-	 * additional information or have any questions.
-	 *
-	 * @author Xueming Shen
-	 * @see java.util.Base64
-	 * @see http://hg.openjdk.java.net/jdk8u/jdk8u/jdk/file/tip/src/share/classes/java/util/Base64.java
-	 * @see http://openjdk.java.net/legal/gplv2+ce.html
-	 */
-	public static class DecoderFallback implements IDecoder {
-
-		private final boolean isMIME;
-
-		private DecoderFallback(boolean isMIME) {
-			this.isMIME = isMIME;
-		}
-
-		private static final int[] fromBase64 = new int[256];
-
-		static {
-			Arrays.fill(fromBase64, -1);
-			for (int i = 0; i < EncoderFallback.toBase64.length; i++) {
-				fromBase64[EncoderFallback.toBase64[i]] = i;
-			}
-			fromBase64['='] = -2;
-		}
-
-		public byte[] decode(byte[] src) {
-			byte[] dst = new byte[outLength(src, 0, src.length)];
-			int ret = decode0(src, 0, src.length, dst);
-			if (ret != dst.length) {
-				dst = Arrays.copyOf(dst, ret);
-			}
-			return dst;
-		}
-
-		public byte[] decode(String src) {
-			return decode(src.getBytes(StandardCharsets.ISO_8859_1));
-		}
-
-		private int outLength(byte[] src, int sp, int sl) {
-			int paddings = 0;
-			int len = sl - sp;
-			if (len == 0) {
-				return 0;
-			}
-			if (len < 2) {
-				if (isMIME && fromBase64[0] == -1) {
-					return 0;
-				}
-				throw new IllegalArgumentException(
-						"Input byte[] should at least have 2 bytes for base64 bytes");
-			}
-			if (isMIME) {
-				// scan all bytes to fill out all non-alphabet. a performance
-				// trade-off of pre-scan or Arrays.copyOf
-				int n = 0;
-				while (sp < sl) {
-					int b = src[sp++] & 0xff;
-					if (b == '=') {
-						len -= (sl - sp + 1);
-						break;
-					}
-					if ((b = fromBase64[b]) == -1) {
-						n++;
-					}
-				}
-				len -= n;
-			} else {
-				if (src[sl - 1] == '=') {
-					paddings++;
-					if (src[sl - 2] == '=') {
-						paddings++;
-					}
-				}
-			}
-			if (paddings == 0 && (len & 0x3) != 0) {
-				paddings = 4 - (len & 0x3);
-			}
-			return 3 * ((len + 3) / 4) - paddings;
-		}
-
-		private int decode0(byte[] src, int sp, int sl, byte[] dst) {
-			int dp = 0;
-			int bits = 0;
-			int shiftto = 18;       // pos of first byte of 4-byte atom
-			while (sp < sl) {
-				int b = src[sp++] & 0xff;
-				if ((b = fromBase64[b]) < 0) {
-					if (b == -2) {         // padding byte '='
-						// =     shiftto==18 unnecessary padding
-						// x=    shiftto==12 a dangling single x
-						// x     to be handled together with non-padding case
-						// xx=   shiftto==6&&sp==sl missing last =
-						// xx=y  shiftto==6 last is not =
-						if (shiftto == 6 && (sp == sl || src[sp++] != '=') ||
-								shiftto == 18) {
-							throw new IllegalArgumentException(
-									"Input byte array has wrong 4-byte ending unit");
-						}
-						break;
-					}
-					if (isMIME)    // skip if for rfc2045
-					{
-						continue;
-					} else {
-						throw new IllegalArgumentException(
-								"Illegal base64 character " +
-										Integer.toString(src[sp - 1], 16));
-					}
-				}
-				bits |= (b << shiftto);
-				shiftto -= 6;
-				if (shiftto < 0) {
-					dst[dp++] = (byte) (bits >> 16);
-					dst[dp++] = (byte) (bits >> 8);
-					dst[dp++] = (byte) (bits);
-					shiftto = 18;
-					bits = 0;
-				}
-			}
-			// reached end of byte array or hit padding '=' characters.
-			if (shiftto == 6) {
-				dst[dp++] = (byte) (bits >> 16);
-			} else if (shiftto == 0) {
-				dst[dp++] = (byte) (bits >> 16);
-				dst[dp++] = (byte) (bits >> 8);
-			} else if (shiftto == 12) {
-				// dangling single "x", incorrectly encoded.
-				throw new IllegalArgumentException(
-						"Last unit does not have enough valid bits");
-			}
-			// anything left is invalid, if is not MIME.
-			// if MIME, ignore all non-base64 character
-			while (sp < sl) {
-				if (isMIME && fromBase64[src[sp++]] < 0) {
-					continue;
-				}
-				throw new IllegalArgumentException(
-						"Input byte array has incorrect ending byte at " + sp);
-			}
-			return dp;
-		}
-	}
-
-}
+package io.jrevolt.launcher.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public abstract class Base64Support {
+
+	static private boolean isBase64SupportAvailable;
+
+	private static final int MIMELINEMAX = 76;
+	private static final byte[] CRLF = new byte[]{'\r', '\n'};
+
+	static {
+		try {
+			Class.forName("java.util.Base64");
+			isBase64SupportAvailable = true;
+		} catch (ClassNotFoundException ignore) {
+		}
+	}
+
+	public static IEncoder getMimeEncoder() {
+		return isBase64SupportAvailable ? new Java8Encoder(true) : new EncoderFallback(true);
+	}
+
+	public static IDecoder getMimeDecoder() {
+		return isBase64SupportAvailable ? new Java8Decoder(true) : new DecoderFallback(true);
+	}
+
+	public static IEncoder getEncoder() {
+		return isBase64SupportAvailable ? new Java8Encoder(false) : new EncoderFallback(false);
+	}
+
+	public static IDecoder getDecoder() {
+		return isBase64SupportAvailable ? new Java8Decoder(false) : new DecoderFallback(false);
+	}
+
+	static public interface IEncoder {
+		byte[] encode(byte[] src);
+
+		String encodeToString(byte[] src);
+	}
+
+	static public interface IDecoder {
+		byte[] decode(byte[] src);
+
+		byte[] decode(String src);
+	}
+
+	static private class Java8Encoder implements IEncoder {
+
+		Base64.Encoder delegate;
+
+		public Java8Encoder(boolean isMIME) {
+			delegate = isMIME ? Base64.getMimeEncoder() : Base64.getEncoder();
+		}
+
+		@Override
+		public byte[] encode(byte[] src) {
+			return delegate.encode(src);
+		}
+
+		@Override
+		public String encodeToString(byte[] src) {
+			return delegate.encodeToString(src);
+		}
+	}
+
+	static private class Java8Decoder implements IDecoder {
+
+		Base64.Decoder delegate;
+
+		public Java8Decoder(boolean isMIME) {
+			delegate = isMIME ? Base64.getMimeDecoder() : Base64.getDecoder();
+		}
+
+		@Override
+		public byte[] decode(byte[] src) {
+			return delegate.decode(src);
+		}
+
+		@Override
+		public byte[] decode(String src) {
+			return delegate.decode(src);
+		}
+	}
+
+	/**
+	 * extracted from JDK8
+	 * <p/>
+	 * Copyright (c) 2012, 2013, Oracle and/or its affiliates. All rights reserved. DO NOT ALTER OR REMOVE COPYRIGHT
+	 * NOTICES OR THIS FILE HEADER.
+	 * <p/>
+	 * This code is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
+	 * License version 2 only, as published by the Free Software Foundation.  Oracle designates this particular file as
+	 * subject to the "Classpath" exception as provided by Oracle in the LICENSE file that accompanied this code.
+	 * <p/>
+	 * This code is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+	 * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License version 2 for
+	 * more details (a copy is included in the LICENSE file that accompanied this code).
+	 * <p/>
+	 * You should have received a copy of the GNU General Public License version 2 along with this work; if not, write to
+	 * the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+	 * <p/>
+	 * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA or visit www.oracle.com if you need
+	 * additional information or have any questions.
+	 *
+	 * @author Xueming Shen
+	 * @see java.util.Base64
+	 * @see http://hg.openjdk.java.net/jdk8u/jdk8u/jdk/file/tip/src/share/classes/java/util/Base64.java
+	 * @see http://openjdk.java.net/legal/gplv2+ce.html
+	 */
+	public static class EncoderFallback implements IEncoder {
+
+		private final byte[] newline;
+		private final int linemax;
+		private final boolean doPadding = true;
+
+		private EncoderFallback(boolean isMIME) {
+			this.newline = isMIME ? CRLF : null;
+			this.linemax = isMIME ? MIMELINEMAX : -1;
+		}
+
+		private static final char[] toBase64 = {
+				'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J', 'K', 'L', 'M',
+				'N', 'O', 'P', 'Q', 'R', 'S', 'T', 'U', 'V', 'W', 'X', 'Y', 'Z',
+				'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j', 'k', 'l', 'm',
+				'n', 'o', 'p', 'q', 'r', 's', 't', 'u', 'v', 'w', 'x', 'y', 'z',
+				'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '+', '/'
+		};
+
+
+		private int outLength(int srclen) {
+			int len = 0;
+			if (doPadding) {
+				len = 4 * ((srclen + 2) / 3);
+			} else {
+				int n = srclen % 3;
+				len = 4 * (srclen / 3) + (n == 0 ? 0 : n + 1);
+			}
+			if (linemax > 0)                                  // line separators
+			{
+				len += (len - 1) / linemax * newline.length;
+			}
+			return len;
+		}
+
+		public byte[] encode(byte[] src) {
+			int len = outLength(src.length);          // dst array size
+			byte[] dst = new byte[len];
+			int ret = encode0(src, 0, src.length, dst);
+			if (ret != dst.length) {
+				return Arrays.copyOf(dst, ret);
+			}
+			return dst;
+		}
+
+		@SuppressWarnings("deprecation")
+		public String encodeToString(byte[] src) {
+			byte[] encoded = encode(src);
+			return new String(encoded, 0, 0, encoded.length);
+		}
+
+		private int encode0(byte[] src, int off, int end, byte[] dst) {
+			char[] base64 = toBase64;
+			int sp = off;
+			int slen = (end - off) / 3 * 3;
+			int sl = off + slen;
+			if (linemax > 0 && slen > linemax / 4 * 3) {
+				slen = linemax / 4 * 3;
+			}
+			int dp = 0;
+			while (sp < sl) {
+				int sl0 = Math.min(sp + slen, sl);
+				for (int sp0 = sp, dp0 = dp; sp0 < sl0; ) {
+					int bits = (src[sp0++] & 0xff) << 16 |
+							(src[sp0++] & 0xff) << 8 |
+							(src[sp0++] & 0xff);
+					dst[dp0++] = (byte) base64[(bits >>> 18) & 0x3f];
+					dst[dp0++] = (byte) base64[(bits >>> 12) & 0x3f];
+					dst[dp0++] = (byte) base64[(bits >>> 6) & 0x3f];
+					dst[dp0++] = (byte) base64[bits & 0x3f];
+				}
+				int dlen = (sl0 - sp) / 3 * 4;
+				dp += dlen;
+				sp = sl0;
+				if (dlen == linemax && sp < end) {
+					for (byte b : newline) {
+						dst[dp++] = b;
+					}
+				}
+			}
+			if (sp < end) {               // 1 or 2 leftover bytes
+				int b0 = src[sp++] & 0xff;
+				dst[dp++] = (byte) base64[b0 >> 2];
+				if (sp == end) {
+					dst[dp++] = (byte) base64[(b0 << 4) & 0x3f];
+					if (doPadding) {
+						dst[dp++] = '=';
+						dst[dp++] = '=';
+					}
+				} else {
+					int b1 = src[sp++] & 0xff;
+					dst[dp++] = (byte) base64[(b0 << 4) & 0x3f | (b1 >> 4)];
+					dst[dp++] = (byte) base64[(b1 << 2) & 0x3f];
+					if (doPadding) {
+						dst[dp++] = '=';
+					}
+				}
+			}
+			return dp;
+		}
+	}
+
+	/**
+	 * extracted from JDK8
+	 * <p/>
+	 * Copyright (c) 2012, 2013, Oracle and/or its affiliates. All rights reserved. DO NOT ALTER OR REMOVE COPYRIGHT
+	 * NOTICES OR THIS FILE HEADER.
+	 * <p/>
+	 * This code is free software; you can redistribute it and/or modify it under the terms of the GNU General Public
+	 * License version 2 only, as published by the Free Software Foundation.  Oracle designates this particular file as
+	 * subject to the "Classpath" exception as provided by Oracle in the LICENSE file that accompanied this code.
+	 * <p/>
+	 * This code is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+	 * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License version 2 for
+	 * more details (a copy is included in the LICENSE file that accompanied this code).
+	 * <p/>
+	 * You should have received a copy of the GNU General Public License version 2 along with this work; if not, write to
+	 * the Free Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+	 * <p/>
+	 * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA or visit www.oracle.com if you need
+	 * additional information or have any questions.
+	 *
+	 * @author Xueming Shen
+	 * @see java.util.Base64
+	 * @see http://hg.openjdk.java.net/jdk8u/jdk8u/jdk/file/tip/src/share/classes/java/util/Base64.java
+	 * @see http://openjdk.java.net/legal/gplv2+ce.html
+	 */
+	public static class DecoderFallback implements IDecoder {
+
+		private final boolean isMIME;
+
+		private DecoderFallback(boolean isMIME) {
+			this.isMIME = isMIME;
+		}
+
+		private static final int[] fromBase64 = new int[256];
+
+		static {
+			Arrays.fill(fromBase64, -1);
+			for (int i = 0; i < EncoderFallback.toBase64.length; i++) {
+				fromBase64[EncoderFallback.toBase64[i]] = i;
+			}
+			fromBase64['='] = -2;
+		}
+
+		public byte[] decode(byte[] src) {
+			byte[] dst = new byte[outLength(src, 0, src.length)];
+			int ret = decode0(src, 0, src.length, dst);
+			if (ret != dst.length) {
+				dst = Arrays.copyOf(dst, ret);
+			}
+			return dst;
+		}
+
+		public byte[] decode(String src) {
+			return decode(src.getBytes(StandardCharsets.ISO_8859_1));
+		}
+
+		private int outLength(byte[] src, int sp, int sl) {
+			int paddings = 0;
+			int len = sl - sp;
+			if (len == 0) {
+				return 0;
+			}
+			if (len < 2) {
+				if (isMIME && fromBase64[0] == -1) {
+					return 0;
+				}
+				throw new IllegalArgumentException(
+						"Input byte[] should at least have 2 bytes for base64 bytes");
+			}
+			if (isMIME) {
+				// scan all bytes to fill out all non-alphabet. a performance
+				// trade-off of pre-scan or Arrays.copyOf
+				int n = 0;
+				while (sp < sl) {
+					int b = src[sp++] & 0xff;
+					if (b == '=') {
+						len -= (sl - sp + 1);
+						break;
+					}
+					if ((b = fromBase64[b]) == -1) {
+						n++;
+					}
+				}
+				len -= n;
+			} else {
+				if (src[sl - 1] == '=') {
+					paddings++;
+					if (src[sl - 2] == '=') {
+						paddings++;
+					}
+				}
+			}
+			if (paddings == 0 && (len & 0x3) != 0) {
+				paddings = 4 - (len & 0x3);
+			}
+			return 3 * ((len + 3) / 4) - paddings;
+		}
+
+		private int decode0(byte[] src, int sp, int sl, byte[] dst) {
+			int dp = 0;
+			int bits = 0;
+			int shiftto = 18;       // pos of first byte of 4-byte atom
+			while (sp < sl) {
+				int b = src[sp++] & 0xff;
+				if ((b = fromBase64[b]) < 0) {
+					if (b == -2) {         // padding byte '='
+						// =     shiftto==18 unnecessary padding
+						// x=    shiftto==12 a dangling single x
+						// x     to be handled together with non-padding case
+						// xx=   shiftto==6&&sp==sl missing last =
+						// xx=y  shiftto==6 last is not =
+						if (shiftto == 6 && (sp == sl || src[sp++] != '=') ||
+								shiftto == 18) {
+							throw new IllegalArgumentException(
+									"Input byte array has wrong 4-byte ending unit");
+						}
+						break;
+					}
+					if (isMIME)    // skip if for rfc2045
+					{
+						continue;
+					} else {
+						throw new IllegalArgumentException(
+								"Illegal base64 character " +
+										Integer.toString(src[sp - 1], 16));
+					}
+				}
+				bits |= (b << shiftto);
+				shiftto -= 6;
+				if (shiftto < 0) {
+					dst[dp++] = (byte) (bits >> 16);
+					dst[dp++] = (byte) (bits >> 8);
+					dst[dp++] = (byte) (bits);
+					shiftto = 18;
+					bits = 0;
+				}
+			}
+			// reached end of byte array or hit padding '=' characters.
+			if (shiftto == 6) {
+				dst[dp++] = (byte) (bits >> 16);
+			} else if (shiftto == 0) {
+				dst[dp++] = (byte) (bits >> 16);
+				dst[dp++] = (byte) (bits >> 8);
+			} else if (shiftto == 12) {
+				// dangling single "x", incorrectly encoded.
+				throw new IllegalArgumentException(
+						"Last unit does not have enough valid bits");
+			}
+			// anything left is invalid, if is not MIME.
+			// if MIME, ignore all non-base64 character
+			while (sp < sl) {
+				if (isMIME && fromBase64[src[sp++]] < 0) {
+					continue;
+				}
+				throw new IllegalArgumentException(
+						"Input byte array has incorrect ending byte at " + sp);
+			}
+			return dp;
+		}
+	}
+
+}
@@ -0,0 +1,239 @@
+package io.jrevolt.launcher.util;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDK Flight Recorder events of launcher phases (configuration, vault, repository requests, class loader, launch), so
+ * that launcher overhead can be correlated with the application startup in the same recording.
+ * <p/>
+ * Event types are defined dynamically ({@code jdk.jfr.EventFactory}) and accessed reflectively, as the launcher
+ * targets Java 8: on runtimes without the JFR API, all events are no-ops. Event types are registered once the Flight
+ * Recorder is initialized (e.g. {@code -XX:StartFlightRecording}); until then, and whenever the event type is not
+ * enabled in any recording, {@link #begin(Type)} returns a shared no-op event.
+ *
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class Events {
+
+	static private final String PREFIX = "io.jrevolt.launcher.";
+
+	static private final String[] CATEGORY = { "JRevolt", "Launcher" };
+
+	static public enum Type {
+		Configure("Configuration", "Launcher configuration loaded and validated"),
+		VaultLoad("Vault Load", "Vault data loaded", "file", String.class, "bytes", long.class),
+		VaultDecrypt("Vault Decrypt", "Encrypted vault value decrypted", "bytes", long.class),
+		RepositoryVerify("Repository Verification", "Connection to repository verified",
+							  "repository", String.class, "url", String.class),
+		RepositoryRequest("Repository Request", "Remote repository request (artifact, metadata or checksum)",
+								"repository", String.class, "artifact", String.class, "url", String.class,
+								"method", String.class, "status", int.class, "bytes", long.class),
+		SnapshotMetadata("Snapshot Metadata", "Snapshot version resolved using repository metadata",
+							  "repository", String.class, "artifact", String.class, "version", String.class),
+		ChecksumVerification("Checksum Verification", "Downloaded content verified against declared checksum",
+									"artifact", String.class, "url", String.class, "valid", boolean.class),
+		ClassLoader("Class Loader", "Application class loader created", "archives", int.class),
+		Launch("Launch", "Control handed off to the application's main class", "mainClass", String.class);
+
+		final String label;
+		final String description;
+		final List<String> names = new ArrayList<>();
+		final List<Class<?>> types = new ArrayList<>();
+
+		/**
+		 * jdk.jfr.EventFactory, registered lazily
+		 */
+		volatile Object factory;
+
+		Type(String label, String description, Object... fields) {
+			this.label = label;
+			this.description = description;
+			for (int i = 0; i < fields.length; i += 2) {
+				names.add((String) fields[i]);
+				types.add((Class<?>) fields[i + 1]);
+			}
+		}
+	}
+
+	/**
+	 * Pending event: fields are set and the event is committed (with its duration) when the measured operation
+	 * completes. No-op unless recorded.
+	 */
+	static public class Event {
+
+		private final Type type;
+		private final Object event; // jdk.jfr.Event
+
+		private Event(Type type, Object event) {
+			this.type = type;
+			this.event = event;
+		}
+
+		public boolean isEnabled() {
+			return event != null;
+		}
+
+		/**
+		 * Set a field value; non-primitive values are recorded as strings
+		 */
+		public Event set(String field, Object value) {
+			if (event == null) {
+				return this;
+			}
+			int index = type.names.indexOf(field);
+			if (index < 0) {
+				throw new IllegalArgumentException(String.format("Unknown field %s.%s", type, field));
+			}
+			Class<?> t = type.types.get(index);
+			Object v = (t == String.class && value != null) ? value.toString()
+					: (t == long.class) ? ((Number) value).longValue()
+					: (t == int.class) ? ((Number) value).intValue()
+					: value;
+			invoke(SET, event, index, v);
+			return this;
+		}
+
+		public void commit() {
+			if (event != null) {
+				invoke(COMMIT, event);
+			}
+		}
+	}
+
+	static private final Event NOOP = new Event(null, null);
+
+	static private final Method IS_INITIALIZED;
+	static private final Method CREATE;
+	static private final Method NEW_EVENT;
+	static private final Method GET_EVENT_TYPE;
+	static private final Method IS_ENABLED;
+	static private final Method BEGIN;
+	static private final Method SET;
+	static private final Method COMMIT;
+	static private final Constructor<?> ANNOTATION;
+	static private final Constructor<?> VALUE;
+	static private final Class<?>[] ANNOTATIONS = new Class<?>[4]; // Name, Label, Description, Category
+
+	static private volatile boolean available;
+	static private volatile boolean initialized;
+
+	static {
+		Method[] methods = new Method[8];
+		Constructor<?>[] constructors = new Constructor<?>[2];
+		try {
+			Class<?> recorder = Class.forName("jdk.jfr.FlightRecorder");
+			Class<?> factory = Class.forName("jdk.jfr.EventFactory");
+			Class<?> event = Class.forName("jdk.jfr.Event");
+			Class<?> annotation = Class.forName("jdk.jfr.AnnotationElement");
+			Class<?> value = Class.forName("jdk.jfr.ValueDescriptor");
+			methods[0] = recorder.getMethod("isInitialized");
+			methods[1] = factory.getMethod("create", List.class, List.class);
+			methods[2] = factory.getMethod("newEvent");
+			methods[3] = factory.getMethod("getEventType");
+			methods[4] = Class.forName("jdk.jfr.EventType").getMethod("isEnabled");
+			methods[5] = event.getMethod("begin");
+			methods[6] = event.getMethod("set", int.class, Object.class);
+			methods[7] = event.getMethod("commit");
+			constructors[0] = annotation.getConstructor(Class.class, Object.class);
+			constructors[1] = value.getConstructor(Class.class, String.class, List.class);
+			String[] names = { "Name", "Label", "Description", "Category" };
+			for (int i = 0; i < names.length; i++) {
+				ANNOTATIONS[i] = Class.forName("jdk.jfr." + names[i]);
+			}
+			available = true;
+		} catch (ReflectiveOperationException | LinkageError e) {
+			// Java 8 (or JFR not available): events disabled
+		}
+		IS_INITIALIZED = methods[0];
+		CREATE = methods[1];
+		NEW_EVENT = methods[2];
+		GET_EVENT_TYPE = methods[3];
+		IS_ENABLED = methods[4];
+		BEGIN = methods[5];
+		SET = methods[6];
+		COMMIT = methods[7];
+		ANNOTATION = constructors[0];
+		VALUE = constructors[1];
+	}
+
+	/**
+	 * Starts timing of an event of a given type
+	 *
+	 * @return pending event, to be committed once the operation completes (no-op unless recorded)
+	 */
+	static public Event begin(Type type) {
+		if (!isRecording()) {
+			return NOOP;
+		}
+		Object factory = getFactory(type);
+		if (factory == null || !Boolean.TRUE.equals(invoke(IS_ENABLED, invoke(GET_EVENT_TYPE, factory)))) {
+			return NOOP;
+		}
+		Object event = invoke(NEW_EVENT, factory);
+		invoke(BEGIN, event);
+		return (event != null) ? new Event(type, event) : NOOP;
+	}
+
+	static private boolean isRecording() {
+		if (!available) {
+			return false;
+		}
+		if (!initialized) {
+			initialized = Boolean.TRUE.equals(invoke(IS_INITIALIZED, null));
+		}
+		return initialized;
+	}
+
+	static private Object getFactory(Type type) {
+		Object factory = type.factory;
+		if (factory == null) {
+			synchronized (type) {
+				if ((factory = type.factory) == null) {
+					try {
+						factory = type.factory = invoke(CREATE, null, annotations(type), fields(type));
+					} catch (ReflectiveOperationException | RuntimeException e) {
+						available = false;
+					}
+				}
+			}
+		}
+		return factory;
+	}
+
+	static private List<Object> annotations(Type type) throws ReflectiveOperationException {
+		return Arrays.asList(
+				ANNOTATION.newInstance(ANNOTATIONS[0], PREFIX + type.name()),
+				ANNOTATION.newInstance(ANNOTATIONS[1], type.label),
+				ANNOTATION.newInstance(ANNOTATIONS[2], type.description),
+				ANNOTATION.newInstance(ANNOTATIONS[3], CATEGORY));
+	}
+
+	static private List<Object> fields(Type type) throws ReflectiveOperationException {
+		List<Object> fields = new ArrayList<>();
+		for (int i = 0; i < type.names.size(); i++) {
+			String name = type.names.get(i);
+			String label = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+			List<Object> annotations = Collections.singletonList(ANNOTATION.newInstance(ANNOTATIONS[1], label));
+			fields.add(VALUE.newInstance(type.types.get(i), name, annotations));
+		}
+		return fields;
+	}
+
+	/**
+	 * Any reflective failure disables the events for good: the launcher must not be affected by its diagnostics
+	 */
+	static private Object invoke(Method method, Object target, Object... args) {
+		try {
+			return method.invoke(target, args);
+		} catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+			available = false;
+			return null;
+		}
+	}
+
+}
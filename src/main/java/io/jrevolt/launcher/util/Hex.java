@@ -1,36 +1,36 @@
-package io.jrevolt.launcher.util;
-
-/**
- * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
- */
-public class Hex {
-
-	static private final char[] DIGITS = {
-			'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
-	};
-
-	static public char[] encode(byte[] data) {
-		int l = data.length;
-		char[] out = new char[l << 1];
-		// two characters form the hex value.
-		for (int i = 0, j = 0; i < l; i++) {
-			out[j++] = DIGITS[(0xF0 & data[i]) >>> 4];
-			out[j++] = DIGITS[0x0F & data[i]];
-		}
-		return out;
-	}
-
-	static public byte[] decode(char[] data) {
-		int len = data.length;
-		byte[] out = new byte[len >> 1];
-		for (int i = 0, j = 0; j < len; i++) {
-			int f = Character.digit(data[j], 16) << 4;
-			j++;
-			f = f | Character.digit(data[j], 16);
-			j++;
-			out[i] = (byte) (f & 0xFF);
-		}
-		return out;
-	}
-
-}
+package io.jrevolt.launcher.util;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class Hex {
+
+	static private final char[] DIGITS = {
+			'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+	};
+
+	static public char[] encode(byte[] data) {
+		int l = data.length;
+		char[] out = new char[l << 1];
+		// two characters form the hex value.
+		for (int i = 0, j = 0; i < l; i++) {
+			out[j++] = DIGITS[(0xF0 & data[i]) >>> 4];
+			out[j++] = DIGITS[0x0F & data[i]];
+		}
+		return out;
+	}
+
+	static public byte[] decode(char[] data) {
+		int len = data.length;
+		byte[] out = new byte[len >> 1];
+		for (int i = 0, j = 0; j < len; i++) {
+			int f = Character.digit(data[j], 16) << 4;
+			j++;
+			f = f | Character.digit(data[j], 16);
+			j++;
+			out[i] = (byte) (f & 0xFF);
+		}
+		return out;
+	}
+
+}
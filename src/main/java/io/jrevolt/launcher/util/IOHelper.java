@@ -1,43 +1,37 @@
-package io.jrevolt.launcher.util;
-
-import org.springframework.boot.loader.archive.Archive;
-
-import java.io.Closeable;
-import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URLConnection;
-
-/**
- * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
- */
-public class IOHelper {
-
-	static public void close(Closeable closeable) {
-		if (closeable != null) {
-			try {
-				closeable.close();
-			} catch (IOException ignore) {
-			}
-		}
-	}
-
-	static public void close(AutoCloseable closeable) {
-		if (closeable != null) {
-			try {
-				closeable.close();
-			} catch (Exception ignore) {
-			}
-		}
-	}
-
-	static public void close(URLConnection con) {
-		if (con != null && con instanceof HttpURLConnection) {
-			((HttpURLConnection) con).disconnect();
-		}
-	}
-
-	static public void close(Archive archive) {
-		// todo
-	}
-
-}
+package io.jrevolt.launcher.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URLConnection;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class IOHelper {
+
+	static public void close(Closeable closeable) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			} catch (IOException ignore) {
+			}
+		}
+	}
+
+	static public void close(AutoCloseable closeable) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			} catch (Exception ignore) {
+			}
+		}
+	}
+
+	static public void close(URLConnection con) {
+		if (con != null && con instanceof HttpURLConnection) {
+			((HttpURLConnection) con).disconnect();
+		}
+	}
+
+}
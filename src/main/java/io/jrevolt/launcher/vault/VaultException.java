@@ -1,15 +1,15 @@
-package io.jrevolt.launcher.vault;
-
-/**
- * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
- */
-public class VaultException extends RuntimeException {
-
-	public VaultException(String message) {
-		super(message);
-	}
-
-	public VaultException(Throwable cause, String message) {
-		super(message, cause);
-	}
-}
+package io.jrevolt.launcher.vault;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class VaultException extends RuntimeException {
+
+	public VaultException(String message) {
+		super(message);
+	}
+
+	public VaultException(Throwable cause, String message) {
+		super(message, cause);
+	}
+}
@@ -1,75 +1,120 @@
-/*
- * Copyright 2012-2014 the original author or authors.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *      http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-package io.jrevolt.launcher.mvn;
-
-import org.junit.Test;
-
-import static org.junit.Assert.assertEquals;
-
-/**
- * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
- */
-public class ArtifactTest {
-
-	@Test
-	public void parseRelease() throws Exception {
-		Artifact ma = Artifact.parse("my.group:my.artifact:1.0");
-		assertEquals("my.group", ma.getGroupId());
-		assertEquals("my.artifact", ma.getArtifactId());
-		assertEquals("1.0", ma.getVersion());
-		assertEquals("jar", ma.getPackaging());
-		assertEquals("my/group/my.artifact/1.0/my.artifact-1.0.jar", ma.getPath());
-	}
-
-	@Test
-	public void parseClassifier() throws Exception {
-		Artifact ma = Artifact.parse("my.group:my.artifact:1.0:jar:sources");
-		assertEquals("1.0", ma.getVersion());
-		assertEquals("jar", ma.getPackaging());
-		assertEquals("sources", ma.getClassifier());
-		assertEquals("my/group/my.artifact/1.0/my.artifact-1.0-sources.jar", ma.getPath());
-	}
-
-	@Test
-	public void parseSnapshot() throws Exception {
-		Artifact ma = Artifact.parse("mygroup:myartifact:1.0-SNAPSHOT");
-		ma.setResolvedSnapshotVersion("20140131.123456");
-		assertEquals("mygroup", ma.getGroupId());
-		assertEquals("myartifact", ma.getArtifactId());
-		assertEquals("1.0-SNAPSHOT", ma.getVersion());
-		assertEquals("jar", ma.getPackaging());
-	}
-
-	@Test
-	public void parseMainClass() throws Exception {
-		Artifact ma = Artifact.parse("mygroup:myartifact:1.0-SNAPSHOT:jar:classes:com.example.MainClass");
-		assertEquals("mygroup", ma.getGroupId());
-		assertEquals("myartifact", ma.getArtifactId());
-		assertEquals("1.0-SNAPSHOT", ma.getVersion());
-		assertEquals("jar", ma.getPackaging());
-		assertEquals("classes", ma.getClassifier());
-		assertEquals("com.example.MainClass", ma.getMainClass());
-	}
-
-	@Test
-	public void parseMainClassShort() throws Exception {
-		Artifact ma = Artifact.parse("mygroup:myartifact:1.0-SNAPSHOT:::com.example.MainClass");
-		assertEquals("jar", ma.getPackaging());
-		assertEquals(null, ma.getClassifier());
-		assertEquals("com.example.MainClass", ma.getMainClass());
-	}
-
-}
+/*
+ * Copyright 2012-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.LauncherException;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class ArtifactTest {
+
+	@Test
+	public void parseRelease() throws Exception {
+		Artifact ma = Artifact.parse("my.group:my.artifact:1.0");
+		assertEquals("my.group", ma.getGroupId());
+		assertEquals("my.artifact", ma.getArtifactId());
+		assertEquals("1.0", ma.getVersion());
+		assertEquals("jar", ma.getPackaging());
+		assertEquals("my/group/my.artifact/1.0/my.artifact-1.0.jar", ma.getPath());
+	}
+
+	@Test
+	public void parseClassifier() throws Exception {
+		Artifact ma = Artifact.parse("my.group:my.artifact:1.0:jar:sources");
+		assertEquals("1.0", ma.getVersion());
+		assertEquals("jar", ma.getPackaging());
+		assertEquals("sources", ma.getClassifier());
+		assertEquals("my/group/my.artifact/1.0/my.artifact-1.0-sources.jar", ma.getPath());
+	}
+
+	@Test
+	public void parseSnapshot() throws Exception {
+		Artifact ma = Artifact.parse("mygroup:myartifact:1.0-SNAPSHOT");
+		ma.setResolvedSnapshotVersion("20140131.123456");
+		assertEquals("mygroup", ma.getGroupId());
+		assertEquals("myartifact", ma.getArtifactId());
+		assertEquals("1.0-SNAPSHOT", ma.getVersion());
+		assertEquals("jar", ma.getPackaging());
+	}
+
+	@Test
+	public void parseMainClass() throws Exception {
+		Artifact ma = Artifact.parse("mygroup:myartifact:1.0-SNAPSHOT:jar:classes:com.example.MainClass");
+		assertEquals("mygroup", ma.getGroupId());
+		assertEquals("myartifact", ma.getArtifactId());
+		assertEquals("1.0-SNAPSHOT", ma.getVersion());
+		assertEquals("jar", ma.getPackaging());
+		assertEquals("classes", ma.getClassifier());
+		assertEquals("com.example.MainClass", ma.getMainClass());
+	}
+
+	@Test
+	public void parseMainClassShort() throws Exception {
+		Artifact ma = Artifact.parse("mygroup:myartifact:1.0-SNAPSHOT:::com.example.MainClass");
+		assertEquals("jar", ma.getPackaging());
+		assertEquals(null, ma.getClassifier());
+		assertEquals("com.example.MainClass", ma.getMainClass());
+	}
+
+	@Test
+	public void parseAnnotations() throws Exception {
+		Artifact ma = Artifact.parse("mygroup:myartifact:1.0:war@main:x");
+		assertEquals("mygroup:myartifact:1.0:war", ma.asString());
+		assertEquals(null, ma.getClassifier());
+	}
+
+	@Test
+	public void parseExplicitSnapshot() throws Exception {
+		Artifact ma = Artifact.parse("mygroup:myartifact:1.0-20140131.123456-12");
+		assertEquals("1.0-SNAPSHOT", ma.getVersion());
+		assertEquals("1.0-20140131.123456-12", ma.getResolvedSnapshotVersion());
+		assertEquals("1.0-20140131.1234-12", Artifact.parse("mygroup:myartifact:1.0-20140131.1234-12").getVersion());
+		assertEquals(-1, Artifact.timestamp("20140131.123456-1"));
+		assertEquals(0, Artifact.timestamp("-20140131.123456-1"));
+	}
+
+	@Test
+	public void tryparseInvalid() throws Exception {
+		assertNull(Artifact.tryparse(""));
+		assertNull(Artifact.tryparse("mygroup:myartifact"));
+		assertNull(Artifact.tryparse("mygroup::1.0"));
+	}
+
+	@Test
+	public void parseList() throws Exception {
+		List<Artifact> list = Artifact.parseList(" g:a:1.0,g:b:2.0:pom\r\n\tg:c:3.0:jar:tests@x,, ");
+		assertEquals(3, list.size());
+		assertEquals("g:a:1.0:jar", list.get(0).asString());
+		assertEquals("g:b:2.0:pom", list.get(1).asString());
+		assertEquals("g:c:3.0:jar:tests", list.get(2).asString());
+		assertEquals(0, Artifact.parseList(null).size());
+		assertEquals(0, Artifact.parseList(" , ").size());
+	}
+
+	@Test(expected = LauncherException.class)
+	public void parseListInvalid() throws Exception {
+		Artifact.parseList("g:a:1.0, g:b");
+	}
+
+}
@@ -0,0 +1,104 @@
+package io.jrevolt.launcher.mvn;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.UUID;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class CacheIndexTest {
+
+	File cache;
+	File f;
+
+	@Before
+	public void before() throws Exception {
+		cache = new File(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+		f = new File(cache, "org/example/a/1.0/a-1.0.jar");
+		f.getParentFile().mkdirs();
+		Files.write(f.toPath(), "content".getBytes());
+	}
+
+	@Test
+	public void journal() throws Exception {
+		CacheIndex index = new CacheIndex(cache);
+		Assert.assertNull(index.get(f));
+		index.committed(f, new Validators("\"etag\"", 1000L), "sha1", 2000L);
+		index.checked(f, 3000L);
+
+		CacheIndex reloaded = new CacheIndex(cache);
+		Assert.assertEquals(3000L, reloaded.getLastChecked(f));
+		Assert.assertEquals(new Validators("\"etag\"", 1000L), reloaded.getValidators(f));
+		Assert.assertEquals("sha1", reloaded.getChecksum(f));
+
+		Files.write(f.toPath(), "modified".getBytes());
+		Assert.assertNull(reloaded.getChecksum(f));
+	}
+
+	@Test
+	public void remove() throws Exception {
+		CacheIndex index = new CacheIndex(cache);
+		index.checked(f, 1000L);
+		index.remove(f);
+		Assert.assertNull(index.get(f));
+		Assert.assertNull(new CacheIndex(cache).get(f));
+	}
+
+	@Test
+	public void truncated() throws Exception {
+		CacheIndex index = new CacheIndex(cache);
+		index.checked(f, 1000L);
+		index.checked(f, 2000L);
+
+		// interrupted append
+		try (RandomAccessFile raf = new RandomAccessFile(index.getFile(), "rw")) {
+			raf.setLength(raf.length() - 3);
+		}
+		Assert.assertEquals(1000L, new CacheIndex(cache).getLastChecked(f));
+	}
+
+	@Test
+	public void shared() throws Exception {
+		File g = new File(cache, "org/example/b/1.0/b-1.0.jar");
+		CacheIndex a = new CacheIndex(cache);
+		CacheIndex b = new CacheIndex(cache);
+		Assert.assertNull(b.get(g));
+
+		a.checked(g, 1000L);
+		Assert.assertEquals(1000L, b.getLastChecked(g));
+
+		// b compacts the journal: a's updates must survive, and a must follow the new journal
+		for (int i = 1; i <= 2000; i++) {
+			b.checked(f, i);
+		}
+		Assert.assertTrue(a.getFile().length() < 2000 * 50); // compacted (each record takes 60+ bytes)
+		Assert.assertEquals(2000L, a.getLastChecked(f));
+		a.checked(g, 3000L);
+		Assert.assertEquals(3000L, b.getLastChecked(g));
+
+		CacheIndex reloaded = new CacheIndex(cache);
+		Assert.assertEquals(2000L, reloaded.getLastChecked(f));
+		Assert.assertEquals(3000L, reloaded.getLastChecked(g));
+	}
+
+	@Test
+	public void legacyMarker() throws Exception {
+		File marker = RepositoryConnector.getLastUpdatedMarkerFile(f);
+		marker.createNewFile();
+		marker.setLastModified(5000L);
+
+		CacheIndex index = new CacheIndex(cache);
+		Assert.assertEquals(5000L, index.getLastChecked(f));
+
+		index.checked(f, 6000L);
+		Assert.assertFalse(marker.exists());
+		Assert.assertEquals(6000L, new CacheIndex(cache).getLastChecked(f));
+	}
+
+}
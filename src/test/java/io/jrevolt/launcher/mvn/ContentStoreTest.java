@@ -0,0 +1,79 @@
+package io.jrevolt.launcher.mvn;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.UUID;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class ContentStoreTest {
+
+	static final String SHA1 = "a11193e123311e7f3b1989aa30a544b061f7c2b9";
+	static final String SHA256 = "309fa099301b34ba6584d75e84afbb65def7c94ef0197080100d43335dcc2108";
+
+	File dir;
+	ContentStore store;
+
+	@Before
+	public void before() throws Exception {
+		dir = new File(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+		store = new ContentStore(new File(dir, ".blobs"));
+	}
+
+	@Test
+	public void deduplicate() throws Exception {
+		File a = write("a/a-1.0.jar");
+		File b = write("b/b-1.0.jar");
+		Assert.assertNull(store.find(SHA1));
+
+		store.put(a, SHA1, SHA256);
+		store.put(b, SHA1, SHA256);
+
+		File blob = store.find(SHA1);
+		Assert.assertNotNull(blob);
+		Assert.assertTrue(Files.isSameFile(a.toPath(), blob.toPath()));
+		Assert.assertTrue(Files.isSameFile(b.toPath(), blob.toPath()));
+	}
+
+	@Test
+	public void restore() throws Exception {
+		store.put(write("a/a-1.0.jar"), SHA1, SHA256);
+
+		File c = new File(dir, "c/c-1.0.jar");
+		store.restore(store.find(SHA1), c);
+		Assert.assertArrayEquals("content".getBytes(), Files.readAllBytes(c.toPath()));
+	}
+
+	@Test
+	public void noHardLinks() throws Exception {
+		store = new ContentStore(new File(dir, ".blobs")) {
+			@Override
+			void createLink(File link, File existing) {
+				throw new UnsupportedOperationException("hard links");
+			}
+		};
+		File a = write("a/a-1.0.jar");
+		File b = write("b/b-1.0.jar");
+		store.put(a, SHA1, SHA256);
+		store.put(b, SHA1, SHA256);
+
+		File blob = store.find(SHA1);
+		Assert.assertNotNull(blob);
+		Assert.assertArrayEquals("content".getBytes(), Files.readAllBytes(blob.toPath()));
+		Assert.assertArrayEquals("content".getBytes(), Files.readAllBytes(a.toPath()));
+		Assert.assertTrue(Files.isSameFile(b.toPath(), blob.toPath())); // symbolic link
+	}
+
+	private File write(String path) throws Exception {
+		File f = new File(dir, path);
+		f.getParentFile().mkdirs();
+		Files.write(f.toPath(), "content".getBytes());
+		return f;
+	}
+
+}
@@ -0,0 +1,92 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.AbstractTest;
+import io.jrevolt.launcher.LauncherCfg;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class DownloadSchedulerTest extends AbstractTest {
+
+	@After
+	public void after() throws Exception {
+		System.clearProperty(LauncherCfg.downloadOrder.getPropertyName());
+		super.after();
+	}
+
+	@Test
+	public void largest() throws Exception {
+		Assert.assertEquals(Arrays.asList("main", "cached", "large", "medium", "small"), run("largest"));
+	}
+
+	@Test
+	public void smallest() throws Exception {
+		Assert.assertEquals(Arrays.asList("main", "cached", "small", "medium", "large"), run("smallest"));
+	}
+
+	@Test
+	public void fifo() throws Exception {
+		Assert.assertEquals(Arrays.asList("main", "cached", "medium", "small", "large"), run("fifo"));
+	}
+
+	private List<String> run(String order) throws Exception {
+		System.setProperty(LauncherCfg.downloadOrder.getPropertyName(), order);
+		LauncherCfg.configure();
+
+		DownloadScheduler scheduler = new DownloadScheduler(1, Executors.defaultThreadFactory());
+		List<String> completed = Collections.synchronizedList(new LinkedList<String>());
+		try {
+			// occupy the only thread until all tasks are queued
+			final CountDownLatch latch = new CountDownLatch(1);
+			scheduler.schedule(scheduler.newTask(artifact("blocker", 0), true, new Callable<Object>() {
+				@Override
+				public Object call() throws Exception {
+					return latch.await(5, TimeUnit.SECONDS);
+				}
+			}));
+			schedule(scheduler, completed, artifact("medium", 2000), false);
+			schedule(scheduler, completed, artifact("small", 1000), false);
+			Artifact cached = artifact("cached", -1);
+			cached.setStatus(Artifact.Status.NotModified);
+			schedule(scheduler, completed, cached, false);
+			schedule(scheduler, completed, artifact("large", 3000), false);
+			schedule(scheduler, completed, artifact("main", 10), true);
+			latch.countDown();
+		} finally {
+			scheduler.shutdown();
+			scheduler.awaitTermination(5, TimeUnit.SECONDS);
+		}
+		return completed;
+	}
+
+	private void schedule(DownloadScheduler scheduler, final List<String> completed, final Artifact artifact,
+								 boolean urgent) {
+		scheduler.schedule(scheduler.newTask(artifact, urgent, new Callable<Object>() {
+			@Override
+			public Object call() throws Exception {
+				return completed.add(artifact.getArtifactId());
+			}
+		}));
+	}
+
+	private Artifact artifact(String name, long size) {
+		Artifact a = Artifact.parse("org.example:" + name + ":1.0");
+		a.setStatus(Artifact.Status.Downloadable);
+		a.state.size = size;
+		return a;
+	}
+
+}
@@ -0,0 +1,267 @@
+package io.jrevolt.launcher.mvn;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class IndexedClassLoaderTest {
+
+	static public class Sample {
+	}
+
+	static private final String SAMPLE = Sample.class.getName().replace('.', '/') + ".class";
+
+	File dir;
+	URL[] urls;
+
+	@Before
+	public void before() throws Exception {
+		dir = new File(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+		dir.mkdirs();
+		urls = new URL[] {
+				jar("a.jar", "a/resource.txt", "root.txt"),
+				jar("b.jar", "a/resource.txt", "b/other.txt", SAMPLE) };
+	}
+
+	@Test
+	public void lookup() throws Exception {
+		try (IndexedClassLoader cl = IndexedClassLoader.create(urls, null, dir)) {
+			Assert.assertNotNull(cl);
+			Assert.assertTrue(cl.getResource("a/resource.txt").toString().contains("a.jar!/"));
+			Assert.assertEquals(2, Collections.list(cl.getResources("a/resource.txt")).size());
+			Assert.assertNotNull(cl.getResource("root.txt"));
+			Assert.assertNull(cl.getResource("b/missing.txt"));
+			Assert.assertNull(cl.getResource("c/missing.txt"));
+			try (InputStream in = cl.getResourceAsStream("b/other.txt")) {
+				Assert.assertEquals("b/other.txt", new String(readFully(in), StandardCharsets.UTF_8));
+			}
+
+			Class<?> c = cl.loadClass(Sample.class.getName());
+			Assert.assertSame(cl, c.getClassLoader());
+			Assert.assertNotSame(Sample.class, c);
+			Assert.assertTrue(c.getProtectionDomain().getCodeSource().getLocation().toString().endsWith("b.jar"));
+		}
+	}
+
+	@Test
+	public void encoded() throws Exception {
+		String name = "c/with space#hash%.txt";
+		URL[] encoded = { jar("c.jar", name) };
+		try (IndexedClassLoader cl = IndexedClassLoader.create(encoded, null, dir)) {
+			Assert.assertTrue(cl.getResource(name).toString().endsWith("!/c/with%20space%23hash%25.txt"));
+			Assert.assertEquals(1, Collections.list(cl.getResources(name)).size());
+			try (InputStream in = cl.getResourceAsStream(name)) {
+				Assert.assertEquals(name, new String(readFully(in), StandardCharsets.UTF_8));
+			}
+		}
+	}
+
+	@Test(expected = ClassNotFoundException.class)
+	public void notFound() throws Exception {
+		try (IndexedClassLoader cl = IndexedClassLoader.create(urls, null, dir)) {
+			cl.loadClass("a.Missing");
+		}
+	}
+
+	@Test
+	public void persisted() throws Exception {
+		IndexedClassLoader.create(urls, null, dir).close();
+		File[] saved = dir.listFiles((d, name) -> name.startsWith("classpath-") && name.endsWith(".idx"));
+		Assert.assertEquals(1, saved.length);
+		long modified = saved[0].lastModified();
+
+		try (IndexedClassLoader cl = IndexedClassLoader.create(urls, null, dir)) {
+			Assert.assertNotNull(cl.getResource("b/other.txt"));
+		}
+		Assert.assertEquals(modified, saved[0].lastModified());
+
+		// different class path, different index
+		IndexedClassLoader.create(new URL[] { urls[1] }, null, dir).close();
+		Assert.assertEquals(2, dir.listFiles((d, name) -> name.endsWith(".idx")).length);
+	}
+
+	@Test
+	public void pruned() throws Exception {
+		File obsolete = new File(dir, "classpath-0123456789abcdef.idx");
+		File recent = new File(dir, "classpath-fedcba9876543210.idx");
+		obsolete.createNewFile();
+		recent.createNewFile();
+		obsolete.setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(60));
+
+		IndexedClassLoader.create(urls, null, dir).close();
+		Assert.assertFalse(obsolete.exists());
+		Assert.assertTrue(recent.exists());
+	}
+
+	@Test
+	public void multiRelease() throws Exception {
+		Assume.assumeTrue(SharedArchive.getJavaVersion() >= 9);
+		Manifest mf = new Manifest();
+		mf.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		mf.getMainAttributes().putValue("Multi-Release", "true");
+		File f = new File(dir, "mr.jar");
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(f), mf)) {
+			out.putNextEntry(new ZipEntry("m/resource.txt"));
+			out.write("base".getBytes(StandardCharsets.UTF_8));
+			out.putNextEntry(new ZipEntry("META-INF/versions/9/m/resource.txt"));
+			out.write("versioned".getBytes(StandardCharsets.UTF_8));
+			// versioned class only (package not present in the base entries)
+			out.putNextEntry(new ZipEntry("META-INF/versions/9/" + SAMPLE));
+			try (InputStream in = getClass().getClassLoader().getResourceAsStream(SAMPLE)) {
+				out.write(readFully(in));
+			}
+		}
+		try (IndexedClassLoader cl = IndexedClassLoader.create(new URL[] { f.toURI().toURL() }, null, dir)) {
+			try (InputStream in = cl.getResourceAsStream("m/resource.txt")) {
+				Assert.assertEquals("versioned", new String(readFully(in), StandardCharsets.UTF_8));
+			}
+			Assert.assertSame(cl, cl.loadClass(Sample.class.getName()).getClassLoader());
+		}
+	}
+
+	@Test
+	public void pending() throws Exception {
+		Artifact a = Artifact.parse("test:a:1");
+		Artifact b = Artifact.parse("test:b:1");
+		a.setFile(IndexedClassLoader.toFile(urls[0]));
+		CompletableFuture<Void> download = new CompletableFuture<>();
+		UsageRecord usage = new UsageRecord(new File(dir, "test.usage"));
+		usage.update(b, 1, new HashSet<>(Arrays.asList("b/", PackageIndex.getPackage(SAMPLE))));
+
+		IndexedClassLoader cl = IndexedClassLoader.create(
+				Arrays.asList(PendingArtifact.completed(a), new PendingArtifact(b, download)), null, dir, usage);
+		Assert.assertEquals(1, cl.getURLs().length);
+
+		// available archive, no need to wait for b (recorded packages)
+		Assert.assertTrue(cl.getResource("a/resource.txt").toString().contains("a.jar!/"));
+
+		// b may contain the class: waits for the download
+		AtomicReference<Class<?>> loaded = new AtomicReference<>();
+		Thread t = new Thread(() -> {
+			try {
+				loaded.set(cl.loadClass(Sample.class.getName()));
+			} catch (ClassNotFoundException ignore) {
+			}
+		});
+		t.start();
+		t.join(200);
+		Assert.assertTrue(t.isAlive());
+		b.setFile(IndexedClassLoader.toFile(urls[1]));
+		download.complete(null);
+		t.join();
+		Assert.assertSame(cl, loaded.get().getClassLoader());
+		Assert.assertEquals(2, cl.getURLs().length);
+		Assert.assertEquals(2, Collections.list(cl.getResources("a/resource.txt")).size());
+
+		cl.saveUsage();
+		cl.close();
+		UsageRecord saved = new UsageRecord(usage.getFile());
+		Assert.assertEquals(1, saved.getRank(a));
+		Assert.assertEquals(2, saved.getRank(b));
+		Assert.assertTrue(saved.getPackages(a).contains("a/"));
+		Assert.assertTrue(saved.getPackages(b).contains("b/"));
+	}
+
+	@Test(timeout = 10000)
+	public void pendingLookups() throws Exception {
+		Artifact a = Artifact.parse("test:a:1");
+		Artifact b = Artifact.parse("test:b:1");
+		a.setFile(IndexedClassLoader.toFile(urls[0]));
+		CompletableFuture<Void> download = new CompletableFuture<>();
+		UsageRecord usage = new UsageRecord(new File(dir, "test.usage"));
+		usage.update(b, 1, new HashSet<>(Collections.singletonList("b/"))); // outdated: b also contains a/resource.txt
+
+		IndexedClassLoader cl = IndexedClassLoader.create(
+				Arrays.asList(PendingArtifact.completed(a), new PendingArtifact(b, download)), null, dir, usage);
+
+		// package provided by an available archive: miss is final, no need to wait for b
+		try {
+			cl.loadClass("a.Missing");
+			Assert.fail();
+		} catch (ClassNotFoundException expected) {
+		}
+		Assert.assertNull(cl.getResource("a/missing.txt"));
+
+		// resources: candidates first, remaining archives once available
+		Enumeration<URL> resources = cl.getResources("a/resource.txt");
+		Assert.assertTrue(resources.nextElement().toString().contains("a.jar!/"));
+		b.setFile(IndexedClassLoader.toFile(urls[1]));
+		new Thread(() -> download.complete(null)).start();
+		Assert.assertTrue(resources.nextElement().toString().contains("b.jar!/"));
+		Assert.assertFalse(resources.hasMoreElements());
+		cl.close();
+	}
+
+	@Test
+	public void unused() throws Exception {
+		Artifact a = Artifact.parse("test:a:1");
+		a.setFile(IndexedClassLoader.toFile(urls[0]));
+		UsageRecord usage = new UsageRecord(new File(dir, "test.usage"));
+		usage.update(a, 1, new HashSet<>(Collections.singletonList("a/")));
+		usage.save();
+		long modified = usage.getFile().lastModified();
+
+		// application not executed: class path usage unknown, recorded usage kept
+		IndexedClassLoader cl = IndexedClassLoader.create(
+				Collections.singletonList(PendingArtifact.completed(a)), null, dir, usage);
+		cl.close();
+		cl.saveUsage();
+		Assert.assertEquals(modified, usage.getFile().lastModified());
+		Assert.assertEquals(1, new UsageRecord(usage.getFile()).getRank(a));
+	}
+
+	@Test
+	public void unsupported() throws Exception {
+		Assert.assertNull(IndexedClassLoader.create(new URL[] { dir.toURI().toURL() }, null, dir));
+	}
+
+	private URL jar(String name, String... entries) throws Exception {
+		File f = new File(dir, name);
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(f))) {
+			for (String e : entries) {
+				out.putNextEntry(new ZipEntry(e));
+				if (e.equals(SAMPLE)) {
+					try (InputStream in = getClass().getClassLoader().getResourceAsStream(SAMPLE)) {
+						out.write(readFully(in));
+					}
+				} else {
+					out.write(e.getBytes(StandardCharsets.UTF_8));
+				}
+			}
+		}
+		return f.toURI().toURL();
+	}
+
+	static private byte[] readFully(InputStream in) throws Exception {
+		byte[] buf = new byte[8192];
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (int n; (n = in.read(buf)) != -1; ) {
+			out.write(buf, 0, n);
+		}
+		return out.toByteArray();
+	}
+
+}
@@ -0,0 +1,84 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.AbstractTest;
+import io.jrevolt.launcher.LauncherCfg;
+import io.jrevolt.launcher.RepositorySupport;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class LaunchPlanTest extends AbstractTest {
+
+	static final String MVNURI = "org.springframework.boot:spring-boot-loader-tools:1.2.0.BUILD-SNAPSHOT";
+
+	File cache;
+
+	@Before
+	public void before() throws Exception {
+		super.before();
+		cache = new File(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+		System.setProperty(LauncherCfg.cache.getPropertyName(), cache.getAbsolutePath());
+		System.setProperty(LauncherCfg.update.getPropertyName(), "false");
+		System.setProperty("jrevolt.launcher.repository.classpath.url", "classpath:repository.zip!/");
+		LauncherCfg.refresh();
+	}
+
+	@After
+	public void after() throws Exception {
+		System.clearProperty(LauncherCfg.cache.getPropertyName());
+		System.clearProperty(LauncherCfg.update.getPropertyName());
+		LauncherCfg.refresh();
+		super.after();
+	}
+
+	@Test
+	public void warmStart() throws Exception {
+		List<Artifact> cold = RepositorySupport.resolve(Artifact.parse(MVNURI), Collections.<Artifact>emptyList());
+		Assert.assertEquals(Artifact.Status.Downloaded, cold.get(0).getStatus());
+
+		LaunchPlan plan = LaunchPlan.forArtifacts(Artifact.parse(MVNURI), Collections.<Artifact>emptyList());
+		Assert.assertTrue(plan.getFile().exists());
+		Assert.assertTrue(plan.isValid());
+		Assert.assertEquals(1, plan.getEntries().size());
+		Assert.assertEquals(40, plan.getEntries().get(0).sha1.length());
+
+		Artifact root = Artifact.parse(MVNURI);
+		List<Artifact> warm = RepositorySupport.resolve(root, Collections.<Artifact>emptyList());
+		Assert.assertEquals(1, warm.size());
+		Assert.assertSame(root, warm.get(0));
+		Assert.assertEquals(Artifact.Status.Cached, root.getStatus());
+		Assert.assertEquals(cold.get(0).getFile().getAbsoluteFile(), root.getFile());
+		Assert.assertEquals("1.2.0.BUILD-20140805.215001-1", root.getResolvedSnapshotVersion());
+	}
+
+	@Test
+	public void invalidatedByCacheChange() throws Exception {
+		List<Artifact> cold = RepositorySupport.resolve(Artifact.parse(MVNURI), Collections.<Artifact>emptyList());
+		Files.write(cold.get(0).getFile().toPath(), new byte[] { 0 });
+
+		LaunchPlan plan = LaunchPlan.forArtifacts(Artifact.parse(MVNURI), Collections.<Artifact>emptyList());
+		Assert.assertFalse(plan.isValid());
+	}
+
+	@Test
+	public void invalidatedByUpdate() throws Exception {
+		RepositorySupport.resolve(Artifact.parse(MVNURI), Collections.<Artifact>emptyList());
+		System.setProperty(LauncherCfg.update.getPropertyName(), "true");
+		LauncherCfg.refresh();
+
+		LaunchPlan plan = LaunchPlan.forArtifacts(Artifact.parse(MVNURI), Collections.<Artifact>emptyList());
+		Assert.assertFalse(plan.isValid());
+	}
+
+}
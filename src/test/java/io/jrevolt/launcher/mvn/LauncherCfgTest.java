@@ -3,8 +3,13 @@ package io.jrevolt.launcher.mvn;
 import io.jrevolt.launcher.LauncherCfg;
 import io.jrevolt.launcher.url.UrlSupport;
 
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
 /**
  * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
  */
@@ -18,6 +23,45 @@ public class LauncherCfgTest {
 		LauncherCfg.configure();
 	}
 
+	@Test
+	public void snapshot() {
+		LauncherCfg.configure();
+		long retries = LauncherCfg.retries.asLong();
+
+		// compiled: system property changes are picked up once refreshed
+		System.setProperty(LauncherCfg.retries.getPropertyName(), Long.toString(retries + 1));
+		try {
+			Assert.assertEquals(retries, LauncherCfg.retries.asLong());
+			LauncherCfg.refresh();
+			Assert.assertEquals(retries + 1, LauncherCfg.retries.asLong());
+			Assert.assertEquals(Long.toString(retries + 1), LauncherCfg.retries.asString());
+
+			// explicit update
+			LauncherCfg.retries.set(Long.toString(retries + 2));
+			Assert.assertEquals(retries + 2, LauncherCfg.retries.asInt());
+		} finally {
+			System.clearProperty(LauncherCfg.retries.getPropertyName());
+			LauncherCfg.configure();
+		}
+	}
+
+	@Test
+	public void userDefaults() throws Exception {
+		File f = File.createTempFile("launcher", ".properties");
+		Files.write(f.toPath(), (LauncherCfg.resolvers.getPropertyName() + "=7").getBytes(StandardCharsets.UTF_8));
+		LauncherCfg.configure();
+		Assert.assertNotEquals(f.toURI().toString(), LauncherCfg.defaults.get()); // in the current snapshot
+		System.setProperty(LauncherCfg.defaults.getPropertyName(), f.toURI().toString());
+		try {
+			LauncherCfg.configure();
+			Assert.assertEquals(7, LauncherCfg.resolvers.asInt());
+		} finally {
+			System.clearProperty(LauncherCfg.defaults.getPropertyName());
+			LauncherCfg.configure();
+			f.delete();
+		}
+	}
+
 //	@Test
 //	public void
 
@@ -1,26 +1,42 @@
-package io.jrevolt.launcher.mvn;
-
-import io.jrevolt.launcher.AbstractTest;
-
-import org.junit.Assert;
-import org.junit.Ignore;
-import org.junit.Test;
-
-
-/**
- * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
- */
-public class LauncherTest extends AbstractTest {
-
-	@Test
-	@Ignore
-	public void test() {
-		Artifact artifact = Artifact.parse("org.springframework.boot:spring-boot-loader:1.3.0.BUILD-SNAPSHOT");
-		Launcher launcher = new Launcher(artifact);
-		ClassLoader cl = launcher.resolve(artifact, Thread.currentThread().getContextClassLoader());
-		Assert.assertNotNull(cl);
-
-		// warning: sadly, class loader keeps using all the artifacts, and cannot be explicitly released (gc'ed)
-		// the artifact spring-boot-loader artifact cannot be fully used for further testing (read-only mode, no updates)
-	}
-}
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.AbstractTest;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class LauncherTest extends AbstractTest {
+
+	@Test
+	public void argFile() throws Exception {
+		File f = Launcher.writeArgFile(Arrays.asList("-cp", "C:\\My Apps\\a.jar;b \"c\".jar"));
+		try {
+			Assert.assertEquals(Arrays.asList("\"-cp\"", "\"C:\\\\My Apps\\\\a.jar;b \\\"c\\\".jar\""),
+									  Files.readAllLines(f.toPath()));
+		} finally {
+			f.delete();
+		}
+	}
+
+	@Test
+	@Ignore
+	public void test() throws Exception {
+		Artifact artifact = Artifact.parse("org.springframework.boot:spring-boot-loader:1.3.0.BUILD-SNAPSHOT");
+		Launcher launcher = new Launcher(artifact);
+		ClassLoader cl = launcher.resolve(artifact, Thread.currentThread().getContextClassLoader());
+		Assert.assertNotNull(cl);
+
+		// releases all archives opened by the class loader
+		((Closeable) cl).close();
+	}
+}
@@ -0,0 +1,40 @@
+package io.jrevolt.launcher.mvn;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class MetadataTest {
+
+	static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><metadata modelVersion=\"1.1.0\">"
+			+ "<groupId>test</groupId><artifactId>app</artifactId><version>1.0-SNAPSHOT</version>"
+			+ "<versioning><snapshot><timestamp>20140805.215000</timestamp><buildNumber>2</buildNumber></snapshot>"
+			+ "<snapshotVersions>"
+			+ "<snapshotVersion><extension>jar</extension><value>1.0-20140805.215000-2</value></snapshotVersion>"
+			+ "<snapshotVersion><classifier>sources</classifier><extension>jar</extension>"
+			+ "<value>1.0-20140801.101010-1</value></snapshotVersion>"
+			+ "</snapshotVersions></versioning></metadata>";
+
+	@Test
+	public void snapshotVersions() throws Exception {
+		Metadata md = Metadata.parse(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)));
+		Assert.assertEquals("1.0-20140805.215000-2", md.getSnapshotVersion(Artifact.parse("test:app:1.0-SNAPSHOT")));
+		Assert.assertEquals("1.0-20140801.101010-1",
+								  md.getSnapshotVersion(Artifact.parse("test:app:1.0-SNAPSHOT:jar:sources")));
+		// not listed: latest snapshot
+		Assert.assertEquals("1.0-20140805.215000-2", md.getSnapshotVersion(Artifact.parse("test:app:1.0-SNAPSHOT:pom")));
+	}
+
+	@Test
+	public void nonUnique() throws Exception {
+		Metadata md = Metadata.parse(new ByteArrayInputStream(
+				"<metadata><versioning><snapshot><localCopy>true</localCopy></snapshot></versioning></metadata>"
+						.getBytes(StandardCharsets.UTF_8)));
+		Assert.assertEquals("1.0-SNAPSHOT", md.getSnapshotVersion(Artifact.parse("test:app:1.0-SNAPSHOT")));
+	}
+}
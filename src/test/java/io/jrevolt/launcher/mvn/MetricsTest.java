@@ -0,0 +1,62 @@
+package io.jrevolt.launcher.mvn;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Locale;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class MetricsTest {
+
+	@Test
+	public void timings() throws Exception {
+		Metrics.Timings t = new Metrics.Timings();
+		t.end(Metrics.Phase.Get); // not started: ignored
+		Assert.assertEquals(0, t.end[Metrics.Phase.Get.ordinal()]);
+
+		t.begin(Metrics.Phase.Get);
+		long first = t.start[Metrics.Phase.Get.ordinal()];
+		t.end(Metrics.Phase.Get);
+		t.begin(Metrics.Phase.Get); // retry: spans from the first start
+		t.end(Metrics.Phase.Get);
+		Assert.assertEquals(first, t.start[Metrics.Phase.Get.ordinal()]);
+		Assert.assertTrue(t.end[Metrics.Phase.Get.ordinal()] >= first);
+	}
+
+	@Test
+	public void assign() throws Exception {
+		Artifact a = Artifact.parse("test:app:1.0");
+		Artifact copy = a.copy();
+		a.state.timings.begin(Metrics.Phase.ResolveQueue);
+		copy.state.timings.begin(Metrics.Phase.Head);
+		copy.state.timings.end(Metrics.Phase.Head);
+		a.assign(copy);
+		Assert.assertNotEquals(0, a.state.timings.start[Metrics.Phase.ResolveQueue.ordinal()]);
+		Assert.assertNotEquals(0, a.state.timings.start[Metrics.Phase.Head.ordinal()]);
+		Assert.assertEquals(copy.state.timings.end[Metrics.Phase.Head.ordinal()], a.state.timings.end[Metrics.Phase.Head.ordinal()]);
+	}
+
+	@Test
+	public void jsonLocale() throws Exception {
+		Artifact a = Artifact.parse("test:app:1.0");
+		a.state.timings.begin(Metrics.Phase.Get);
+		a.state.timings.end(Metrics.Phase.Get);
+		Metrics metrics = new Metrics();
+		metrics.samples.add(new Metrics.Sample(1, 2, 3, 4, 5, 6));
+		StringWriter json = new StringWriter();
+		Locale locale = Locale.getDefault();
+		Locale.setDefault(new Locale("sk", "SK")); // decimal comma
+		try (PrintWriter out = new PrintWriter(json)) {
+			metrics.json(out, a, Collections.singletonList(a), System.nanoTime());
+		} finally {
+			Locale.setDefault(locale);
+		}
+		Assert.assertTrue(json.toString(), json.toString().matches("(?s).*\"elapsed\": \\d+\\.\\d{3},.*"));
+		Assert.assertFalse(json.toString(), json.toString().matches("(?s).*\\d,\\d.*"));
+	}
+}
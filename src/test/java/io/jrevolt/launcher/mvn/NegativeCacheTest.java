@@ -0,0 +1,75 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.AbstractTest;
+import io.jrevolt.launcher.LauncherCfg;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class NegativeCacheTest extends AbstractTest {
+
+	static final String PATH = "org/example/missing/1.0/missing-1.0.jar";
+
+	File cache;
+	Repository repository = new Repository("test", URI.create("http://localhost/"), null, null);
+
+	@Before
+	public void before() throws Exception {
+		super.before();
+		cache = new File(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+		System.setProperty(LauncherCfg.update.getPropertyName(), "false");
+		LauncherCfg.refresh();
+	}
+
+	@After
+	public void after() throws Exception {
+		System.clearProperty(LauncherCfg.update.getPropertyName());
+		System.clearProperty(LauncherCfg.notFoundInterval.getPropertyName());
+		LauncherCfg.refresh();
+		super.after();
+	}
+
+	@Test
+	public void persistent() throws Exception {
+		NegativeCache nc = new NegativeCache(cache, repository);
+		Assert.assertFalse(nc.contains(PATH));
+		nc.add(PATH);
+
+		NegativeCache reloaded = new NegativeCache(cache, repository);
+		Assert.assertTrue(reloaded.contains(PATH));
+		Assert.assertEquals(1, reloaded.getHits());
+
+		reloaded.remove(PATH);
+		Assert.assertFalse(new NegativeCache(cache, repository).contains(PATH));
+	}
+
+	@Test
+	public void bypassedByUpdate() throws Exception {
+		new NegativeCache(cache, repository).add(PATH);
+		System.setProperty(LauncherCfg.update.getPropertyName(), "true");
+		LauncherCfg.refresh();
+
+		NegativeCache nc = new NegativeCache(cache, repository);
+		Assert.assertFalse(nc.contains(PATH));
+		Assert.assertEquals(0, nc.getHits());
+	}
+
+	@Test
+	public void disabled() throws Exception {
+		System.setProperty(LauncherCfg.notFoundInterval.getPropertyName(), "PT0S");
+		LauncherCfg.refresh();
+		NegativeCache nc = new NegativeCache(cache, repository);
+		nc.add(PATH);
+		Assert.assertFalse(nc.getFile().exists());
+	}
+
+}
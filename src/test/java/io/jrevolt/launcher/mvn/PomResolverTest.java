@@ -0,0 +1,165 @@
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.AbstractTest;
+import io.jrevolt.launcher.LauncherCfg;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class PomResolverTest extends AbstractTest {
+
+	File tmp;
+	File repo;
+	File cache;
+
+	@Before
+	public void before() throws Exception {
+		super.before();
+		tmp = new File(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+		repo = new File(tmp, "repo");
+		cache = new File(tmp, "cache");
+		System.setProperty(LauncherCfg.cache.getPropertyName(), cache.getAbsolutePath());
+		System.setProperty(LauncherCfg.repositories.getPropertyName(), "test");
+
+		pom("test", "parent", "1", "<packaging>pom</packaging>"
+				+ "<properties><lib.version>2.0</lib.version></properties>"
+				+ "<dependencyManagement><dependencies>"
+				+ dep("test", "managed", "3.0", "")
+				+ "</dependencies></dependencyManagement>");
+		pom("test", "app", "1", "<parent><groupId>test</groupId><artifactId>parent</artifactId><version>1</version></parent>"
+				+ "<dependencies>"
+				+ dep("test", "lib", "${lib.version}", "<exclusions><exclusion>"
+				+ "<groupId>test</groupId><artifactId>excluded</artifactId></exclusion></exclusions>")
+				+ dep("test", "managed", null, "")
+				+ dep("test", "junit", "1", "<scope>test</scope>")
+				+ dep("test", "nested", "1", "")
+				+ "</dependencies>");
+		pom("test", "lib", "2.0", "<dependencies>"
+				+ dep("test", "excluded", "1", "")
+				+ dep("test", "nested", "0.9", "")
+				+ dep("test", "optional", "1", "<optional>true</optional>")
+				+ dep("test", "transitive", "[1.5,2)", "")
+				+ "</dependencies>");
+		pom("test", "managed", "3.0", "");
+		pom("test", "nested", "1", "");
+		pom("test", "transitive", "1.5", "");
+		System.setProperty("jrevolt.launcher.repository.test.url", repo.toURI().toString());
+		LauncherCfg.refresh();
+	}
+
+	@After
+	public void after() throws Exception {
+		System.clearProperty(LauncherCfg.cache.getPropertyName());
+		System.clearProperty(LauncherCfg.repositories.getPropertyName());
+		System.clearProperty("jrevolt.launcher.repository.test.url");
+		LauncherCfg.refresh();
+		delete(tmp);
+		super.after();
+	}
+
+	@Test
+	public void transitive() throws Exception {
+		Artifact root = Artifact.parse("test:app:1");
+		ResolverContext context = new ResolverContext(root);
+		try {
+			List<String> actual = new ArrayList<>();
+			for (Artifact a : new PomResolver(context).resolve(root)) {
+				actual.add(a.asString());
+			}
+			// inherited properties and management, scopes, nearest wins, exclusions, optionals, version ranges
+			Assert.assertEquals("[test:lib:2.0:jar, test:managed:3.0:jar, test:nested:1:jar, test:transitive:1.5:jar]",
+									  actual.toString());
+			Assert.assertTrue(new File(cache, "test/app/1/app-1.pom.model").exists());
+		} finally {
+			context.close();
+		}
+	}
+
+	@Test
+	public void ranges() throws Exception {
+		pom("test", "ranges", "1", "<dependencies>"
+				+ dep("test", "open", "(1.0,)", "")
+				+ dep("test", "exclusive", "(1.0,2.0)", "")
+				+ dep("test", "upper", "(1.0,1.2]", "")
+				+ dep("test", "exact", "[1.1]", "")
+				+ "</dependencies>");
+		pom("test", "upper", "1.2", "");
+		pom("test", "exact", "1.1", "");
+		Artifact root = Artifact.parse("test:ranges:1");
+		ResolverContext context = new ResolverContext(root);
+		try {
+			List<String> actual = new ArrayList<>();
+			for (Artifact a : new PomResolver(context).resolve(root)) {
+				actual.add(a.asString());
+			}
+			// only inclusive bounds are selected, ranges without one are skipped (no metadata lookup)
+			Assert.assertEquals("[test:upper:1.2:jar, test:exact:1.1:jar]", actual.toString());
+		} finally {
+			context.close();
+		}
+	}
+
+	@Test
+	public void directVersion() throws Exception {
+		pom("test", "bom", "1", "<packaging>pom</packaging><dependencyManagement><dependencies>"
+				+ dep("test", "databind", "2.9", "")
+				+ dep("test", "core", "2.9", "")
+				+ "</dependencies></dependencyManagement>");
+		pom("test", "direct", "1", "<dependencyManagement><dependencies>"
+				+ dep("test", "bom", "1", "<type>pom</type><scope>import</scope>")
+				+ "</dependencies></dependencyManagement><dependencies>"
+				+ dep("test", "databind", "2.10", "")
+				+ "</dependencies>");
+		pom("test", "databind", "2.10", "<dependencies>" + dep("test", "core", "2.10", "") + "</dependencies>");
+		pom("test", "core", "2.9", "");
+		Artifact root = Artifact.parse("test:direct:1");
+		ResolverContext context = new ResolverContext(root);
+		try {
+			List<String> actual = new ArrayList<>();
+			for (Artifact a : new PomResolver(context).resolve(root)) {
+				actual.add(a.asString());
+			}
+			// declared version of a direct dependency wins, management applies to transitive ones
+			Assert.assertEquals("[test:databind:2.10:jar, test:core:2.9:jar]", actual.toString());
+		} finally {
+			context.close();
+		}
+	}
+
+	@Test
+	public void select() {
+		Assert.assertEquals("1.5", PomResolver.select("[1.5,2)"));
+		Assert.assertEquals("1.0", PomResolver.select("[1.0,)"));
+		Assert.assertEquals("2.0", PomResolver.select("(,2.0]"));
+		Assert.assertEquals("1.1", PomResolver.select("[1.1]"));
+		Assert.assertNull(PomResolver.select("(1.0,)"));
+		Assert.assertNull(PomResolver.select("(1.0,2.0)"));
+	}
+
+	String dep(String groupId, String artifactId, String version, String extra) {
+		return String.format("<dependency><groupId>%s</groupId><artifactId>%s</artifactId>%s%s</dependency>",
+									groupId, artifactId, version != null ? "<version>" + version + "</version>" : "", extra);
+	}
+
+	void pom(String groupId, String artifactId, String version, String content) throws Exception {
+		File f = new File(repo, String.format("%s/%s/%s/%2$s-%3$s.pom", groupId, artifactId, version));
+		f.getParentFile().mkdirs();
+		String xml = String.format("<?xml version=\"1.0\"?><project xmlns=\"http://maven.apache.org/POM/4.0.0\">"
+												+ "<modelVersion>4.0.0</modelVersion>"
+												+ "<groupId>%s</groupId><artifactId>%s</artifactId><version>%s</version>%s</project>",
+										  groupId, artifactId, version, content);
+		Files.write(f.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+	}
+}
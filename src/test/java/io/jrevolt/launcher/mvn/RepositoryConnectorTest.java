@@ -1,31 +1,292 @@
-package io.jrevolt.launcher.mvn;
-
-import io.jrevolt.launcher.AbstractTest;
-
-import org.junit.Assert;
-import org.junit.Ignore;
-import org.junit.Test;
-
-import java.io.File;
-
-/**
- * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
- */
-public class RepositoryConnectorTest extends AbstractTest {
-
-	@Test
-	@Ignore
-	public void test() {
-		Artifact a = Artifact.parse("org.springframework.boot:spring-boot-loader:1.3.0.BUILD-SNAPSHOT");
-		ResolverContext context = new ResolverContext(a);
-		try {
-			RepositoryConnector c = new RepositoryConnector(Repository.forRepositoryId("default"), context, null);
-			c.resolveSnapshotVersion(a);
-			File f = c.resolve(a);
-			Assert.assertNotNull(f);
-		} finally {
-			context.close();
-		}
-	}
-
-}
+package io.jrevolt.launcher.mvn;
+
+import io.jrevolt.launcher.AbstractTest;
+import io.jrevolt.launcher.LauncherCfg;
+import io.jrevolt.launcher.LauncherException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class RepositoryConnectorTest extends AbstractTest {
+
+	static private final String PATH = "/test/lib/1/lib-1.jar";
+
+	File cache;
+	HttpServer server;
+	Map<String, byte[]> content = new ConcurrentHashMap<>();
+	List<String> ranges = new CopyOnWriteArrayList<>();
+	List<String> requests = new CopyOnWriteArrayList<>();
+	volatile String lastModified;
+
+	@Before
+	public void before() throws Exception {
+		super.before();
+		cache = new File(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+
+		// plain repository: ranges supported, no validators (ETag, Last-Modified) unless configured
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", this::handle);
+		server.start();
+
+		System.setProperty(LauncherCfg.cache.getPropertyName(), cache.getAbsolutePath());
+		System.setProperty(LauncherCfg.repositories.getPropertyName(), "test");
+		System.setProperty("jrevolt.launcher.repository.test.url",
+								 String.format("http://127.0.0.1:%d/", server.getAddress().getPort()));
+		LauncherCfg.refresh();
+	}
+
+	@After
+	public void after() throws Exception {
+		server.stop(0);
+		System.clearProperty(LauncherCfg.cache.getPropertyName());
+		System.clearProperty(LauncherCfg.repositories.getPropertyName());
+		System.clearProperty("jrevolt.launcher.repository.test.url");
+		System.clearProperty(LauncherCfg.allowMissingChecksum.getPropertyName());
+		System.clearProperty(LauncherCfg.segmentThreshold.getPropertyName());
+		System.clearProperty(LauncherCfg.contentStore.getPropertyName());
+		System.clearProperty(LauncherCfg.retries.getPropertyName());
+		System.clearProperty(LauncherCfg.conditionalFetch.getPropertyName());
+		LauncherCfg.refresh();
+		delete(cache);
+		super.after();
+	}
+
+	@Test
+	public void verified() throws Exception {
+		byte[] data = publish(1024, true);
+		Artifact a = download();
+		Assert.assertEquals(Artifact.Status.Downloaded, a.getStatus());
+		Assert.assertArrayEquals(data, Files.readAllBytes(a.getFile().toPath()));
+	}
+
+	@Test
+	public void missingChecksum() throws Exception {
+		publish(1024, false);
+		try {
+			download();
+			Assert.fail("Unverified download accepted");
+		} catch (LauncherException expected) {
+			Assert.assertTrue(expected.getMessage(), expected.getMessage().contains("No SHA1 checksum available"));
+		}
+		Assert.assertFalse(new File(cache, PATH).exists());
+	}
+
+	@Test
+	public void missingChecksumAllowed() throws Exception {
+		System.setProperty(LauncherCfg.allowMissingChecksum.getPropertyName(), "true");
+		LauncherCfg.refresh();
+		byte[] data = publish(1024, false);
+		Artifact a = download();
+		Assert.assertEquals(Artifact.Status.Downloaded, a.getStatus());
+		Assert.assertArrayEquals(data, Files.readAllBytes(a.getFile().toPath()));
+	}
+
+	@Test
+	public void segmentsRequireValidators() throws Exception {
+		// large enough to be segmented, but ranges could not be made conditional (If-Range)
+		System.setProperty(LauncherCfg.segmentThreshold.getPropertyName(), "1024");
+		LauncherCfg.refresh();
+		byte[] data = publish(64 * 1024, true);
+		Artifact a = download();
+		Assert.assertEquals(Artifact.Status.Downloaded, a.getStatus());
+		Assert.assertArrayEquals(data, Files.readAllBytes(a.getFile().toPath()));
+		Assert.assertTrue(ranges.toString(), ranges.isEmpty());
+	}
+
+	@Test
+	public void segmented() throws Exception {
+		System.setProperty(LauncherCfg.segmentThreshold.getPropertyName(), "1024");
+		LauncherCfg.refresh();
+		lastModified = "Thu, 01 Oct 2026 00:00:00 GMT";
+		byte[] data = publish(64 * 1024, true);
+		Artifact a = download();
+		Assert.assertEquals(Artifact.Status.Downloaded, a.getStatus());
+		Assert.assertArrayEquals(data, Files.readAllBytes(a.getFile().toPath()));
+		Assert.assertFalse(ranges.isEmpty());
+	}
+
+	@Test
+	public void storedTimestamps() throws Exception {
+		System.setProperty(LauncherCfg.contentStore.getPropertyName(), "true");
+		LauncherCfg.refresh();
+		Artifact a = Artifact.parse("test:lib:1");
+		ResolverContext context = new ResolverContext(a);
+		try {
+			RepositoryConnector c = new RepositoryConnector(Repository.forRepositoryId("test"), context, null);
+			// content restored from the store: a link to a blob shared with another cached file
+			File other = new File(cache, "test/other/1/other-1.jar");
+			other.getParentFile().mkdirs();
+			Files.write(other.toPath(), "content".getBytes(StandardCharsets.UTF_8));
+			other.setLastModified(1000000000000L);
+			File tmp = new File(cache, "test/lib/1/lib-1.jar.tmp");
+			tmp.getParentFile().mkdirs();
+			Files.createLink(tmp.toPath(), other.toPath());
+
+			File f = new File(cache, PATH);
+			c.commit(tmp, f, new Validators(null, 1500000000000L), null);
+			Assert.assertTrue(f.isFile());
+			Assert.assertEquals(1000000000000L, other.lastModified());
+			Assert.assertEquals(1500000000000L, context.index.getValidators(f).getLastModified());
+		} finally {
+			context.close();
+		}
+	}
+
+	@Test
+	public void stored() throws Exception {
+		System.setProperty(LauncherCfg.contentStore.getPropertyName(), "true");
+		System.setProperty(LauncherCfg.conditionalFetch.getPropertyName(), "false");
+		LauncherCfg.refresh();
+		lastModified = "Thu, 01 Oct 2026 00:00:00 GMT"; // required by HEAD probes
+		byte[] data = publish(1024, true);
+		publish("/test/copy/1/copy-1.jar", data, true);
+		download();
+
+		// same content, different coordinates: restored from the store, no transfer
+		requests.clear();
+		Artifact a = download("test:copy:1");
+		Assert.assertEquals(Artifact.Status.Downloaded, a.getStatus());
+		Assert.assertArrayEquals(data, Files.readAllBytes(a.getFile().toPath()));
+		Assert.assertFalse(requests.toString(), requests.contains("GET /test/copy/1/copy-1.jar"));
+	}
+
+	@Test
+	public void locked() throws Exception {
+		System.setProperty(LauncherCfg.retries.getPropertyName(), "1");
+		LauncherCfg.refresh();
+		publish(1024, true);
+		Artifact a = Artifact.parse("test:lib:1");
+		ResolverContext context = new ResolverContext(a);
+		File file = new File(cache, PATH + ".part");
+		file.getParentFile().mkdirs();
+		// same file being downloaded by another thread of this JVM
+		try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			  FileLock ignored = ch.lock()) {
+			RepositoryConnector c = new RepositoryConnector(Repository.forRepositoryId("test"), context, null);
+			URLConnection con = new URL(String.format("http://127.0.0.1:%d%s", server.getAddress().getPort(), PATH))
+					.openConnection();
+			c.download(a, con, file);
+			Assert.fail("Locked file written");
+		} catch (IOException expected) {
+			Assert.assertTrue(expected.getMessage(), expected.getMessage().startsWith("Locked"));
+		} finally {
+			context.close();
+		}
+	}
+
+	@Test
+	@Ignore
+	public void test() {
+		Artifact a = Artifact.parse("org.springframework.boot:spring-boot-loader:1.3.0.BUILD-SNAPSHOT");
+		ResolverContext context = new ResolverContext(a);
+		try {
+			RepositoryConnector c = new RepositoryConnector(Repository.forRepositoryId("default"), context, null);
+			c.resolveSnapshotVersion(a);
+			File f = c.resolve(a);
+			Assert.assertNotNull(f);
+		} finally {
+			context.close();
+		}
+	}
+
+	private Artifact download() throws Exception {
+		return download("test:lib:1");
+	}
+
+	private Artifact download(String coordinates) throws Exception {
+		Artifact a = Artifact.parse(coordinates);
+		ResolverContext context = new ResolverContext(a);
+		try {
+			RepositoryConnector c = new RepositoryConnector(Repository.forRepositoryId("test"), context, null);
+			c.resolve(a);
+			Assert.assertEquals(Artifact.Status.Downloadable, a.getStatus());
+			c.download(a);
+			return a;
+		} finally {
+			context.close();
+		}
+	}
+
+	private byte[] publish(int size, boolean checksum) throws Exception {
+		byte[] data = new byte[size];
+		new Random(size).nextBytes(data);
+		publish(PATH, data, checksum);
+		return data;
+	}
+
+	private void publish(String path, byte[] data, boolean checksum) throws Exception {
+		content.put(path, data);
+		if (checksum) {
+			StringBuilder sha1 = new StringBuilder();
+			for (byte b : MessageDigest.getInstance("SHA1").digest(data)) {
+				sha1.append(String.format("%02x", b));
+			}
+			content.put(path + ".sha1", sha1.toString().getBytes(StandardCharsets.US_ASCII));
+		}
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			byte[] data = content.get(exchange.getRequestURI().getPath());
+			requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+			String range = exchange.getRequestHeaders().getFirst("Range");
+			if (range != null) {
+				ranges.add(range);
+			}
+			if (data == null) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+			if (lastModified != null) {
+				exchange.getResponseHeaders().set("Last-Modified", lastModified);
+			}
+			int from = 0;
+			int to = data.length - 1;
+			if (range != null && range.startsWith("bytes=")) {
+				String[] bounds = range.substring("bytes=".length()).split("-", -1);
+				from = Integer.parseInt(bounds[0]);
+				to = bounds[1].isEmpty() ? to : Math.min(to, Integer.parseInt(bounds[1]));
+				exchange.getResponseHeaders().set("Content-Range",
+															 String.format("bytes %d-%d/%d", from, to, data.length));
+			}
+			boolean head = "HEAD".equals(exchange.getRequestMethod());
+			exchange.sendResponseHeaders(range != null ? 206 : 200, head ? -1 : to - from + 1);
+			if (!head) {
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(data, from, to - from + 1);
+				}
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+package io.jrevolt.launcher.mvn;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * @author <a href="mailto:patrikbeno@gmail.com">Patrik Beno</a>
+ */
+public class SharedArchiveTest {
+
+	File dir;
+	File jar;
+
+	@Before
+	public void before() throws Exception {
+		Assume.assumeTrue(SharedArchive.getJavaVersion() >= 13);
+		dir = new File(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+		jar = new File(dir, "app.jar");
+		dir.mkdirs();
+		Files.write(jar.toPath(), "content".getBytes());
+	}
+
+	@Test
+	public void lifecycle() throws Exception {
+		SharedArchive training = archive();
+		Assert.assertFalse(training.isAvailable());
+		record(training);
+		Assert.assertTrue(training.getFile().isFile());
+
+		SharedArchive reused = archive();
+		Assert.assertTrue(reused.isAvailable());
+		Assert.assertEquals(training.getFile(), reused.getFile());
+		Assert.assertTrue(reused.getJvmOptions().get(0).endsWith("=" + reused.getFile()));
+
+		// class path changed: new archive recorded, previous one removed
+		Files.write(jar.toPath(), "modified".getBytes());
+		SharedArchive updated = archive();
+		Assert.assertFalse(updated.isAvailable());
+		Assert.assertNotEquals(training.getFile(), updated.getFile());
+		record(updated);
+		Assert.assertTrue(updated.getFile().isFile());
+		Assert.assertFalse(training.getFile().exists());
+	}
+
+	@Test
+	public void notRecorded() throws Exception {
+		SharedArchive training = archive();
+		training.getJvmOptions();
+		training.recorded(); // e.g. application killed
+		Assert.assertFalse(training.getFile().exists());
+		Assert.assertFalse(archive().isAvailable());
+	}
+
+	private SharedArchive archive() {
+		return SharedArchive.forClassPath("g_a", "demo.App", Collections.singletonList(jar), dir);
+	}
+
+	/**
+	 * Simulates the training run: JVM writes the archive on exit
+	 */
+	private void record(SharedArchive archive) throws Exception {
+		List<String> options = archive.getJvmOptions();
+		String option = options.get(0);
+		File tmp = new File(option.substring(option.indexOf('=') + 1));
+		Assert.assertNotEquals(archive.getFile(), tmp);
+		Files.write(tmp.toPath(), "archive".getBytes());
+		archive.recorded();
+		Assert.assertFalse(tmp.exists());
+	}
+
+}